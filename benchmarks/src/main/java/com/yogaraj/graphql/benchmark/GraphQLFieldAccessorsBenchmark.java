@@ -0,0 +1,135 @@
+package com.yogaraj.graphql.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.yogaraj.graphql.benchmark.SyntheticSchemaCorpus.Mix;
+import com.yogaraj.graphql.schemagenerator.GraphQLFieldAccessors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import graphql.Scalars;
+import graphql.execution.ExecutionContext;
+import graphql.execution.ExecutionContextBuilder;
+import graphql.execution.ExecutionId;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import graphql.schema.PropertyDataFetcher;
+
+/**
+ * Resolves every field of objects of several {@link SyntheticSchemaCorpus}
+ * classes, like graphql-java does for a list of mixed types.
+ *
+ * <pre>
+ * property   {@link PropertyDataFetcher} of every field, one reflective call site for all classes
+ * generated  {@link GraphQLFieldAccessors#dataFetcher(Class, String)}, one class per field
+ * </pre>
+ *
+ * With one type both call sites are monomorphic, with more types the
+ * {@link PropertyDataFetcher} becomes megamorphic while every generated
+ * accessor still sees only its own class. The corpus fields have no getters,
+ * which the {@link PropertyDataFetcher} looks for before it reads a public
+ * field.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar GraphQLFieldAccessorsBenchmark
+ * </pre>
+ *
+ * @author Yogaraj
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQLFieldAccessorsBenchmark {
+
+    private static final int FIELDS = 4;
+
+    private static final int SOURCES = 1024;
+
+    @Param({ "1", "8" })
+    public int types;
+
+    private SyntheticSchemaCorpus corpus;
+
+    /**
+     * the same field of the i-th source, for both kinds of data fetchers
+     */
+    private DataFetchingEnvironment[] environments;
+
+    private DataFetcher<?>[] propertyFetchers;
+
+    private DataFetcher<?>[] generatedFetchers;
+
+    @Setup
+    public void setUp() throws IOException, ReflectiveOperationException {
+        this.corpus = SyntheticSchemaCorpus.create(this.types, FIELDS, 0, Mix.SCALAR);
+        ClassLoader classLoader = this.corpus.newClassLoader();
+        Class<?>[] classes = new Class<?>[this.types];
+        for (int index = 0; index < this.types; index++) {
+            classes[index] = Class.forName(
+                    SyntheticSchemaCorpus.PACKAGE_NAME + "." + String.format("Type%05d", index), true, classLoader);
+        }
+
+        this.environments = new DataFetchingEnvironment[SOURCES];
+        this.propertyFetchers = new DataFetcher<?>[SOURCES];
+        this.generatedFetchers = new DataFetcher<?>[SOURCES];
+        ExecutionContext executionContext = ExecutionContextBuilder.newExecutionContextBuilder()
+                .executionId(ExecutionId.generate()).build();
+        for (int index = 0; index < SOURCES; index++) {
+            Class<?> sourceClass = classes[index % this.types];
+            String fieldName = "field" + (index / this.types) % FIELDS;
+            Object source = sourceClass.getConstructor().newInstance();
+            for (Field field : sourceClass.getFields()) {
+                field.set(source, field.getName() + index);
+            }
+            this.environments[index] = new DataFetchingEnvironmentImpl(source, Collections.emptyMap(), null, null,
+                    null, Collections.emptyList(), Scalars.GraphQLString, null, null, Collections.emptyMap(), null,
+                    null, null, executionContext);
+            this.propertyFetchers[index] = PropertyDataFetcher.fetching(fieldName);
+            this.generatedFetchers[index] = GraphQLFieldAccessors.dataFetcher(sourceClass, fieldName);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.corpus.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SOURCES)
+    public void property(Blackhole blackhole) throws Exception {
+        fetchAll(this.propertyFetchers, this.environments, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SOURCES)
+    public void generated(Blackhole blackhole) throws Exception {
+        fetchAll(this.generatedFetchers, this.environments, blackhole);
+    }
+
+    private static void fetchAll(DataFetcher<?>[] dataFetchers, DataFetchingEnvironment[] environments,
+            Blackhole blackhole) throws Exception {
+        for (int index = 0; index < environments.length; index++) {
+            blackhole.consume(dataFetchers[index].get(environments[index]));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.yogaraj.graphql.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yogaraj.graphql.schemagenerator.GraphQLExecutableSchemaBuilder;
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLFieldDescriptor;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+import com.yogaraj.graphql.schemagenerator.GraphQLStreamingExecutionStrategy;
+import com.yogaraj.graphql.schemagenerator.GraphQLTypeDescriptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+
+/**
+ * Executes <code>{ docs { title url size } }</code> over <code>rows</code>
+ * docs and writes the response to a stream which discards the bytes. The data
+ * fetcher returns a lazy {@link Iterable}, which creates every row when it is
+ * taken.
+ *
+ * <pre>
+ * objectMapper  default strategy, {@link ExecutionResult#toSpecification()} with the ObjectMapper, as POST /graphql
+ * streaming     {@link GraphQLStreamingExecutionStrategy}, as POST /graphql/stream
+ * </pre>
+ *
+ * The default strategy keeps every row and its result map until the response
+ * is written, the streaming strategy one row. Allocation rates are reported
+ * with the gc profiler, the retained heap follows from a small heap:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar GraphQLStreamingExecutionBenchmark -prof gc
+ * java -jar target/benchmarks.jar GraphQLStreamingExecutionBenchmark -jvmArgs -Xmx64m
+ * </pre>
+ *
+ * @author Yogaraj
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQLStreamingExecutionBenchmark {
+
+    private static final String QUERY = "{ docs { title url size } }";
+
+    @Param({ "1000", "100000" })
+    public int rows;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final OutputStream outputStream = OutputStream.nullOutputStream();
+
+    private graphql.schema.GraphQLSchema schema;
+
+    private GraphQL graphQL;
+
+    @Setup
+    public void setUp() {
+        GraphQLTypeDescriptor queryType = new GraphQLTypeDescriptor("DocQuery", SchemaType.QUERY, "docQuery", null,
+                List.of(new GraphQLFieldDescriptor("docs", FieldType.LIST, "doc", false, List.of())),
+                Collections.emptySet());
+        GraphQLTypeDescriptor docType = new GraphQLTypeDescriptor("Doc", SchemaType.OBJECT, "doc", null,
+                List.of(new GraphQLFieldDescriptor("title", FieldType.STRING, "String", true, List.of()),
+                        new GraphQLFieldDescriptor("url", FieldType.STRING, "String", false, List.of()),
+                        new GraphQLFieldDescriptor("size", FieldType.INT, "Int", true, List.of())),
+                Collections.emptySet());
+        Iterable<Map<String, Object>> docs = () -> IntStream.range(0, this.rows)
+                .mapToObj(i -> Map.<String, Object>of("title", "Document " + i, "url", "/docs/" + i, "size", i * 31))
+                .iterator();
+        this.schema = new GraphQLExecutableSchemaBuilder().types(List.of(queryType, docType))
+                .dataFetcher("Query", "docs", environment -> docs).build();
+        this.graphQL = GraphQL.newGraphQL(this.schema).build();
+    }
+
+    @Benchmark
+    public void objectMapper() throws IOException {
+        this.objectMapper.writeValue(this.outputStream, this.graphQL.execute(QUERY).toSpecification());
+    }
+
+    @Benchmark
+    public void streaming() throws IOException {
+        try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(this.outputStream)) {
+            generator.writeStartObject();
+            GraphQL.newGraphQL(this.schema).queryExecutionStrategy(new GraphQLStreamingExecutionStrategy(generator))
+                    .build().execute(QUERY);
+            generator.writeEndObject();
+        }
+    }
+}
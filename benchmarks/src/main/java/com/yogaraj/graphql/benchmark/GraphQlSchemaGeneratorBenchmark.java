@@ -0,0 +1,240 @@
+package com.yogaraj.graphql.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.yogaraj.graphql.benchmark.SyntheticSchemaCorpus.Mix;
+import com.yogaraj.graphql.schemagenerator.GraphQLExecutableSchemaBuilder;
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLFieldDescriptor;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchemaBinary;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchemaClassReader;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchemaWriter;
+import com.yogaraj.graphql.schemagenerator.GraphQLTypeDescriptor;
+import com.yogaraj.graphql.schemagenerator.GraphQlSchemaGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.SchemaPrinter;
+
+/**
+ * Measures the phases of {@link GraphQlSchemaGenerator#generateSchema(String...)}
+ * separately over a {@link SyntheticSchemaCorpus}.
+ *
+ * <pre>
+ * scan     {@link GraphQLSchemaClassReader#findSchemaClassNames(String...)}
+ * load     Class.forName of every schema class with a new class loader
+ * read     scan and descriptors from class files with {@link GraphQLSchemaClassReader}, nothing is loaded
+ * readUncached the same without the class files which earlier generations parsed
+ * emit     {@link GraphQLSchemaWriter} over resolved descriptors
+ * generate the complete generation, cold class loader included
+ * generateParallel the same on {@link ForkJoinPool#commonPool()}
+ * generateStreaming the same, streamed to a {@link Writer} which discards the schema
+ * loadBinary       descriptors from the {@link GraphQLSchemaBinary} of the corpus
+ * renderBinary     schema text from the {@link GraphQLSchemaBinary} of the corpus
+ * buildExecutable  executable schema from the descriptors with {@link GraphQLExecutableSchemaBuilder}
+ * parseSdl         baseline: the same executable schema from its SDL with {@link SchemaParser} and
+ *                  {@link SchemaGenerator}, as a schema first application builds it at startup
+ * </pre>
+ *
+ * The SDL of the baseline is the {@link SchemaPrinter} output of the built
+ * schema, so both build the same types. Corpora without a Query class get a
+ * Query root with one field for both, graphql requires one.
+ *
+ * Parsed class files are shared by all readers, so every phase but
+ * readUncached measures repeated generations of unchanged classes.
+ *
+ * Allocation rates are reported with the gc profiler:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar GraphQlSchemaGeneratorBenchmark -prof gc
+ * </pre>
+ *
+ * @author Yogaraj
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQlSchemaGeneratorBenchmark {
+
+    // strongly referenced, otherwise the configured level is lost once the logger is collected
+    private static final Logger GENERATOR_LOGGER = Logger.getLogger(GraphQlSchemaGenerator.class.getSimpleName());
+
+    private static final Logger READER_LOGGER = Logger.getLogger(GraphQLSchemaClassReader.class.getSimpleName());
+
+    @Param({ "10", "1000", "10000", "50000" })
+    public int classes;
+
+    @Param({ "4", "32" })
+    public int fields;
+
+    @Param({ "0", "2" })
+    public int params;
+
+    @Param({ "SCALAR", "OBJECT_LIST_ENUM", "IMPLEMENTATION_CHAIN" })
+    public Mix mix;
+
+    private SyntheticSchemaCorpus corpus;
+
+    private ClassLoader classLoader;
+
+    private List<String> classNames;
+
+    private List<GraphQLTypeDescriptor> typeDescriptors;
+
+    private ByteBuffer binarySchema;
+
+    /**
+     * descriptors of the corpus and a Query root when the corpus has none
+     */
+    private List<GraphQLTypeDescriptor> executableTypeDescriptors;
+
+    private String sdl;
+
+    private RuntimeWiring runtimeWiring;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ClassNotFoundException {
+        // messages are still built, but not printed
+        GENERATOR_LOGGER.setLevel(java.util.logging.Level.WARNING);
+        READER_LOGGER.setLevel(java.util.logging.Level.WARNING);
+
+        this.corpus = SyntheticSchemaCorpus.create(classes, fields, params, mix);
+        this.classLoader = this.corpus.newClassLoader();
+
+        GraphQLSchemaClassReader classReader = new GraphQLSchemaClassReader(this.classLoader);
+        this.classNames = classReader.findSchemaClassNames(SyntheticSchemaCorpus.PACKAGE_NAME);
+        this.typeDescriptors = new ArrayList<>(this.classNames.size());
+        for (String className : this.classNames) {
+            this.typeDescriptors.add(classReader.buildTypeDescriptor(className));
+        }
+        ByteArrayOutputStream binaryOut = new ByteArrayOutputStream();
+        GraphQLSchemaBinary.write(this.typeDescriptors, binaryOut);
+        // direct like a mapped file
+        this.binarySchema = ByteBuffer.allocateDirect(binaryOut.size()).put(binaryOut.toByteArray()).flip();
+
+        this.executableTypeDescriptors = new ArrayList<>(this.typeDescriptors);
+        if (this.typeDescriptors.stream().noneMatch(type -> type.getSchemaType() == SchemaType.QUERY)) {
+            String typeName = this.typeDescriptors.get(0).getOperationName();
+            this.executableTypeDescriptors.add(new GraphQLTypeDescriptor(SyntheticSchemaCorpus.PACKAGE_NAME + ".Query",
+                    SchemaType.QUERY, GraphQLExecutableSchemaBuilder.QUERY_TYPE_NAME, null,
+                    List.of(new GraphQLFieldDescriptor(typeName, FieldType.OBJECT, typeName, true, List.of())),
+                    Set.of()));
+        }
+        this.sdl = new SchemaPrinter().print(this.buildExecutable());
+        this.runtimeWiring = RuntimeWiring.newRuntimeWiring().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.corpus.close();
+    }
+
+    @Benchmark
+    public List<String> scan() {
+        return new GraphQLSchemaClassReader(this.classLoader).findSchemaClassNames(SyntheticSchemaCorpus.PACKAGE_NAME);
+    }
+
+    @Benchmark
+    public void load(Blackhole blackhole) throws ClassNotFoundException {
+        ClassLoader coldClassLoader = this.corpus.newClassLoader();
+        for (String className : this.classNames) {
+            blackhole.consume(Class.forName(className, true, coldClassLoader));
+        }
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws ClassNotFoundException {
+        GraphQLSchemaClassReader classReader = new GraphQLSchemaClassReader(this.corpus.newClassLoader());
+        for (String className : classReader.findSchemaClassNames(SyntheticSchemaCorpus.PACKAGE_NAME)) {
+            blackhole.consume(classReader.buildTypeDescriptor(className));
+        }
+    }
+
+    @Benchmark
+    public void readUncached(Blackhole blackhole) throws ClassNotFoundException {
+        GraphQLSchemaClassReader.clearClassFileCache();
+        this.read(blackhole);
+    }
+
+    @Benchmark
+    public int emit() throws IOException {
+        GraphQLSchemaWriter schemaWriter = new GraphQLSchemaWriter();
+        StringBuilder schemaBuilder = new StringBuilder();
+        for (GraphQLTypeDescriptor typeDescriptor : this.typeDescriptors) {
+            schemaWriter.write(typeDescriptor, schemaBuilder);
+        }
+        return schemaBuilder.length();
+    }
+
+    @Benchmark
+    public String generate() throws ClassNotFoundException {
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator(this.corpus.newClassLoader());
+        generator.generateSchema(SyntheticSchemaCorpus.PACKAGE_NAME);
+        return generator.getSchema();
+    }
+
+    @Benchmark
+    public String generateParallel() throws ClassNotFoundException {
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator(this.corpus.newClassLoader());
+        generator.setExecutor(ForkJoinPool.commonPool());
+        generator.generateSchema(SyntheticSchemaCorpus.PACKAGE_NAME);
+        return generator.getSchema();
+    }
+
+    @Benchmark
+    public List<GraphQLTypeDescriptor> loadBinary() throws IOException {
+        return GraphQLSchemaBinary.read(this.binarySchema).readTypes();
+    }
+
+    @Benchmark
+    public String renderBinary() throws IOException {
+        return GraphQLSchemaBinary.read(this.binarySchema).renderSchema();
+    }
+
+    @Benchmark
+    public graphql.schema.GraphQLSchema buildExecutable() {
+        GraphQLExecutableSchemaBuilder schemaBuilder = new GraphQLExecutableSchemaBuilder();
+        this.executableTypeDescriptors.forEach(schemaBuilder::type);
+        return schemaBuilder.build();
+    }
+
+    @Benchmark
+    public graphql.schema.GraphQLSchema parseSdl() {
+        return new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(this.sdl), this.runtimeWiring);
+    }
+
+    @Benchmark
+    public void generateStreaming() throws ClassNotFoundException, IOException {
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator(this.corpus.newClassLoader());
+        generator.generateSchema(Writer.nullWriter(), SyntheticSchemaCorpus.PACKAGE_NAME);
+    }
+}
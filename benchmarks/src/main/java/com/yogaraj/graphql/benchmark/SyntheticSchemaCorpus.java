@@ -0,0 +1,232 @@
+package com.yogaraj.graphql.benchmark;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField;
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLFieldParameter;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.FieldVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+/**
+ * Writes a package of synthetic {@link GraphQLSchema} classes as class files
+ * into a temporary directory. The classes are emitted as bytecode, so even
+ * corpora of 50,000 classes are created in seconds.
+ *
+ * <p>
+ * Class <code>i</code> is named <code>Type%05d</code>, so the scan order is the
+ * creation order. Its schema type depends on the {@link Mix}.
+ * </p>
+ *
+ * @author Yogaraj
+ */
+public final class SyntheticSchemaCorpus implements Closeable {
+
+    public static final String PACKAGE_NAME = "com.yogaraj.graphql.benchmark.synthetic";
+
+    /**
+     * shape of the generated classes
+     */
+    public enum Mix {
+        /** only OBJECT types with scalar fields */
+        SCALAR,
+        /** OBJECT types with OBJECT and LIST fields mixed with ENUM, INPUT, QUERY and MUTATION types */
+        OBJECT_LIST_ENUM,
+        /** chains of four types where each IMPLEMENTATION refers to its predecessor */
+        IMPLEMENTATION_CHAIN
+    }
+
+    private static final FieldType[] SCALAR_TYPES = { FieldType.STRING, FieldType.INT, FieldType.FLOAT,
+            FieldType.BOOLEAN, FieldType.ID };
+
+    private static final FieldType[] MIXED_TYPES = { FieldType.STRING, FieldType.OBJECT, FieldType.INT,
+            FieldType.LIST, FieldType.BOOLEAN, FieldType.ID };
+
+    private static final FieldType[] PARAM_TYPES = { FieldType.STRING, FieldType.INT, FieldType.LIST,
+            FieldType.OBJECT };
+
+    private final Path directory;
+
+    private final int classCount;
+
+    private SyntheticSchemaCorpus(Path directory, int classCount) {
+        this.directory = directory;
+        this.classCount = classCount;
+    }
+
+    /**
+     * @param classCount number of schema classes
+     * @param fieldCount number of {@link GraphQLField}s per class
+     * @param paramCount number of {@link GraphQLFieldParameter}s per field
+     * @param mix
+     */
+    public static SyntheticSchemaCorpus create(int classCount, int fieldCount, int paramCount, Mix mix)
+            throws IOException {
+        Path directory = Files.createTempDirectory("graphql-corpus");
+        Path packageDirectory = Files.createDirectories(directory.resolve(PACKAGE_NAME.replace('.', '/')));
+        for (int index = 0; index < classCount; index++) {
+            byte[] bytes = writeClass(index, classCount, fieldCount, paramCount, mix);
+            Files.write(packageDirectory.resolve(getSimpleName(index) + ".class"), bytes);
+        }
+        return new SyntheticSchemaCorpus(directory, classCount);
+    }
+
+    public int getClassCount() {
+        return this.classCount;
+    }
+
+    /**
+     * every call returns a new {@link ClassLoader}, so the corpus classes are
+     * loaded again
+     */
+    public ClassLoader newClassLoader() {
+        try {
+            return new URLClassLoader(new URL[] { this.directory.toUri().toURL() },
+                    SyntheticSchemaCorpus.class.getClassLoader());
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static String getSimpleName(int index) {
+        return String.format("Type%05d", index);
+    }
+
+    private static String getInternalName(int index) {
+        return PACKAGE_NAME.replace('.', '/') + "/" + getSimpleName(index);
+    }
+
+    private static SchemaType getSchemaType(int index, Mix mix) {
+        switch (mix) {
+        case OBJECT_LIST_ENUM:
+            switch (index % 10) {
+            case 0:
+            case 1:
+                return SchemaType.ENUM;
+            case 2:
+                return SchemaType.INPUT;
+            case 3:
+                return SchemaType.QUERY;
+            case 4:
+                return SchemaType.MUTATION;
+            default:
+                return SchemaType.OBJECT;
+            }
+        case IMPLEMENTATION_CHAIN:
+            return index % 4 == 0 ? SchemaType.OBJECT : SchemaType.IMPLEMENTATION;
+        default:
+            return SchemaType.OBJECT;
+        }
+    }
+
+    private static byte[] writeClass(int index, int classCount, int fieldCount, int paramCount, Mix mix) {
+        SchemaType schemaType = getSchemaType(index, mix);
+        String internalName = getInternalName(index);
+
+        ClassWriter classWriter = new ClassWriter(0);
+        classWriter.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null,
+                "java/lang/Object", null);
+
+        AnnotationVisitor schemaAnnotation = classWriter.visitAnnotation(Type.getDescriptor(GraphQLSchema.class),
+                true);
+        schemaAnnotation.visitEnum("schemaType", Type.getDescriptor(SchemaType.class), schemaType.name());
+        schemaAnnotation.visit("operationName", "type" + index);
+        if (schemaType == SchemaType.IMPLEMENTATION) {
+            schemaAnnotation.visit("baseSchemaClassRef", Type.getObjectType(getInternalName(index - 1)));
+        }
+        schemaAnnotation.visitEnd();
+
+        // instantiable, e.g. for the sources of GraphQLFieldAccessorsBenchmark
+        MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(1, 1);
+        constructor.visitEnd();
+
+        for (int fieldIndex = 0; fieldIndex < fieldCount; fieldIndex++) {
+            if (schemaType == SchemaType.ENUM) {
+                writeEnumField(classWriter, internalName, fieldIndex);
+            } else {
+                writeField(classWriter, index, classCount, fieldIndex, paramCount, mix);
+            }
+        }
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    private static void writeEnumField(ClassWriter classWriter, String internalName, int fieldIndex) {
+        FieldVisitor fieldVisitor = classWriter.visitField(
+                Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "VALUE" + fieldIndex,
+                "L" + internalName + ";", null, null);
+        AnnotationVisitor fieldAnnotation = fieldVisitor.visitAnnotation(Type.getDescriptor(GraphQLField.class),
+                true);
+        fieldAnnotation.visit("fieldName", "value" + fieldIndex);
+        fieldAnnotation.visitEnd();
+        fieldVisitor.visitEnd();
+    }
+
+    private static void writeField(ClassWriter classWriter, int index, int classCount, int fieldIndex,
+            int paramCount, Mix mix) {
+        FieldType[] fieldTypes = mix == Mix.OBJECT_LIST_ENUM ? MIXED_TYPES : SCALAR_TYPES;
+        FieldType fieldType = fieldTypes[fieldIndex % fieldTypes.length];
+
+        FieldVisitor fieldVisitor = classWriter.visitField(Opcodes.ACC_PUBLIC, "field" + fieldIndex,
+                "Ljava/lang/Object;", null, null);
+        AnnotationVisitor fieldAnnotation = fieldVisitor.visitAnnotation(Type.getDescriptor(GraphQLField.class),
+                true);
+        fieldAnnotation.visitEnum("fieldType", Type.getDescriptor(FieldType.class), fieldType.name());
+        fieldAnnotation.visit("isNullable", fieldIndex % 3 != 0);
+
+        AnnotationVisitor parameters = fieldAnnotation.visitArray("parameters");
+        for (int paramIndex = 0; paramIndex < paramCount; paramIndex++) {
+            FieldType paramType = PARAM_TYPES[paramIndex % PARAM_TYPES.length];
+            AnnotationVisitor parameter = parameters.visitAnnotation(null,
+                    Type.getDescriptor(GraphQLFieldParameter.class));
+            parameter.visit("paramName", "param" + paramIndex);
+            parameter.visitEnum("paramType", Type.getDescriptor(FieldType.class), paramType.name());
+            if (paramType == FieldType.OBJECT) {
+                // refer to the closest class, an INPUT type for the mixed corpus
+                int referenceIndex = mix == Mix.OBJECT_LIST_ENUM ? Math.min(index - index % 10 + 2, classCount - 1)
+                        : index;
+                parameter.visit("paramObjectClass", Type.getObjectType(getInternalName(referenceIndex)));
+            }
+            parameter.visitEnd();
+        }
+        parameters.visitEnd();
+
+        fieldAnnotation.visitEnd();
+        fieldVisitor.visitEnd();
+    }
+}
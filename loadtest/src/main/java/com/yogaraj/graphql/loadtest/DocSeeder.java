@@ -0,0 +1,61 @@
+package com.yogaraj.graphql.loadtest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+/**
+ * Creates the <code>doc</code> table and fills it with rows of the
+ * {@link com.yogaraj.graphql.dto.Doc} sample DTO.
+ *
+ * <pre>
+ * title   Document 0 ... Document n-1
+ * url     /docs/0 ... /docs/n-1, indexed
+ * </pre>
+ *
+ * @author Yogaraj
+ */
+final class DocSeeder {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private DocSeeder() {
+    }
+
+    static String url(long row) {
+        return "/docs/" + row;
+    }
+
+    static void seed(DataSource dataSource, long rows) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS " + LoadTestConfiguration.DOC_TABLE);
+                statement.execute("CREATE TABLE " + LoadTestConfiguration.DOC_TABLE
+                        + " (title VARCHAR(200), url VARCHAR(200) NOT NULL)");
+            }
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection
+                    .prepareStatement("INSERT INTO " + LoadTestConfiguration.DOC_TABLE + " (title, url) VALUES (?, ?)")) {
+                for (long row = 0; row < rows; row++) {
+                    statement.setString(1, "Document " + row);
+                    statement.setString(2, url(row));
+                    statement.addBatch();
+                    if ((row + 1) % BATCH_SIZE == 0 || row + 1 == rows) {
+                        statement.executeBatch();
+                        connection.commit();
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            // indexed after the load, which is faster than maintaining it per row
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX doc_url ON " + LoadTestConfiguration.DOC_TABLE + " (url)");
+            }
+        }
+    }
+}
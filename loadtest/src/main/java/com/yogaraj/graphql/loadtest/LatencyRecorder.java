@@ -0,0 +1,81 @@
+package com.yogaraj.graphql.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies of one operation of one client, kept unaggregated so the
+ * percentiles of all clients are exact.
+ *
+ * @author Yogaraj
+ */
+final class LatencyRecorder {
+
+    private long[] nanos = new long[1024];
+
+    private int count;
+
+    private int errors;
+
+    void record(long latencyNanos, boolean isError) {
+        if (this.count == this.nanos.length) {
+            this.nanos = Arrays.copyOf(this.nanos, this.count * 2);
+        }
+        this.nanos[this.count++] = latencyNanos;
+        if (isError) {
+            this.errors++;
+        }
+    }
+
+    /**
+     * @param elapsedNanos length of the measurement
+     * @return requests, errors, throughput in requests per second and latency
+     *         percentiles in milliseconds of all recorders
+     */
+    static Map<String, Object> summarize(List<LatencyRecorder> recorders, long elapsedNanos) {
+        int count = 0;
+        int errors = 0;
+        for (LatencyRecorder recorder : recorders) {
+            count += recorder.count;
+            errors += recorder.errors;
+        }
+        long[] all = new long[count];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.nanos, 0, all, offset, recorder.count);
+            offset += recorder.count;
+        }
+        Arrays.sort(all);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("throughput", count / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", count == 0 ? 0 : millis((long) Arrays.stream(all).average().orElse(0)));
+        latency.put("p50", percentile(all, 0.5));
+        latency.put("p99", percentile(all, 0.99));
+        latency.put("p999", percentile(all, 0.999));
+        latency.put("max", count == 0 ? 0 : millis(all[count - 1]));
+        summary.put("latencyMillis", latency);
+        return summary;
+    }
+
+    /**
+     * nearest rank of the sorted latencies
+     */
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return millis(sorted[Math.max(0, rank - 1)]);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
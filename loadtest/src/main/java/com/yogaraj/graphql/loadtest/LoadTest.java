@@ -0,0 +1,369 @@
+package com.yogaraj.graphql.loadtest;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yogaraj.graphql.GraphqlApplication;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.env.Environment;
+
+/**
+ * Boots {@link GraphqlApplication} with the generated schema against an
+ * in-process H2 database in PostgreSQL mode, seeds it with {@link DocSeeder}
+ * and drives a mix of queries and mutations from concurrent clients over HTTP.
+ *
+ * <pre>
+ * mvn install -DskipTests
+ * mvn -f loadtest/pom.xml package
+ * java -jar loadtest/target/loadtest.jar --loadtest.clients=64 --loadtest.duration=60s
+ * </pre>
+ *
+ * Options, any other application property may be given as well:
+ *
+ * <pre>
+ * loadtest.rows            seeded doc rows, 1000000
+ * loadtest.clients         concurrent clients, each sends its next request after the response, 64
+ * loadtest.rate            requests per second of all clients, which makes the test open loop, 0 for closed loop
+ * loadtest.warmup          time before the measurement, 10s
+ * loadtest.duration        time of the measurement, 60s
+ * loadtest.mix             weights of the operations, query=90,mutation=10
+ * loadtest.mutation-size   docs inserted by one mutation, 50
+ * loadtest.output          json file of the results, target/loadtest-results.json
+ * </pre>
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * query     query($url: String!) { docTitle(url: $url) }, a random seeded url
+ * mutation  mutation($docs: [docInput]!) { addDocs(docs: $docs) }, batch inserted
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * The results hold the throughput, the p50, p99 and p999 latency of every
+ * operation and of all requests, and the bytes the server threads allocated per
+ * request. Requests which answer with an error are counted as errors and are
+ * part of the latencies.
+ *
+ * <p>
+ * A closed loop client waits for every response before it sends the next
+ * request, so a slow response also delays the requests behind it and they are
+ * never measured (coordinated omission): the percentiles look better than what
+ * users at a fixed arrival rate see. With <code>loadtest.rate</code> the
+ * requests are sent on a fixed schedule instead and every latency is measured
+ * from the intended send time, the time a request waits for a free client is
+ * part of it. The clients are then the maximum of concurrent requests and
+ * should be large enough for the rate, a throughput below the rate shows that
+ * they were not.
+ * </p>
+ *
+ * @author Yogaraj
+ */
+public final class LoadTest {
+
+    static final String QUERY = "query";
+
+    static final String MUTATION = "mutation";
+
+    private static final String QUERY_TEXT = "query($url: String!) { docTitle(url: $url) }";
+
+    private static final String MUTATION_TEXT = "mutation($docs: [docInput]!) { addDocs(docs: $docs) }";
+
+    /**
+     * prefix of the tomcat request threads whose allocation is measured
+     */
+    private static final String SERVER_THREAD_PREFIX = "http-nio-";
+
+    private static final Logger logger = Logger.getLogger(LoadTest.class.getSimpleName());
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // system properties override application.properties, arguments override them
+        Map<String, String> database = new HashMap<>();
+        database.put("server.port", "0");
+        database.put("spring.datasource.url", "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        database.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        database.put("spring.datasource.username", "sa");
+        database.put("spring.datasource.password", "");
+        database.forEach((key, value) -> {
+            if (System.getProperty(key) == null) {
+                System.setProperty(key, value);
+            }
+        });
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(
+                GraphqlApplication.class, LoadTestConfiguration.class).run(args);
+        try {
+            Environment environment = context.getEnvironment();
+            long rows = environment.getProperty("loadtest.rows", Long.class, 1_000_000L);
+            long seedStart = System.nanoTime();
+            DocSeeder.seed(context.getBean(DataSource.class), rows);
+            printLogMessage("SEEDED: " + rows + " doc rows in "
+                    + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - seedStart) + "s");
+
+            Options options = new Options(environment, rows);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            Map<String, Object> results = run(options, objectMapper,
+                    URI.create("http://localhost:" + context.getWebServer().getPort() + "/graphql"));
+
+            File output = new File(environment.getProperty("loadtest.output", "target/loadtest-results.json"));
+            if (output.getAbsoluteFile().getParentFile() != null) {
+                output.getAbsoluteFile().getParentFile().mkdirs();
+            }
+            objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+            printLogMessage("WRITTEN: " + output.getAbsolutePath() + "\n"
+                    + objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(results.get("total")));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Map<String, Object> run(Options options, ObjectMapper objectMapper, URI uri) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long start = System.nanoTime();
+        long measureStart = start + options.warmup.toNanos();
+        long measureEnd = measureStart + options.duration.toNanos();
+
+        // send times of the open loop, shared by all clients
+        Schedule schedule = options.rate > 0 ? new Schedule(start, options.rate) : null;
+        ExecutorService clients = Executors.newFixedThreadPool(options.clients);
+        List<Future<Map<String, LatencyRecorder>>> futures = new ArrayList<>();
+        for (int i = 0; i < options.clients; i++) {
+            int client = i;
+            futures.add(clients.submit(() -> runClient(client, options, objectMapper, httpClient, uri, schedule,
+                    measureStart, measureEnd)));
+        }
+        sleepUntil(measureStart);
+        Map<Long, Long> allocatedBefore = serverAllocatedBytes();
+        sleepUntil(measureEnd);
+        Map<Long, Long> allocatedAfter = serverAllocatedBytes();
+
+        Map<String, List<LatencyRecorder>> recorders = new LinkedHashMap<>();
+        List<LatencyRecorder> all = new ArrayList<>();
+        for (Future<Map<String, LatencyRecorder>> future : futures) {
+            for (Map.Entry<String, LatencyRecorder> entry : future.get().entrySet()) {
+                recorders.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(entry.getValue());
+                all.add(entry.getValue());
+            }
+        }
+        clients.shutdown();
+
+        long elapsed = measureEnd - measureStart;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        recorders.forEach((operation, operationRecorders) -> operations.put(operation,
+                LatencyRecorder.summarize(operationRecorders, elapsed)));
+        Map<String, Object> total = LatencyRecorder.summarize(all, elapsed);
+        long allocated = 0;
+        for (Map.Entry<Long, Long> entry : allocatedAfter.entrySet()) {
+            allocated += entry.getValue() - allocatedBefore.getOrDefault(entry.getKey(), 0L);
+        }
+        int requests = (Integer) total.get("requests");
+        Map<String, Object> allocation = new LinkedHashMap<>();
+        allocation.put("serverBytes", allocated);
+        allocation.put("bytesPerRequest", requests == 0 ? 0 : allocated / requests);
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("timestamp", Instant.now().toString());
+        results.put("java", System.getProperty("java.version"));
+        results.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        results.put("options", options.toMap());
+        results.put("total", total);
+        results.put("operations", operations);
+        results.put("allocation", allocation);
+        return results;
+    }
+
+    /**
+     * sends requests until the end of the measurement, only the requests which
+     * start after the warmup are recorded
+     *
+     * @param schedule send times of an open loop or <code>null</code> to send
+     *                 the next request after the response
+     */
+    private static Map<String, LatencyRecorder> runClient(int client, Options options, ObjectMapper objectMapper,
+            HttpClient httpClient, URI uri, Schedule schedule, long measureStart, long measureEnd) throws Exception {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mutations = 0;
+        long start;
+        while ((start = schedule == null ? System.nanoTime() : schedule.next()) < measureEnd) {
+            // a late request is sent at once, its latency still starts at the intended time
+            sleepUntil(start);
+            String operation = options.pick(random.nextInt(options.totalWeight));
+            Map<String, Object> request = new LinkedHashMap<>();
+            if (MUTATION.equals(operation)) {
+                List<Map<String, Object>> docs = new ArrayList<>(options.mutationSize);
+                for (int i = 0; i < options.mutationSize; i++) {
+                    long id = mutations++;
+                    docs.add(Map.of("title", "Load " + client + " " + id, "url", "/load/" + client + "/" + id));
+                }
+                request.put("query", MUTATION_TEXT);
+                request.put("variables", Map.of("docs", docs));
+            } else {
+                request.put("query", QUERY_TEXT);
+                request.put("variables", Map.of("url", DocSeeder.url(random.nextLong(options.rows))));
+            }
+            HttpResponse<String> response = httpClient.send(
+                    HttpRequest.newBuilder(uri).header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - start;
+            if (start >= measureStart) {
+                recorders.computeIfAbsent(operation, key -> new LatencyRecorder()).record(latency,
+                        response.statusCode() != 200 || response.body().contains("\"errors\""));
+            }
+        }
+        return recorders;
+    }
+
+    /**
+     * @return bytes allocated by every server thread since it started, by
+     *         thread id
+     */
+    private static Map<Long, Long> serverAllocatedBytes() {
+        Map<Long, Long> allocated = new HashMap<>();
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            printLogMessage("IGNORING: allocation since the JVM does not measure it per thread");
+            return allocated;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(SERVER_THREAD_PREFIX)) {
+                long bytes = threads.getThreadAllocatedBytes(thread.getId());
+                if (bytes >= 0) {
+                    allocated.put(thread.getId(), bytes);
+                }
+            }
+        }
+        return allocated;
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    private static void printLogMessage(String message) {
+        logger.info(message);
+    }
+
+    /**
+     * intended send times at a fixed rate, every time is taken by one client
+     */
+    private static final class Schedule {
+
+        private final long start;
+
+        private final double intervalNanos;
+
+        private final AtomicLong sent = new AtomicLong();
+
+        private Schedule(long start, double rate) {
+            this.start = start;
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        }
+
+        private long next() {
+            return this.start + (long) (this.sent.getAndIncrement() * this.intervalNanos);
+        }
+    }
+
+    /**
+     * options of one run
+     */
+    private static final class Options {
+
+        private final long rows;
+
+        private final int clients;
+
+        private final double rate;
+
+        private final Duration warmup;
+
+        private final Duration duration;
+
+        private final Map<String, Integer> mix = new LinkedHashMap<>();
+
+        private final int totalWeight;
+
+        private final int mutationSize;
+
+        private Options(Environment environment, long rows) {
+            this.rows = rows;
+            this.clients = environment.getProperty("loadtest.clients", Integer.class, 64);
+            this.rate = environment.getProperty("loadtest.rate", Double.class, 0d);
+            this.warmup = environment.getProperty("loadtest.warmup", Duration.class, Duration.ofSeconds(10));
+            this.duration = environment.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(60));
+            this.mutationSize = environment.getProperty("loadtest.mutation-size", Integer.class, 50);
+            int weights = 0;
+            for (String weight : environment.getProperty("loadtest.mix", "query=90,mutation=10").split(",")) {
+                String[] operationWeight = weight.trim().split("=");
+                String operation = operationWeight[0].trim();
+                if (!QUERY.equals(operation) && !MUTATION.equals(operation)) {
+                    throw new IllegalArgumentException("unknown operation " + operation + " in loadtest.mix");
+                }
+                int operationWeightValue = Integer.parseInt(operationWeight[1].trim());
+                if (operationWeightValue > 0) {
+                    this.mix.put(operation, operationWeightValue);
+                    weights += operationWeightValue;
+                }
+            }
+            if (weights == 0 || (rows <= 0 && this.mix.containsKey(QUERY))) {
+                throw new IllegalArgumentException("loadtest.mix has no operation or queries have no rows");
+            }
+            this.totalWeight = weights;
+        }
+
+        private String pick(int weight) {
+            for (Map.Entry<String, Integer> entry : this.mix.entrySet()) {
+                weight -= entry.getValue();
+                if (weight < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("weight exceeds the mix");
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("rows", this.rows);
+            map.put("clients", this.clients);
+            map.put("rate", this.rate);
+            map.put("warmupSeconds", this.warmup.getSeconds());
+            map.put("durationSeconds", this.duration.getSeconds());
+            map.put("mix", this.mix);
+            map.put("mutationSize", this.mutationSize);
+            return map;
+        }
+    }
+}
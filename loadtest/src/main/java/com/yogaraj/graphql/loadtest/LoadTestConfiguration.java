@@ -0,0 +1,58 @@
+package com.yogaraj.graphql.loadtest;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.yogaraj.graphql.dto.Doc;
+import com.yogaraj.graphql.dto.DocQuery;
+import com.yogaraj.graphql.schemagenerator.GraphQLExecutableSchemaBuilder;
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLFieldDescriptor;
+import com.yogaraj.graphql.schemagenerator.GraphQLParameterDescriptor;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+import com.yogaraj.graphql.schemagenerator.GraphQLTypeDescriptor;
+import com.yogaraj.graphql.service.GraphQLDataFetcherConfigurer;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Backs the sample schema with the <code>doc</code> table of the
+ * {@link DocSeeder}.
+ *
+ * <pre>
+ * Query.docTitle(url)        SELECT title FROM doc WHERE url = ?, see {@link DocQuery}
+ * Mutation.addDocs(docs)     generated {@link com.yogaraj.graphql.schemagenerator.GraphQLJdbcBatchMutation}
+ * </pre>
+ *
+ * The sample DTOs have no mutation, the input and mutation types of
+ * {@link Doc} rows are added as descriptors, so the sample package and its
+ * precompiled schema stay unchanged.
+ *
+ * @author Yogaraj
+ */
+@Configuration
+public class LoadTestConfiguration {
+
+    static final String DOC_TABLE = "doc";
+
+    @Bean
+    GraphQLDataFetcherConfigurer mLoadTestDataFetchers(JdbcTemplate jdbcTemplate) {
+        return schemaBuilder -> {
+            schemaBuilder.dataFetcher(GraphQLExecutableSchemaBuilder.QUERY_TYPE_NAME, "docTitle",
+                    environment -> jdbcTemplate.query("SELECT title FROM " + DOC_TABLE + " WHERE url = ?",
+                            resultSet -> resultSet.next() ? resultSet.getString(1) : null,
+                            (Object) environment.getArgument("url")));
+            schemaBuilder.type(new GraphQLTypeDescriptor("LoadTestDocInput", SchemaType.INPUT, "docInput", null,
+                    List.of(new GraphQLFieldDescriptor("title", FieldType.STRING, "String", true, List.of()),
+                            new GraphQLFieldDescriptor("url", FieldType.STRING, "String", false, List.of())),
+                    Collections.emptySet(), DOC_TABLE));
+            schemaBuilder.type(new GraphQLTypeDescriptor("LoadTestMutation", SchemaType.MUTATION,
+                    "loadTestMutation", null,
+                    List.of(new GraphQLFieldDescriptor("addDocs", FieldType.LIST, "Int", false,
+                            List.of(new GraphQLParameterDescriptor("docs", FieldType.LIST, "docInput", false)))),
+                    Collections.emptySet()));
+        };
+    }
+}
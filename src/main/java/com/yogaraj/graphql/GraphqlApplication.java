@@ -1,22 +1,76 @@
 package com.yogaraj.graphql;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLFieldCache;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchemaCache;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchemaMetrics;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchemaReloader;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchemaTenantCache;
 import com.yogaraj.graphql.schemagenerator.GraphQlSchemaGenerator;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootApplication
 public class GraphqlApplication {
 
+	public static final String SCHEMA_PACKAGE = "com.yogaraj.graphql.dto";
+
 	public static void main(String[] args) {
 		SpringApplication.run(GraphqlApplication.class, args);
 	}
 
 	@Bean
-	GraphQlSchemaGenerator mGraphQlSchema() throws ClassNotFoundException, SecurityException, NullPointerException {
+	GraphQLSchemaMetrics mGraphQLSchemaMetrics(MeterRegistry meterRegistry) {
+		return new GraphQLSchemaMetrics(meterRegistry);
+	}
+
+	@Bean
+	GraphQlSchemaGenerator mGraphQlSchema(@Value("${graphql.schema.cache.file:}") String cacheFile,
+			@Value("${graphql.schema.prune-unreachable:false}") boolean pruneUnreachableTypes,
+			GraphQLSchemaMetrics metrics) throws ClassNotFoundException, SecurityException, NullPointerException {
 		GraphQlSchemaGenerator mQlSchema = new GraphQlSchemaGenerator();
-		mQlSchema.generateSchema("com.yogaraj.graphql.dto");
+		mQlSchema.setMetrics(metrics);
+		mQlSchema.setPruneUnreachableTypes(pruneUnreachableTypes);
+		if (!cacheFile.isEmpty()) {
+			mQlSchema.setSchemaCache(new GraphQLSchemaCache(Paths.get(cacheFile)));
+		}
+		mQlSchema.loadSchema(SCHEMA_PACKAGE);
 		return mQlSchema;
 	}
+
+	@Bean
+	GraphQLSchemaTenantCache mGraphQLSchemaTenantCache(@Qualifier("mGraphQlSchema") GraphQlSchemaGenerator mQlSchema,
+			@Value("${graphql.schema.tenants.maximum-size:100}") long maximumSize,
+			@Value("${graphql.schema.tenants.expire-after-access:1h}") Duration expireAfterAccess) {
+		return new GraphQLSchemaTenantCache(mQlSchema, maximumSize, expireAfterAccess);
+	}
+
+	@Bean
+	GraphQLFieldCache mGraphQLFieldCache(@Value("${graphql.field-cache.maximum-size:10000}") long maximumSize,
+			MeterRegistry meterRegistry) {
+		return new GraphQLFieldCache(maximumSize, meterRegistry);
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(name = "graphql.schema.reload.enabled", havingValue = "true")
+	GraphQLSchemaReloader mGraphQLSchemaReloader(
+			@Value("${graphql.schema.prune-unreachable:false}") boolean pruneUnreachableTypes)
+			throws IOException, ClassNotFoundException {
+		GraphQLSchemaReloader mReloader = new GraphQLSchemaReloader(GraphqlApplication.class.getClassLoader(),
+				SCHEMA_PACKAGE);
+		mReloader.setPruneUnreachableTypes(pruneUnreachableTypes);
+		mReloader.load();
+		mReloader.watch();
+		return mReloader;
+	}
 }
@@ -0,0 +1,196 @@
+package com.yogaraj.graphql.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yogaraj.graphql.schemagenerator.GraphQLCacheControlInstrumentation;
+import com.yogaraj.graphql.schemagenerator.GraphQLStreamingExecutionStrategy;
+import com.yogaraj.graphql.service.GraphQLExecutionService;
+import com.yogaraj.graphql.service.PersistedQueryStore;
+import com.yogaraj.graphql.service.PersistedQueryStore.PersistedQuery;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import graphql.ErrorType;
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+/**
+ * Executes graphql requests.
+ *
+ * <pre>
+ * POST /graphql  {"query": "...", "operationName": "...", "variables": {...}}
+ * POST /graphql  {"extensions": {"persistedQuery": {"version": 1, "sha256Hash": "..."}}, ...}
+ * POST /graphql/stream  the same, written while the fields complete
+ * </pre>
+ *
+ * A request with only the hash of a query which is not stored is answered with
+ * a <code>PersistedQueryNotFound</code> error, the client then sends the query
+ * with its hash once to register it. The <code>Cache-Control</code> header of
+ * every response is computed by the {@link GraphQLCacheControlInstrumentation}.
+ * A streamed response is written by a
+ * {@link GraphQLStreamingExecutionStrategy} with chunked transfer, its headers
+ * are sent before the cache policy is known, so it is not stored.
+ *
+ * @author Yogaraj
+ */
+@RestController
+public class GraphQLQueryController {
+
+    static final String PERSISTED_QUERY_NOT_FOUND = "PersistedQueryNotFound";
+
+    private final GraphQLExecutionService executionService;
+
+    private final PersistedQueryStore persistedQueryStore;
+
+    private final ObjectMapper objectMapper;
+
+    public GraphQLQueryController(GraphQLExecutionService executionService,
+            PersistedQueryStore persistedQueryStore, ObjectMapper objectMapper) {
+        this.executionService = executionService;
+        this.persistedQueryStore = persistedQueryStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping("/graphql")
+    public ResponseEntity<Map<String, Object>> execute(@RequestBody Map<String, Object> request) {
+        return this.execute(request, operation -> respond(operation.execute(null)));
+    }
+
+    /**
+     * executes the request like <code>/graphql</code>, the data is written while
+     * the fields complete and the errors and extensions follow it
+     */
+    @PostMapping("/graphql/stream")
+    public ResponseEntity<StreamingResponseBody> executeStreaming(@RequestBody Map<String, Object> request) {
+        return this.execute(request,
+                operation -> ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "no-store")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(outputStream -> this.write(operation, outputStream)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> execute(Map<String, Object> request,
+            Function<Operation, ResponseEntity<T>> response) {
+        if (!this.executionService.isExecutable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        Object query = request.get("query");
+        Object hash = persistedQueryHash(request.get("extensions"));
+        String operationName = (String) request.get("operationName");
+        Map<String, Object> variables = (Map<String, Object>) request.get("variables");
+        if (hash == null) {
+            if (!(query instanceof String)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return response.apply(
+                    generator -> this.executionService.execute((String) query, operationName, variables, generator));
+        }
+        if (!(hash instanceof String) || (query != null && !(query instanceof String))) {
+            return ResponseEntity.badRequest().build();
+        }
+        PersistedQuery persistedQuery;
+        if (query == null) {
+            persistedQuery = this.persistedQueryStore.get(((String) hash).toLowerCase());
+            if (persistedQuery == null) {
+                return response.apply(generator -> new ExecutionResultImpl(new PersistedQueryNotFoundError()));
+            }
+        } else {
+            persistedQuery = this.persistedQueryStore.register((String) hash, (String) query);
+            if (persistedQuery == null) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        PersistedQuery executedQuery = persistedQuery;
+        return response.apply(
+                generator -> this.executionService.execute(executedQuery, operationName, variables, generator));
+    }
+
+    /**
+     * the <code>Cache-Control</code> header follows the cache policy of the
+     * result, results without one are not stored
+     */
+    private static ResponseEntity<Map<String, Object>> respond(ExecutionResult result) {
+        return ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL,
+                GraphQLCacheControlInstrumentation.cacheControlHeader(result)).body(result.toSpecification());
+    }
+
+    private void write(Operation operation, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            ExecutionResult result = operation.execute(generator);
+            if (!result.getErrors().isEmpty()) {
+                generator.writeFieldName("errors");
+                generator.writeObject(
+                        result.getErrors().stream().map(GraphQLError::toSpecification).collect(Collectors.toList()));
+            }
+            if (result.getExtensions() != null) {
+                generator.writeFieldName("extensions");
+                generator.writeObject(result.getExtensions());
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static Object persistedQueryHash(Object extensions) {
+        if (!(extensions instanceof Map)) {
+            return null;
+        }
+        Object persistedQuery = ((Map<?, ?>) extensions).get("persistedQuery");
+        return persistedQuery instanceof Map ? ((Map<?, ?>) persistedQuery).get("sha256Hash") : null;
+    }
+
+    /**
+     * a valid request, executed with the result maps or written to a
+     * {@link JsonGenerator}
+     */
+    private interface Operation {
+
+        /**
+         * @param generator <code>null</code> for a result with data
+         */
+        ExecutionResult execute(JsonGenerator generator);
+    }
+
+    private static final class PersistedQueryNotFoundError implements GraphQLError {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getMessage() {
+            return PERSISTED_QUERY_NOT_FOUND;
+        }
+
+        @Override
+        public List<SourceLocation> getLocations() {
+            return null;
+        }
+
+        @Override
+        public ErrorType getErrorType() {
+            return ErrorType.ExecutionAborted;
+        }
+
+        @Override
+        public Map<String, Object> getExtensions() {
+            return Collections.singletonMap("code", "PERSISTED_QUERY_NOT_FOUND");
+        }
+    }
+}
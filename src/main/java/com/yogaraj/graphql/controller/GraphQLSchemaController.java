@@ -0,0 +1,120 @@
+package com.yogaraj.graphql.controller;
+
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchemaReloader;
+import com.yogaraj.graphql.schemagenerator.GraphQlSchemaGenerator;
+import com.yogaraj.graphql.service.GraphQLExecutionService;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import graphql.ExecutionResult;
+import graphql.introspection.IntrospectionQuery;
+
+/**
+ * Serves the generated schema to clients and gateways which poll it.
+ *
+ * <pre>
+ * GET /graphql/schema         schema text
+ * GET /graphql/introspection  result of the full introspection query
+ * </pre>
+ *
+ * Both are served from bytes which are encoded and compressed once per schema
+ * version, with a strong ETag so unchanged schemas are answered with 304. The
+ * introspection query is executed by the {@link GraphQLExecutionService} only
+ * once per schema version. When the {@link GraphQLSchemaReloader} is enabled
+ * every reloaded schema is a new version.
+ *
+ * @author Yogaraj
+ */
+@RestController
+public class GraphQLSchemaController {
+
+    static final MediaType GRAPHQL_SCHEMA = new MediaType("application", "graphql", StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+
+    private final GraphQLExecutionService executionService;
+
+    private volatile PrecompressedBody schema;
+
+    private volatile Versioned introspection;
+
+    public GraphQLSchemaController(@Qualifier("mGraphQlSchema") GraphQlSchemaGenerator schemaGenerator,
+            ObjectProvider<GraphQLSchemaReloader> schemaReloader, GraphQLExecutionService executionService,
+            ObjectMapper objectMapper) {
+        this.executionService = executionService;
+        this.objectMapper = objectMapper;
+        this.schema = this.encodeSchema(schemaGenerator.getSchema());
+        schemaReloader.ifAvailable(reloader -> {
+            this.schema = this.encodeSchema(reloader.getSchema());
+            reloader.addListener(schema -> this.schema = this.encodeSchema(schema));
+        });
+    }
+
+    @GetMapping("/graphql/schema")
+    public ResponseEntity<byte[]> getSchema(@RequestHeader HttpHeaders headers) {
+        return this.schema.toResponse(headers);
+    }
+
+    @GetMapping("/graphql/introspection")
+    public ResponseEntity<byte[]> getIntrospection(@RequestHeader HttpHeaders headers) {
+        long version = this.executionService.getSchemaVersion();
+        Versioned current = this.introspection;
+        if (current == null || current.version != version) {
+            // concurrent requests may introspect twice, the result is the same
+            current = new Versioned(version, this.introspect());
+            this.introspection = current;
+        }
+        if (current.body == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return current.body.toResponse(headers);
+    }
+
+    /**
+     * bytes of one schema version
+     */
+    private static final class Versioned {
+
+        private final long version;
+
+        private final PrecompressedBody body;
+
+        private Versioned(long version, PrecompressedBody body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+
+    /**
+     * @return <code>null</code> when the schema has no query root and can not be
+     *         executed
+     */
+    private PrecompressedBody introspect() {
+        if (!this.executionService.isExecutable()) {
+            return null;
+        }
+        ExecutionResult result = this.executionService.execute(IntrospectionQuery.INTROSPECTION_QUERY, null, null);
+        try {
+            return new PrecompressedBody(this.objectMapper.writeValueAsBytes(result.toSpecification()),
+                    MediaType.APPLICATION_JSON);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private PrecompressedBody encodeSchema(String schema) {
+        return new PrecompressedBody(schema.getBytes(StandardCharsets.UTF_8), GRAPHQL_SCHEMA);
+    }
+}
@@ -0,0 +1,171 @@
+package com.yogaraj.graphql.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+
+/**
+ * Response body which is encoded and compressed once and served many times.
+ * The UTF-8 and gzip bytes are computed up front, the strong ETags are derived
+ * from the content so every instance with the same content has the same ETags.
+ * The gzip bytes are another representation and get their own ETag with a
+ * <code>-gzip</code> suffix, a conditional request matches either one with the
+ * weak comparison of If-None-Match and gets the matched ETag back.
+ *
+ * @author Yogaraj
+ */
+final class PrecompressedBody {
+
+    private final MediaType contentType;
+
+    private final byte[] identity;
+
+    private final byte[] gzip;
+
+    private final String eTag;
+
+    private final String gzipETag;
+
+    PrecompressedBody(byte[] identity, MediaType contentType) {
+        this.contentType = contentType;
+        this.identity = identity;
+        this.gzip = gzip(identity);
+        String digest = sha256(identity);
+        this.eTag = "\"" + digest + "\"";
+        this.gzipETag = "\"" + digest + "-gzip\"";
+    }
+
+    String getETag() {
+        return this.eTag;
+    }
+
+    /**
+     * answers a GET request, with 304 when the client already has the content and
+     * with the gzip bytes when the client accepts them
+     */
+    ResponseEntity<byte[]> toResponse(HttpHeaders requestHeaders) {
+        boolean isGzip = acceptsGzip(requestHeaders.get(HttpHeaders.ACCEPT_ENCODING));
+        HttpHeaders headers = new HttpHeaders();
+        String eTag = isGzip ? this.gzipETag : this.eTag;
+        headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT_ENCODING));
+        String matchedETag = this.findMatch(requestHeaders.getIfNoneMatch(), eTag);
+        if (matchedETag != null) {
+            // the 304 refreshes the representation the client has cached
+            headers.setETag(matchedETag);
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        headers.setETag(eTag);
+
+        headers.setContentType(this.contentType);
+        byte[] body = this.identity;
+        if (isGzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = this.gzip;
+        }
+        headers.setContentLength(body.length);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * @return the ETag of the representation the client has cached, the
+     *         negotiated one for <code>*</code>, or <code>null</code>
+     */
+    private String findMatch(List<String> ifNoneMatch, String negotiatedETag) {
+        for (String eTag : ifNoneMatch) {
+            // either representation is the same content, the client may have cached the other one
+            eTag = StringUtils.trimWhitespace(eTag);
+            if (eTag.equals("*")) {
+                return negotiatedETag;
+            }
+            if (eTag.startsWith("W/")) {
+                eTag = eTag.substring(2);
+            }
+            if (eTag.equals(this.eTag) || eTag.equals(this.gzipETag)) {
+                return eTag;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param acceptEncoding values of the Accept-Encoding header or
+     *                       <code>null</code>
+     * @return whether gzip, or the <code>*</code> wildcard without an own gzip
+     *         entry, has a quality above 0, e.g. not for
+     *         <code>gzip;q=0, identity</code>
+     */
+    static boolean acceptsGzip(List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQuality = -1;
+        double wildcardQuality = -1;
+        for (String value : acceptEncoding) {
+            for (String coding : StringUtils.tokenizeToStringArray(value, ",")) {
+                String[] parameters = StringUtils.tokenizeToStringArray(coding, ";");
+                if (parameters.length == 0) {
+                    continue;
+                }
+                double quality = 1;
+                for (int index = 1; index < parameters.length; index++) {
+                    if (parameters[index].regionMatches(true, 0, "q=", 0, 2)) {
+                        quality = parseQuality(parameters[index].substring(2));
+                    }
+                }
+                String name = parameters[0];
+                if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                    gzipQuality = Math.max(gzipQuality, quality);
+                } else if (name.equals("*")) {
+                    wildcardQuality = quality;
+                }
+            }
+        }
+        return (gzipQuality < 0 ? wildcardQuality : gzipQuality) > 0;
+    }
+
+    /**
+     * @return the quality or 0 for a malformed value, which refuses the coding
+     */
+    private static double parseQuality(String quality) {
+        try {
+            return Double.parseDouble(quality.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
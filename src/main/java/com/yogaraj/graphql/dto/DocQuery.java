@@ -0,0 +1,15 @@
+package com.yogaraj.graphql.dto;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField;
+import com.yogaraj.graphql.schemagenerator.GraphQLFieldParameter;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+@GraphQLSchema(schemaType = SchemaType.QUERY, operationName = "docQuery")
+public class DocQuery {
+
+    @GraphQLField(fieldName = "docTitle", parameters = {
+            @GraphQLFieldParameter(paramName = "url", isNullable = false) })
+    public String title;
+
+}
@@ -0,0 +1,68 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.dataloader.BatchLoader;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+
+import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
+
+/**
+ * Named {@link BatchLoader}s of the fields which declare a
+ * {@link GraphQLField#batchLoader()}.
+ *
+ * <p>
+ * A {@link DataLoader} caches the loaded values, so every request needs its
+ * own {@link DataLoaderRegistry} of {@link #newRegistry()}. The
+ * {@link DataLoaderDispatcherInstrumentation} dispatches the loaders once per
+ * level of the query, so the nested objects of a list are loaded with one
+ * batch call per level instead of one call per object.
+ * </p>
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * GraphQLBatchLoaders batchLoaders = new GraphQLBatchLoaders().register("authorsById", authorRepository::findByIds);
+ * GraphQL graphQL = GraphQL.newGraphQL(schema).instrumentation(new DataLoaderDispatcherInstrumentation()).build();
+ * graphQL.execute(ExecutionInput.newExecutionInput().query(query).dataLoaderRegistry(batchLoaders.newRegistry()));
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * @author Yogaraj
+ */
+public class GraphQLBatchLoaders {
+
+    private final Map<String, BatchLoader<?, ?>> batchLoaders = new LinkedHashMap<>();
+
+    /**
+     * @param name        name used by {@link GraphQLField#batchLoader()}
+     * @param batchLoader loads the values of many keys with one call, in the
+     *                    order of the keys
+     * @return this
+     */
+    public GraphQLBatchLoaders register(String name, BatchLoader<?, ?> batchLoader) {
+        this.batchLoaders.put(name, batchLoader);
+        return this;
+    }
+
+    public Map<String, BatchLoader<?, ?>> getBatchLoaders() {
+        return Collections.unmodifiableMap(this.batchLoaders);
+    }
+
+    public boolean isEmpty() {
+        return this.batchLoaders.isEmpty();
+    }
+
+    /**
+     * @return registry with new, empty {@link DataLoader}s for one request
+     */
+    public DataLoaderRegistry newRegistry() {
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        this.batchLoaders.forEach((name, batchLoader) -> registry.register(name, DataLoader.newDataLoader(batchLoader)));
+        return registry;
+    }
+}
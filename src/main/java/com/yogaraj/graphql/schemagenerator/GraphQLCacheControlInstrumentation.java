@@ -0,0 +1,244 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLCacheControlTable.CacheHint;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.CacheScope;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+
+/**
+ * Computes the cache policy of every response from the
+ * {@link GraphQLCacheControlTable}, in one pass over the operation like
+ * {@link GraphQLQueryCostInstrumentation}.
+ *
+ * <pre>
+ * max age  lowest max age of the selected fields
+ *          root fields and fields which return objects count as 0 without a hint,
+ *          other fields without a hint are cached as long as their parent
+ * scope    PRIVATE when any selected field is PRIVATE
+ * </pre>
+ *
+ * Mutations and results with errors are not cacheable. The policy is reported
+ * in the <code>cacheControl</code> extension of the result and turned into a
+ * <code>Cache-Control</code> header with {@link #cacheControlHeader}.
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * { "data": {...}, "extensions": { "cacheControl": { "maxAge": 300, "scope": "PUBLIC" } } }
+ * Cache-Control: max-age=300, public
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * @author Yogaraj
+ */
+public class GraphQLCacheControlInstrumentation extends SimpleInstrumentation {
+
+    public static final String EXTENSION_NAME = "cacheControl";
+
+    private static final String NO_STORE = "no-store";
+
+    private final GraphQLCacheControlTable cacheControlTable;
+
+    public GraphQLCacheControlInstrumentation(GraphQLCacheControlTable cacheControlTable) {
+        this.cacheControlTable = cacheControlTable;
+    }
+
+    @Override
+    public InstrumentationState createState() {
+        return new CacheControlState();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters) {
+        CacheControlState state = parameters.getInstrumentationState();
+        state.policy = this.measure(parameters.getExecutionContext());
+        return super.beginExecuteOperation(parameters);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+            InstrumentationExecutionParameters parameters) {
+        CacheControlState state = parameters.getInstrumentationState();
+        if (state == null || state.policy == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        CachePolicy policy = executionResult.getErrors().isEmpty() ? state.policy
+                : new CachePolicy(0, state.policy.scope);
+        Map<Object, Object> extensions = new LinkedHashMap<>();
+        if (executionResult.getExtensions() != null) {
+            extensions.putAll(executionResult.getExtensions());
+        }
+        extensions.put(EXTENSION_NAME, policy.toMap());
+        return CompletableFuture.completedFuture(
+                new ExecutionResultImpl(executionResult.getData(), executionResult.getErrors(), extensions));
+    }
+
+    /**
+     * @return policy of the operation which is executed
+     */
+    public CachePolicy measure(ExecutionContext executionContext) {
+        OperationDefinition operation = executionContext.getOperationDefinition();
+        if (operation.getOperation() != OperationDefinition.Operation.QUERY) {
+            return new CachePolicy(0, CacheScope.PUBLIC);
+        }
+        return new Measurement(executionContext).measure(operation.getSelectionSet(),
+                GraphQLExecutableSchemaBuilder.QUERY_TYPE_NAME, true);
+    }
+
+    /**
+     * @return value of the <code>Cache-Control</code> header of a result,
+     *         <code>no-store</code> when it has no cacheable policy
+     */
+    public static String cacheControlHeader(ExecutionResult result) {
+        Object policy = result.getExtensions() == null ? null : result.getExtensions().get(EXTENSION_NAME);
+        if (!(policy instanceof Map)) {
+            return NO_STORE;
+        }
+        Object maxAge = ((Map<?, ?>) policy).get("maxAge");
+        if (!(maxAge instanceof Integer) || (Integer) maxAge <= 0) {
+            return NO_STORE;
+        }
+        return "max-age=" + maxAge + ", "
+                + (CacheScope.PRIVATE.name().equals(((Map<?, ?>) policy).get("scope")) ? "private" : "public");
+    }
+
+    /**
+     * one pass over the selections of an operation
+     */
+    private final class Measurement {
+
+        private final Map<String, FragmentDefinition> fragments;
+
+        private final Map<String, CachePolicy> fragmentPolicies = new HashMap<>();
+
+        private Measurement(ExecutionContext executionContext) {
+            this.fragments = executionContext.getFragmentsByName();
+        }
+
+        private CachePolicy measure(SelectionSet selectionSet, String typeName, boolean isRoot) {
+            CachePolicy policy = CachePolicy.UNLIMITED;
+            if (selectionSet == null) {
+                return policy;
+            }
+            for (Selection<?> selection : selectionSet.getSelections()) {
+                if (selection instanceof Field) {
+                    policy = policy.restrict(this.measureField((Field) selection, typeName, isRoot));
+                } else if (selection instanceof InlineFragment) {
+                    InlineFragment inlineFragment = (InlineFragment) selection;
+                    policy = policy.restrict(this.measure(inlineFragment.getSelectionSet(),
+                            inlineFragment.getTypeCondition() == null ? typeName
+                                    : inlineFragment.getTypeCondition().getName(),
+                            isRoot));
+                } else {
+                    policy = policy.restrict(this.measureFragment(((FragmentSpread) selection).getName(), isRoot));
+                }
+            }
+            return policy;
+        }
+
+        private CachePolicy measureField(Field field, String typeName, boolean isRoot) {
+            if (field.getName().startsWith("__")) {
+                return CachePolicy.UNLIMITED;
+            }
+            CacheHint hint = typeName == null ? null
+                    : GraphQLCacheControlInstrumentation.this.cacheControlTable.get(typeName, field.getName());
+            CachePolicy policy;
+            if (hint != null && hint.getMaxAge() >= 0) {
+                policy = new CachePolicy(hint.getMaxAge(), hint.getScope());
+            } else if (hint == null || isRoot || hint.isComposite()) {
+                policy = new CachePolicy(0, CacheScope.PUBLIC);
+            } else {
+                policy = CachePolicy.UNLIMITED;
+            }
+            return policy.restrict(this.measure(field.getSelectionSet(), hint == null ? null : hint.getTypeName(),
+                    false));
+        }
+
+        private CachePolicy measureFragment(String name, boolean isRoot) {
+            CachePolicy policy = this.fragmentPolicies.get(name);
+            if (policy == null) {
+                // fragments can not spread themselves, this only guards invalid documents
+                this.fragmentPolicies.put(name, CachePolicy.UNLIMITED);
+                FragmentDefinition fragment = this.fragments.get(name);
+                policy = fragment == null ? CachePolicy.UNLIMITED
+                        : this.measure(fragment.getSelectionSet(), fragment.getTypeCondition().getName(), isRoot);
+                this.fragmentPolicies.put(name, policy);
+            }
+            return policy;
+        }
+    }
+
+    /**
+     * max age and scope of a response or a part of it
+     */
+    public static final class CachePolicy {
+
+        private static final CachePolicy UNLIMITED = new CachePolicy(Integer.MAX_VALUE, CacheScope.PUBLIC);
+
+        private final int maxAge;
+
+        private final CacheScope scope;
+
+        private CachePolicy(int maxAge, CacheScope scope) {
+            this.maxAge = maxAge;
+            this.scope = scope;
+        }
+
+        private CachePolicy restrict(CachePolicy other) {
+            int restrictedMaxAge = Math.min(this.maxAge, other.maxAge);
+            CacheScope restrictedScope = this.scope == CacheScope.PRIVATE ? this.scope : other.scope;
+            if (restrictedMaxAge == this.maxAge && restrictedScope == this.scope) {
+                return this;
+            }
+            return new CachePolicy(restrictedMaxAge, restrictedScope);
+        }
+
+        /**
+         * @return seconds the response may be cached, {@link Integer#MAX_VALUE}
+         *         when no selected field limits it
+         */
+        public int getMaxAge() {
+            return this.maxAge;
+        }
+
+        public CacheScope getScope() {
+            return this.scope;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("maxAge", this.maxAge);
+            map.put("scope", this.scope.name());
+            return map;
+        }
+    }
+
+    /**
+     * policy of the query of one execution
+     */
+    private static final class CacheControlState implements InstrumentationState {
+
+        private CachePolicy policy;
+    }
+}
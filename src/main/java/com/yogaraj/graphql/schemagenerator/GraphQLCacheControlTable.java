@@ -0,0 +1,183 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.CacheScope;
+
+/**
+ * Cache hints of every output field, keyed by type and field name. They are
+ * resolved once from the {@link GraphQLTypeDescriptor}s when the schema is
+ * built.
+ *
+ * <pre>
+ * max age      {@link GraphQLField#maxAge()}, else {@link GraphQLSchema#maxAge()} of the field type
+ * scope        the scope of the same annotation
+ * key          arguments with {@link GraphQLFieldParameter#cacheKey()}, in declaration order
+ * </pre>
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * &#64;GraphQLSchema(schemaType = SchemaType.OBJECT, operationName = "docType", maxAge = 3600)
+ * public class DocType { ... }
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * Every field which returns <code>docType</code> may then be cached for an hour.
+ * The root fields are keyed by
+ * {@link GraphQLExecutableSchemaBuilder#QUERY_TYPE_NAME} and
+ * {@link GraphQLExecutableSchemaBuilder#MUTATION_TYPE_NAME}.
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLCacheControlTable {
+
+    private final Map<String, Map<String, CacheHint>> fields;
+
+    private GraphQLCacheControlTable(Map<String, Map<String, CacheHint>> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @param types every type of the schema, inputs and enums are skipped
+     */
+    public static GraphQLCacheControlTable of(List<GraphQLTypeDescriptor> types) {
+        Map<String, GraphQLTypeDescriptor> hintedTypes = new HashMap<>();
+        for (GraphQLTypeDescriptor type : types) {
+            if (type.getMaxAge() >= 0) {
+                hintedTypes.putIfAbsent(type.getOperationName(), type);
+            }
+        }
+        Map<String, Map<String, CacheHint>> fields = new HashMap<>();
+        for (GraphQLTypeDescriptor type : types) {
+            String typeName;
+            boolean isRoot = false;
+            switch (type.getSchemaType()) {
+            case QUERY:
+                typeName = GraphQLExecutableSchemaBuilder.QUERY_TYPE_NAME;
+                isRoot = true;
+                break;
+            case MUTATION:
+                typeName = GraphQLExecutableSchemaBuilder.MUTATION_TYPE_NAME;
+                isRoot = true;
+                break;
+            case INPUT:
+            case ENUM:
+                continue;
+            default:
+                typeName = type.getOperationName();
+                break;
+            }
+            Map<String, CacheHint> typeFields = fields.computeIfAbsent(typeName, key -> new HashMap<>());
+            for (GraphQLFieldDescriptor field : type.getFields()) {
+                typeFields.put(field.getName(), new CacheHint(field, isRoot, hintedTypes.get(field.getTypeName())));
+            }
+        }
+        return new GraphQLCacheControlTable(fields);
+    }
+
+    /**
+     * @return hint of the field or <code>null</code> when the type has no such
+     *         field
+     */
+    public CacheHint get(String typeName, String fieldName) {
+        Map<String, CacheHint> typeFields = this.fields.get(typeName);
+        return typeFields == null ? null : typeFields.get(fieldName);
+    }
+
+    /**
+     * resolved cache hint of one field
+     */
+    public static final class CacheHint {
+
+        private final int maxAge;
+
+        private final CacheScope scope;
+
+        private final boolean isRoot;
+
+        private final boolean isComposite;
+
+        private final String typeName;
+
+        private final List<String> keyParameters;
+
+        private CacheHint(GraphQLFieldDescriptor field, boolean isRoot, GraphQLTypeDescriptor hintedType) {
+            if (field.getMaxAge() >= 0) {
+                this.maxAge = field.getMaxAge();
+                this.scope = field.getCacheScope();
+            } else if (hintedType != null) {
+                this.maxAge = hintedType.getMaxAge();
+                this.scope = hintedType.getCacheScope();
+            } else {
+                this.maxAge = -1;
+                this.scope = CacheScope.PUBLIC;
+            }
+            this.isRoot = isRoot;
+            this.isComposite = field.getFieldType() == FieldType.OBJECT
+                    || (field.getFieldType() == FieldType.LIST && !isScalar(field.getTypeName()));
+            this.typeName = field.getTypeName();
+            List<String> keys = new ArrayList<>();
+            for (GraphQLParameterDescriptor parameter : field.getParameters()) {
+                if (parameter.isCacheKey()) {
+                    keys.add(parameter.getName());
+                }
+            }
+            this.keyParameters = Collections.unmodifiableList(keys);
+        }
+
+        private static boolean isScalar(String typeName) {
+            for (FieldType fieldType : FieldType.values()) {
+                if (fieldType != FieldType.OBJECT && fieldType != FieldType.LIST && fieldType.type.equals(typeName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return seconds the value may be cached or <code>-1</code> when neither
+         *         the field nor its type declare a hint
+         */
+        public int getMaxAge() {
+            return this.maxAge;
+        }
+
+        public CacheScope getScope() {
+            return this.scope;
+        }
+
+        public boolean isRoot() {
+            return this.isRoot;
+        }
+
+        /**
+         * @return <code>true</code> when the field returns objects, such fields
+         *         are not cacheable without a hint
+         */
+        public boolean isComposite() {
+            return this.isComposite;
+        }
+
+        /**
+         * @return type of the selections of the field, the element type of a list
+         */
+        public String getTypeName() {
+            return this.typeName;
+        }
+
+        /**
+         * @return names of the arguments which are part of the key of a cached
+         *         value
+         */
+        public List<String> getKeyParameters() {
+            return this.keyParameters;
+        }
+    }
+}
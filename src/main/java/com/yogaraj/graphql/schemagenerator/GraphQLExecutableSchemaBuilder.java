@@ -0,0 +1,458 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+import org.dataloader.DataLoader;
+
+import graphql.Scalars;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLInputObjectField;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLInputType;
+import graphql.schema.GraphQLInterfaceType;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeReference;
+import graphql.schema.PropertyDataFetcher;
+import graphql.schema.TypeResolver;
+
+/**
+ * Builds an executable graphql-java {@link graphql.schema.GraphQLSchema}
+ * straight from {@link GraphQLTypeDescriptor}s, without rendering schema text
+ * and parsing it again with {@link graphql.schema.idl.SchemaParser}. The schema
+ * text is only needed for clients and can be printed on demand with
+ * {@link graphql.schema.idl.SchemaPrinter}.
+ *
+ * <p>
+ * Types are mapped as follows:
+ * </p>
+ *
+ * <pre>
+ * {@link SchemaType#QUERY}          fields are merged into the type "Query"
+ * {@link SchemaType#MUTATION}       fields are merged into the type "Mutation"
+ * {@link SchemaType#OBJECT}         {@link GraphQLObjectType}
+ * {@link SchemaType#IMPLEMENTATION} {@link GraphQLObjectType}
+ * {@link SchemaType#INTERFACE}      {@link GraphQLInterfaceType}
+ * {@link SchemaType#INPUT}          {@link GraphQLInputObjectType}
+ * {@link SchemaType#ENUM}           {@link GraphQLEnumType}, values are the field names
+ * </pre>
+ *
+ * Fields which have no {@link DataFetcher} registered use the default property
+ * data fetcher of graphql-java, fields with a {@link GraphQLField#batchLoader()}
+ * are loaded through the {@link org.dataloader.DataLoader} of that name, see
+ * {@link GraphQLBatchLoaders}. With a {@link #jdbcDataSource(DataSource, int)}
+ * the query fields of {@link GraphQLSchema#table()} types select their rows
+ * with a {@link GraphQLJdbcDataFetcher}, and mutation fields whose argument is
+ * a table input type insert it with a {@link GraphQLJdbcBatchMutation}. The
+ * other fields of object types
+ * whose class can be loaded are read through the
+ * {@link GraphQLFieldAccessors} of the class. With a
+ * {@link #fieldCache(GraphQLFieldCache)} the values of fields with a cache hint
+ * are kept for their max age, see {@link #buildCacheControlTable()}.
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * GraphQLSchema schema = new GraphQLExecutableSchemaBuilder()
+ *         .types(typeDescriptors)
+ *         .dataFetcher("Query", "docs", environment -&gt; docRepository.findAll())
+ *         .build();
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * @author Yogaraj
+ */
+public class GraphQLExecutableSchemaBuilder {
+
+    public static final String QUERY_TYPE_NAME = "Query";
+
+    public static final String MUTATION_TYPE_NAME = "Mutation";
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final List<GraphQLTypeDescriptor> types = new ArrayList<>();
+
+    private final Map<String, Map<String, DataFetcher<?>>> dataFetchers = new HashMap<>();
+
+    private DataSource dataSource;
+
+    private int fetchSize;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private final Map<String, GraphQLTypeDescriptor> tables = new HashMap<>();
+
+    private GraphQLFieldCache fieldCache;
+
+    private GraphQLCacheControlTable cacheControlTable;
+
+    private ClassLoader classLoader = GraphQLExecutableSchemaBuilder.class.getClassLoader();
+
+    private Logger logger = Logger.getLogger(GraphQLExecutableSchemaBuilder.class.getSimpleName());
+
+    /**
+     * adds the types in the order they are written to the schema
+     *
+     * @param typeDescriptors
+     * @return this builder
+     */
+    public GraphQLExecutableSchemaBuilder types(List<GraphQLTypeDescriptor> typeDescriptors) {
+        this.types.addAll(typeDescriptors);
+        return this;
+    }
+
+    public GraphQLExecutableSchemaBuilder type(GraphQLTypeDescriptor typeDescriptor) {
+        this.types.add(typeDescriptor);
+        return this;
+    }
+
+    /**
+     * registers the {@link DataFetcher} of one field
+     *
+     * @param typeName  name of the object type, {@link #QUERY_TYPE_NAME} or
+     *                  {@link #MUTATION_TYPE_NAME} for root fields
+     * @param fieldName
+     * @param dataFetcher
+     * @return this builder
+     */
+    public GraphQLExecutableSchemaBuilder dataFetcher(String typeName, String fieldName, DataFetcher<?> dataFetcher) {
+        this.dataFetchers.computeIfAbsent(typeName, key -> new HashMap<>()).put(fieldName, dataFetcher);
+        return this;
+    }
+
+    /**
+     * @param classLoader loads the classes of the object types for their
+     *                    {@link GraphQLFieldAccessors}
+     * @return this builder
+     */
+    public GraphQLExecutableSchemaBuilder classLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        return this;
+    }
+
+    /**
+     * resolves the query fields of {@link GraphQLSchema#table()} types which have
+     * no registered {@link DataFetcher} from the data source
+     *
+     * @param dataSource
+     * @param fetchSize  rows which are transferred per round trip
+     * @return this builder
+     */
+    public GraphQLExecutableSchemaBuilder jdbcDataSource(DataSource dataSource, int fetchSize) {
+        this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * @param batchSize input items which are inserted per round trip by the
+     *                  mutation fields of {@link GraphQLSchema#table()} input
+     *                  types
+     * @return this builder
+     */
+    public GraphQLExecutableSchemaBuilder jdbcBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * keeps the values of the fields which have a cache hint
+     *
+     * @param fieldCache shared by all schema versions, it should be flushed when
+     *                   the schema is built again
+     * @return this builder
+     */
+    public GraphQLExecutableSchemaBuilder fieldCache(GraphQLFieldCache fieldCache) {
+        this.fieldCache = fieldCache;
+        return this;
+    }
+
+    /**
+     * @return cache hints of the fields of all added types, for a
+     *         {@link GraphQLCacheControlInstrumentation}
+     */
+    public GraphQLCacheControlTable buildCacheControlTable() {
+        return GraphQLCacheControlTable.of(this.types);
+    }
+
+    /**
+     * @return costs of the fields of all added types, for a
+     *         {@link GraphQLQueryCostInstrumentation}
+     */
+    public GraphQLQueryCostTable buildCostTable() {
+        return GraphQLQueryCostTable.of(this.types);
+    }
+
+    /**
+     * @return executable schema with all added types
+     * @throws IllegalStateException when no {@link SchemaType#QUERY} type was
+     *                               added, graphql requires a query root
+     */
+    public graphql.schema.GraphQLSchema build() {
+        GraphQLObjectType.Builder queryType = null;
+        GraphQLObjectType.Builder mutationType = null;
+        Map<String, GraphQLType> additionalTypes = new LinkedHashMap<>();
+
+        this.tables.clear();
+        for (GraphQLTypeDescriptor type : this.types) {
+            if (type.getTableName() != null) {
+                this.tables.put(type.getOperationName(), type);
+            }
+        }
+        this.cacheControlTable = this.fieldCache == null ? null : this.buildCacheControlTable();
+        for (GraphQLTypeDescriptor type : this.types) {
+            switch (type.getSchemaType()) {
+            case QUERY:
+                if (queryType == null) {
+                    queryType = GraphQLObjectType.newObject().name(QUERY_TYPE_NAME);
+                }
+                this.addOutputFields(queryType, QUERY_TYPE_NAME, type, null);
+                break;
+            case MUTATION:
+                if (mutationType == null) {
+                    mutationType = GraphQLObjectType.newObject().name(MUTATION_TYPE_NAME);
+                }
+                this.addOutputFields(mutationType, MUTATION_TYPE_NAME, type, null);
+                break;
+            case ENUM:
+                additionalTypes.put(type.getOperationName(), this.buildEnumType(type));
+                break;
+            case INPUT:
+                additionalTypes.put(type.getOperationName(), this.buildInputObjectType(type));
+                break;
+            case INTERFACE:
+                additionalTypes.put(type.getOperationName(), this.buildInterfaceType(type));
+                break;
+            default:
+                additionalTypes.put(type.getOperationName(), this.buildObjectType(type));
+                break;
+            }
+        }
+
+        if (queryType == null) {
+            throw new IllegalStateException("no class is annotated with schemaType QUERY");
+        }
+        graphql.schema.GraphQLSchema.Builder schema = graphql.schema.GraphQLSchema.newSchema().query(queryType);
+        if (mutationType != null) {
+            schema.mutation(mutationType);
+        }
+        // types which are not reachable from the roots are part of the schema as well
+        return schema.additionalTypes(new LinkedHashSet<>(additionalTypes.values())).build();
+    }
+
+    private GraphQLObjectType buildObjectType(GraphQLTypeDescriptor type) {
+        GraphQLObjectType.Builder objectType = GraphQLObjectType.newObject().name(type.getOperationName());
+        if (type.getImplementsName() != null) {
+            // graphql only implements interfaces, the base schema is an OBJECT
+            this.printLogMessage("IGNORING: implementation of " + type.getImplementsName() + " by "
+                    + type.getOperationName() + " since only interfaces can be implemented");
+        }
+        this.addOutputFields(objectType, type.getOperationName(), type, this.loadClass(type));
+        return objectType.build();
+    }
+
+    private GraphQLInterfaceType buildInterfaceType(GraphQLTypeDescriptor type) {
+        GraphQLInterfaceType.Builder interfaceType = GraphQLInterfaceType.newInterface().name(type.getOperationName())
+                .typeResolver(this.objectTypeResolver());
+        for (GraphQLFieldDescriptor field : type.getFields()) {
+            interfaceType.field(this.buildFieldDefinition(type.getOperationName(), field, null));
+        }
+        return interfaceType.build();
+    }
+
+    /**
+     * resolves the object type of a value by the operation name of its class
+     * among the added types
+     */
+    private TypeResolver objectTypeResolver() {
+        Map<String, String> operationNames = new HashMap<>();
+        for (GraphQLTypeDescriptor type : this.types) {
+            operationNames.putIfAbsent(type.getClassName(), type.getOperationName());
+        }
+        return environment -> {
+            Object value = environment.getObject();
+            String operationName = value == null ? null : operationNames.get(value.getClass().getName());
+            return operationName == null ? null : environment.getSchema().getObjectType(operationName);
+        };
+    }
+
+    private GraphQLInputObjectType buildInputObjectType(GraphQLTypeDescriptor type) {
+        GraphQLInputObjectType.Builder inputType = GraphQLInputObjectType.newInputObject()
+                .name(type.getOperationName());
+        for (GraphQLFieldDescriptor field : type.getFields()) {
+            inputType.field(GraphQLInputObjectField.newInputObjectField().name(field.getName())
+                    .type((GraphQLInputType) this.resolveType(field.getFieldType(), field.getTypeName(),
+                            field.isNullable())));
+        }
+        return inputType.build();
+    }
+
+    private GraphQLEnumType buildEnumType(GraphQLTypeDescriptor type) {
+        GraphQLEnumType.Builder enumType = GraphQLEnumType.newEnum().name(type.getOperationName());
+        for (GraphQLFieldDescriptor field : type.getFields()) {
+            enumType.value(field.getName());
+        }
+        return enumType.build();
+    }
+
+    private void addOutputFields(GraphQLObjectType.Builder objectType, String typeName, GraphQLTypeDescriptor type,
+            Class<?> sourceClass) {
+        for (GraphQLFieldDescriptor field : type.getFields()) {
+            objectType.field(this.buildFieldDefinition(typeName, field, sourceClass));
+        }
+    }
+
+    /**
+     * @param sourceClass class of the objects of the type or <code>null</code>
+     */
+    private GraphQLFieldDefinition buildFieldDefinition(String typeName, GraphQLFieldDescriptor field,
+            Class<?> sourceClass) {
+        GraphQLFieldDefinition.Builder fieldDefinition = GraphQLFieldDefinition.newFieldDefinition()
+                .name(field.getName())
+                .type((GraphQLOutputType) this.resolveType(field.getFieldType(), field.getTypeName(),
+                        field.isNullable()));
+        for (GraphQLParameterDescriptor parameter : field.getParameters()) {
+            fieldDefinition.argument(GraphQLArgument.newArgument().name(parameter.getName())
+                    .type((GraphQLInputType) this.resolveType(parameter.getParamType(), parameter.getTypeName(),
+                            parameter.isNullable())));
+        }
+        DataFetcher<?> dataFetcher = this.dataFetchers.getOrDefault(typeName, Map.of()).get(field.getName());
+        if (dataFetcher == null && field.getBatchLoaderName() != null) {
+            dataFetcher = batchLoading(field.getBatchLoaderName(), field.getBatchKeyName());
+        }
+        if (dataFetcher == null && this.dataSource != null && QUERY_TYPE_NAME.equals(typeName)
+                && this.tables.containsKey(field.getTypeName())) {
+            dataFetcher = new GraphQLJdbcDataFetcher(this.dataSource, this.fetchSize, field,
+                    this.tables.get(field.getTypeName()));
+        }
+        if (dataFetcher == null && this.dataSource != null && MUTATION_TYPE_NAME.equals(typeName)) {
+            dataFetcher = this.batchInserting(field);
+        }
+        if (dataFetcher == null && sourceClass != null) {
+            dataFetcher = GraphQLFieldAccessors.dataFetcher(sourceClass, field.getName());
+        }
+        if (dataFetcher != null && this.cacheControlTable != null) {
+            dataFetcher = this.fieldCache.caching(typeName, field.getName(),
+                    this.cacheControlTable.get(typeName, field.getName()),
+                    field.getBatchLoaderName() == null ? null : field.getBatchKeyName(), dataFetcher);
+        }
+        if (dataFetcher != null) {
+            fieldDefinition.dataFetcher(dataFetcher);
+        }
+        return fieldDefinition.build();
+    }
+
+    /**
+     * @return {@link GraphQLJdbcBatchMutation} of the first argument which is a
+     *         table input type or <code>null</code>
+     */
+    private DataFetcher<?> batchInserting(GraphQLFieldDescriptor field) {
+        for (GraphQLParameterDescriptor parameter : field.getParameters()) {
+            GraphQLTypeDescriptor table = this.tables.get(parameter.getTypeName());
+            if (table != null && table.getSchemaType() == SchemaType.INPUT) {
+                return new GraphQLJdbcBatchMutation(this.dataSource, this.batchSize, field, parameter, table);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return class of the type or <code>null</code> when it can not be loaded,
+     *         e.g. for descriptors which are not read from a class
+     */
+    private Class<?> loadClass(GraphQLTypeDescriptor type) {
+        try {
+            return Class.forName(type.getClassName(), false, this.classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * queues the key of the parent object with the request's
+     * {@link org.dataloader.DataLoader}, the value is completed when the loader is
+     * dispatched
+     */
+    private static DataFetcher<?> batchLoading(String batchLoaderName, String batchKeyName) {
+        PropertyDataFetcher<Object> keyFetcher = PropertyDataFetcher.fetching(batchKeyName);
+        return environment -> {
+            DataLoader<Object, Object> dataLoader = environment.getDataLoader(batchLoaderName);
+            if (dataLoader == null) {
+                throw new IllegalStateException("no batch loader " + batchLoaderName + " is registered");
+            }
+            Object key = keyFetcher.get(environment);
+            return key == null ? null : dataLoader.load(key);
+        };
+    }
+
+    /**
+     * named types are referenced by name and resolved when the schema is built,
+     * so the types may refer to each other in any order
+     */
+    private GraphQLType resolveType(FieldType fieldType, String typeName, boolean isNullable) {
+        GraphQLType type;
+        switch (fieldType) {
+        case OBJECT:
+            type = GraphQLTypeReference.typeRef(typeName);
+            break;
+        case LIST:
+            type = GraphQLList.list(this.resolveNamedType(typeName));
+            break;
+        default:
+            type = this.resolveScalarType(fieldType);
+            break;
+        }
+        return isNullable ? type : GraphQLNonNull.nonNull(type);
+    }
+
+    private GraphQLType resolveNamedType(String typeName) {
+        for (FieldType fieldType : FieldType.values()) {
+            if (fieldType.type.equals(typeName) && fieldType != FieldType.OBJECT && fieldType != FieldType.LIST) {
+                return this.resolveScalarType(fieldType);
+            }
+        }
+        if (FieldType.LIST.type.equals(typeName)) {
+            // the element type of the list is not known
+            return Scalars.GraphQLString;
+        }
+        return GraphQLTypeReference.typeRef(typeName);
+    }
+
+    private GraphQLScalarType resolveScalarType(FieldType fieldType) {
+        switch (fieldType) {
+        case INT:
+            return Scalars.GraphQLInt;
+        case FLOAT:
+            return Scalars.GraphQLFloat;
+        case BOOLEAN:
+            return Scalars.GraphQLBoolean;
+        case ID:
+            return Scalars.GraphQLID;
+        default:
+            return Scalars.GraphQLString;
+        }
+    }
+
+    private void printLogMessage(String message) {
+        this.logger.info(message);
+    }
+}
@@ -31,4 +31,49 @@ public @interface GraphQLField {
     boolean isNullable() default true;
 
     GraphQLFieldParameter[] parameters() default {};
+
+    /**
+     * name of the {@link org.dataloader.BatchLoader} which loads the value of an
+     * {@link FieldType#OBJECT} or {@link FieldType#LIST} field. The loads of all
+     * objects of one level in a query are batched into one call.
+     *
+     * <pre>
+     * &#64;GraphQLField(fieldType = FieldType.OBJECT, batchLoader = "authorsById", batchKey = "authorId")
+     * public Author author;
+     * </pre>
+     */
+    String batchLoader() default "";
+
+    /**
+     * field or property of the parent object whose value is passed to the
+     * {@link GraphQLField#batchLoader()} as key
+     */
+    String batchKey() default "id";
+
+    /**
+     * column of {@link GraphQLSchema#table()} which holds the value, defaults to
+     * the java field name
+     */
+    String column() default "";
+
+    /**
+     * cost of resolving the field once, a {@link FieldType#LIST} field costs its
+     * own cost plus the cost of its selections times the requested page size, see
+     * {@link GraphQLQueryCostTable}
+     */
+    int cost() default GraphQLQueryCostTable.DEFAULT_FIELD_COST;
+
+    /**
+     * seconds the value of the field may be cached, <code>-1</code> uses the
+     * {@link GraphQLSchema#maxAge()} of the field type, see
+     * {@link GraphQLCacheControlTable}
+     */
+    int maxAge() default -1;
+
+    /**
+     * scope of {@link GraphQLField#maxAge()},
+     * {@link GraphQLSchema.CacheScope#PRIVATE} values are only cached per user
+     * by clients
+     */
+    GraphQLSchema.CacheScope cacheScope() default GraphQLSchema.CacheScope.PUBLIC;
 }
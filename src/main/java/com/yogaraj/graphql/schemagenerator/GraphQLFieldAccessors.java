@@ -0,0 +1,255 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.PropertyDataFetcher;
+
+/**
+ * Data fetchers of the {@link GraphQLField} fields of a class, keyed by the
+ * field name of the schema. Every field gets its own {@link DataFetcher}
+ * class, which is generated once per class and kept in a {@link ClassValue}:
+ *
+ * <pre>
+ * public Object get(DataFetchingEnvironment environment) {
+ *     Object source = environment.getSource();
+ *     if (source instanceof Doc) {
+ *         return ((Doc) source).getTitle();     // or ((Doc) source).title
+ *     }
+ *     return this.fallback.get(environment);    // {@link PropertyDataFetcher}
+ * }
+ * </pre>
+ *
+ * The accessor is a constant of the generated class, so every call site only
+ * ever sees one class and the JIT inlines the getter. A single shared
+ * fetcher, like the {@link PropertyDataFetcher}, sees the classes of all types
+ * and stays megamorphic.
+ *
+ * <p>
+ * The classes are defined in the package of the DTO with
+ * {@link MethodHandles.Lookup#defineClass(byte[])}, so public and package
+ * private DTOs are read directly. Fields of private nested classes are left
+ * to the {@link PropertyDataFetcher}.
+ * </p>
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLFieldAccessors {
+
+    private static final Logger LOGGER = Logger.getLogger(GraphQLFieldAccessors.class.getSimpleName());
+
+    private static final String CLASS_NAME_INFIX = "$GraphQLFieldFetcher$";
+
+    private static final String DATA_FETCHER = Type.getInternalName(DataFetcher.class);
+
+    private static final String GET_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Object.class),
+            Type.getType(DataFetchingEnvironment.class));
+
+    private static final ClassValue<Map<String, DataFetcher<Object>>> DATA_FETCHERS = new ClassValue<Map<String, DataFetcher<Object>>>() {
+        @Override
+        protected Map<String, DataFetcher<Object>> computeValue(Class<?> graphQLClass) {
+            return buildDataFetchers(graphQLClass);
+        }
+    };
+
+    private GraphQLFieldAccessors() {
+    }
+
+    /**
+     * @param graphQLClass
+     * @return data fetchers of the annotated fields by schema field name
+     */
+    public static Map<String, DataFetcher<Object>> getDataFetchers(Class<?> graphQLClass) {
+        return DATA_FETCHERS.get(graphQLClass);
+    }
+
+    /**
+     * @param graphQLClass class of the objects which are resolved
+     * @param fieldName    field name of the schema
+     * @return data fetcher which reads instances of the class through its
+     *         generated accessor and any other source, e.g. a map, like the
+     *         default {@link PropertyDataFetcher}, or <code>null</code> when the
+     *         class has no such field
+     */
+    public static DataFetcher<Object> dataFetcher(Class<?> graphQLClass, String fieldName) {
+        return getDataFetchers(graphQLClass).get(fieldName);
+    }
+
+    private static Map<String, DataFetcher<Object>> buildDataFetchers(Class<?> graphQLClass) {
+        if (Modifier.isPrivate(graphQLClass.getModifiers())) {
+            printLogMessage("IGNORING: accessors of " + graphQLClass.getName() + " since it is private");
+            return Collections.emptyMap();
+        }
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(graphQLClass, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            printLogMessage("IGNORING: accessors of " + graphQLClass.getName() + " since it is not accessible");
+            return Collections.emptyMap();
+        }
+        Map<String, DataFetcher<Object>> dataFetchers = new HashMap<>();
+        for (Field field : graphQLClass.getFields()) {
+            GraphQLField mGraphQLField = field.getAnnotation(GraphQLField.class);
+            if (mGraphQLField == null || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            String key = mGraphQLField.fieldName();
+            if (key == null || key.equals(""))
+                key = field.getName();
+            try {
+                dataFetchers.put(key, defineDataFetcher(lookup, graphQLClass, field, findGetter(graphQLClass, field))
+                        .getConstructor(DataFetcher.class).newInstance(PropertyDataFetcher.fetching(key)));
+            } catch (ReflectiveOperationException | LinkageError e) {
+                printLogMessage("IGNORING: accessor of " + graphQLClass.getName() + "." + field.getName() + ": "
+                        + e);
+            }
+        }
+        return Collections.unmodifiableMap(dataFetchers);
+    }
+
+    private static Method findGetter(Class<?> graphQLClass, Field field) {
+        String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        for (String prefix : new String[] { "get", "is" }) {
+            try {
+                Method method = graphQLClass.getMethod(prefix + suffix);
+                if (method.getReturnType() == field.getType() && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // no getter of this kind
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param getter public getter of the field or <code>null</code> to read the
+     *               field itself
+     */
+    @SuppressWarnings("unchecked")
+    private static Class<? extends DataFetcher<Object>> defineDataFetcher(MethodHandles.Lookup lookup,
+            Class<?> graphQLClass, Field field, Method getter) throws IllegalAccessException, ClassNotFoundException {
+        String className = graphQLClass.getName() + CLASS_NAME_INFIX + field.getName();
+        byte[] bytecode = writeDataFetcher(className.replace('.', '/'), Type.getInternalName(graphQLClass), field,
+                getter);
+        try {
+            return (Class<? extends DataFetcher<Object>>) lookup.defineClass(bytecode);
+        } catch (LinkageError e) {
+            // defined by a concurrent computation of the class value
+            return (Class<? extends DataFetcher<Object>>) Class.forName(className, false,
+                    graphQLClass.getClassLoader());
+        }
+    }
+
+    private static byte[] writeDataFetcher(String internalName, String ownerName, Field field, Method getter) {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER
+                | Opcodes.ACC_SYNTHETIC, internalName, null, "java/lang/Object", new String[] { DATA_FETCHER });
+        String fallbackDescriptor = "L" + DATA_FETCHER + ";";
+        classWriter.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "fallback", fallbackDescriptor, null, null)
+                .visitEnd();
+
+        MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>",
+                "(" + fallbackDescriptor + ")V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitVarInsn(Opcodes.ALOAD, 1);
+        constructor.visitFieldInsn(Opcodes.PUTFIELD, internalName, "fallback", fallbackDescriptor);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor get = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "get", GET_DESCRIPTOR, null,
+                new String[] { "java/lang/Exception" });
+        get.visitCode();
+        get.visitVarInsn(Opcodes.ALOAD, 1);
+        get.visitMethodInsn(Opcodes.INVOKEINTERFACE, Type.getInternalName(DataFetchingEnvironment.class),
+                "getSource", "()Ljava/lang/Object;", true);
+        get.visitVarInsn(Opcodes.ASTORE, 2);
+        get.visitVarInsn(Opcodes.ALOAD, 2);
+        get.visitTypeInsn(Opcodes.INSTANCEOF, ownerName);
+        Label fallback = new Label();
+        get.visitJumpInsn(Opcodes.IFEQ, fallback);
+        get.visitVarInsn(Opcodes.ALOAD, 2);
+        get.visitTypeInsn(Opcodes.CHECKCAST, ownerName);
+        Type valueType = Type.getType(field.getType());
+        if (getter == null) {
+            get.visitFieldInsn(Opcodes.GETFIELD, ownerName, field.getName(), valueType.getDescriptor());
+        } else {
+            get.visitMethodInsn(Opcodes.INVOKEVIRTUAL, ownerName, getter.getName(),
+                    Type.getMethodDescriptor(getter), false);
+        }
+        box(get, valueType);
+        get.visitInsn(Opcodes.ARETURN);
+        get.visitLabel(fallback);
+        get.visitFrame(Opcodes.F_APPEND, 1, new Object[] { "java/lang/Object" }, 0, null);
+        get.visitVarInsn(Opcodes.ALOAD, 0);
+        get.visitFieldInsn(Opcodes.GETFIELD, internalName, "fallback", fallbackDescriptor);
+        get.visitVarInsn(Opcodes.ALOAD, 1);
+        get.visitMethodInsn(Opcodes.INVOKEINTERFACE, DATA_FETCHER, "get", GET_DESCRIPTOR, true);
+        get.visitInsn(Opcodes.ARETURN);
+        get.visitMaxs(0, 0);
+        get.visitEnd();
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    /**
+     * boxes a primitive value with the <code>valueOf</code> method of its
+     * wrapper
+     */
+    private static void box(MethodVisitor methodVisitor, Type valueType) {
+        String wrapperName;
+        switch (valueType.getSort()) {
+        case Type.BOOLEAN:
+            wrapperName = "java/lang/Boolean";
+            break;
+        case Type.CHAR:
+            wrapperName = "java/lang/Character";
+            break;
+        case Type.BYTE:
+            wrapperName = "java/lang/Byte";
+            break;
+        case Type.SHORT:
+            wrapperName = "java/lang/Short";
+            break;
+        case Type.INT:
+            wrapperName = "java/lang/Integer";
+            break;
+        case Type.FLOAT:
+            wrapperName = "java/lang/Float";
+            break;
+        case Type.LONG:
+            wrapperName = "java/lang/Long";
+            break;
+        case Type.DOUBLE:
+            wrapperName = "java/lang/Double";
+            break;
+        default:
+            return;
+        }
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, wrapperName, "valueOf",
+                "(" + valueType.getDescriptor() + ")L" + wrapperName + ";", false);
+    }
+
+    private static void printLogMessage(String message) {
+        LOGGER.info(message);
+    }
+}
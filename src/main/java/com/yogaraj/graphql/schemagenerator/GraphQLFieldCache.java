@@ -0,0 +1,237 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.yogaraj.graphql.schemagenerator.GraphQLCacheControlTable.CacheHint;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.CacheScope;
+
+import graphql.execution.DataFetcherResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.PropertyDataFetcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Keeps resolved field values for the max age of their
+ * {@link GraphQLCacheControlTable.CacheHint}, in a size bounded Caffeine cache
+ * which is shared by all requests.
+ *
+ * <p>
+ * Only values which do not depend on the object they are resolved on are kept:
+ * </p>
+ *
+ * <pre>
+ * query fields          keyed by the arguments with {@link GraphQLFieldParameter#cacheKey()}
+ * batch loaded fields   keyed by the {@link GraphQLField#batchKey()} of the parent object
+ * </pre>
+ *
+ * Fields which return objects are keyed by their selected fields as well, data
+ * fetchers such as the {@link GraphQLJdbcDataFetcher} only read the columns of
+ * the selection, so a value can not be shared between two selections. Fields
+ * of the {@link CacheScope#PRIVATE} scope, mutation fields and
+ * <code>null</code> values are never kept. Mutations which change cached
+ * values drop them through {@link #invalidate(String, String)} or
+ * {@link #invalidate(String, String, Map)}:
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * fieldCache.invalidate("Query", "docTypes");
+ * fieldCache.invalidate("doc", "docType", Map.of("docTypeId", docTypeId));
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * The {@link CaffeineCacheMetrics} of the cache "graphql.fields" are
+ * registered.
+ *
+ * @author Yogaraj
+ */
+public class GraphQLFieldCache {
+
+    static final String CACHE_NAME = "graphql.fields";
+
+    private final Cache<FieldKey, CachedValue> values;
+
+    /**
+     * @param maximumSize   maximum number of cached values
+     * @param meterRegistry {@link MeterRegistry} the metrics are registered with
+     */
+    public GraphQLFieldCache(long maximumSize, MeterRegistry meterRegistry) {
+        this.values = Caffeine.newBuilder().maximumSize(maximumSize).expireAfter(new MaxAgeExpiry()).recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.values, CACHE_NAME);
+    }
+
+    /**
+     * @param typeName        name of the object type, as in the
+     *                        {@link GraphQLCacheControlTable}
+     * @param batchKeyName    property of the parent object which keys a batch
+     *                        loaded field or <code>null</code>
+     * @return the data fetcher itself when the values of the field are not
+     *         cacheable
+     */
+    DataFetcher<?> caching(String typeName, String fieldName, CacheHint hint, String batchKeyName,
+            DataFetcher<?> dataFetcher) {
+        if (hint == null || hint.getMaxAge() <= 0 || hint.getScope() == CacheScope.PRIVATE
+                || GraphQLExecutableSchemaBuilder.MUTATION_TYPE_NAME.equals(typeName)
+                || (!GraphQLExecutableSchemaBuilder.QUERY_TYPE_NAME.equals(typeName) && batchKeyName == null)) {
+            return dataFetcher;
+        }
+        long maxAgeNanos = TimeUnit.SECONDS.toNanos(hint.getMaxAge());
+        PropertyDataFetcher<Object> keyFetcher = batchKeyName == null ? null
+                : PropertyDataFetcher.fetching(batchKeyName);
+        return environment -> {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String keyParameter : hint.getKeyParameters()) {
+                keys.put(keyParameter, environment.getArgument(keyParameter));
+            }
+            if (keyFetcher != null) {
+                keys.put(batchKeyName, keyFetcher.get(environment));
+            }
+            Set<String> selection = hint.isComposite() ? new TreeSet<>(environment.getSelectionSet().get().keySet())
+                    : Collections.emptySet();
+            FieldKey key = new FieldKey(typeName, fieldName, keys, selection);
+            CachedValue cached = this.values.getIfPresent(key);
+            if (cached != null) {
+                return cached.value;
+            }
+            // fetched outside of the cache, a slow fetcher should not block other fields
+            Object value = dataFetcher.get(environment);
+            if (value instanceof CompletionStage) {
+                return ((CompletionStage<?>) value).thenApply(completed -> {
+                    this.put(key, completed, maxAgeNanos);
+                    return completed;
+                });
+            }
+            this.put(key, value, maxAgeNanos);
+            return value;
+        };
+    }
+
+    private void put(FieldKey key, Object value, long maxAgeNanos) {
+        // errors and local context of a DataFetcherResult belong to one request
+        if (value != null && !(value instanceof DataFetcherResult)) {
+            this.values.put(key, new CachedValue(value, maxAgeNanos));
+        }
+    }
+
+    /**
+     * drops the values of a field for all keys
+     *
+     * @param typeName name of the object type, {@link
+     *                 GraphQLExecutableSchemaBuilder#QUERY_TYPE_NAME} for query
+     *                 fields
+     */
+    public void invalidate(String typeName, String fieldName) {
+        this.values.asMap().keySet()
+                .removeIf(key -> key.typeName.equals(typeName) && key.fieldName.equals(fieldName));
+    }
+
+    /**
+     * drops the values of a field for one key, of every selection
+     *
+     * @param keys values of the key arguments or of the batch key, by name
+     */
+    public void invalidate(String typeName, String fieldName, Map<String, Object> keys) {
+        this.values.asMap().keySet().removeIf(key -> key.typeName.equals(typeName)
+                && key.fieldName.equals(fieldName) && key.keys.entrySet().containsAll(keys.entrySet()));
+    }
+
+    /**
+     * drops all values, called when the schema is regenerated
+     */
+    public void invalidateAll() {
+        this.values.invalidateAll();
+    }
+
+    /**
+     * @return number of cached values
+     */
+    public long size() {
+        this.values.cleanUp();
+        return this.values.estimatedSize();
+    }
+
+    private static final class FieldKey {
+
+        private final String typeName;
+
+        private final String fieldName;
+
+        private final Map<String, Object> keys;
+
+        /**
+         * qualified names of the selected fields, e.g. <code>author/name</code>
+         */
+        private final Set<String> selection;
+
+        private FieldKey(String typeName, String fieldName, Map<String, Object> keys, Set<String> selection) {
+            this.typeName = typeName;
+            this.fieldName = fieldName;
+            this.keys = Collections.unmodifiableMap(keys);
+            this.selection = selection;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FieldKey)) {
+                return false;
+            }
+            FieldKey other = (FieldKey) obj;
+            return this.typeName.equals(other.typeName) && this.fieldName.equals(other.fieldName)
+                    && this.keys.equals(other.keys) && this.selection.equals(other.selection);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.typeName, this.fieldName, this.keys, this.selection);
+        }
+    }
+
+    /**
+     * value and the max age of its field
+     */
+    private static final class CachedValue {
+
+        private final Object value;
+
+        private final long maxAgeNanos;
+
+        private CachedValue(Object value, long maxAgeNanos) {
+            this.value = value;
+            this.maxAgeNanos = maxAgeNanos;
+        }
+    }
+
+    /**
+     * expires every value after the max age of its field, reads do not extend it
+     */
+    private static final class MaxAgeExpiry implements Expiry<FieldKey, CachedValue> {
+
+        @Override
+        public long expireAfterCreate(FieldKey key, CachedValue value, long currentTime) {
+            return value.maxAgeNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(FieldKey key, CachedValue value, long currentTime, long currentDuration) {
+            return value.maxAgeNanos;
+        }
+
+        @Override
+        public long expireAfterRead(FieldKey key, CachedValue value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.CacheScope;
+
+/**
+ * Resolved form of a {@link GraphQLField}
+ *
+ * <pre>
+ * key(params): type!
+ * </pre>
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLFieldDescriptor {
+
+    private final String name;
+
+    private final FieldType fieldType;
+
+    private final String typeName;
+
+    private final boolean isNullable;
+
+    private final List<GraphQLParameterDescriptor> parameters;
+
+    private final String columnName;
+
+    private final int cost;
+
+    private final String batchLoaderName;
+
+    private final String batchKeyName;
+
+    private final int maxAge;
+
+    private final CacheScope cacheScope;
+
+    public GraphQLFieldDescriptor(String name, FieldType fieldType, String typeName, boolean isNullable,
+            List<GraphQLParameterDescriptor> parameters) {
+        this(name, fieldType, typeName, isNullable, parameters, name, null, null);
+    }
+
+    public GraphQLFieldDescriptor(String name, FieldType fieldType, String typeName, boolean isNullable,
+            List<GraphQLParameterDescriptor> parameters, String batchLoaderName, String batchKeyName) {
+        this(name, fieldType, typeName, isNullable, parameters, name, batchLoaderName, batchKeyName);
+    }
+
+    /**
+     * @param columnName      {@link GraphQLField#column()} or the java field name
+     * @param batchLoaderName {@link GraphQLField#batchLoader()} or
+     *                        <code>null</code>
+     * @param batchKeyName    {@link GraphQLField#batchKey()}, only used with a
+     *                        batch loader
+     */
+    public GraphQLFieldDescriptor(String name, FieldType fieldType, String typeName, boolean isNullable,
+            List<GraphQLParameterDescriptor> parameters, String columnName, String batchLoaderName,
+            String batchKeyName) {
+        this(name, fieldType, typeName, isNullable, parameters, columnName, GraphQLQueryCostTable.DEFAULT_FIELD_COST,
+                batchLoaderName, batchKeyName);
+    }
+
+    /**
+     * @param cost {@link GraphQLField#cost()}
+     */
+    public GraphQLFieldDescriptor(String name, FieldType fieldType, String typeName, boolean isNullable,
+            List<GraphQLParameterDescriptor> parameters, String columnName, int cost, String batchLoaderName,
+            String batchKeyName) {
+        this(name, fieldType, typeName, isNullable, parameters, columnName, cost, batchLoaderName, batchKeyName, -1,
+                CacheScope.PUBLIC);
+    }
+
+    /**
+     * @param maxAge     {@link GraphQLField#maxAge()}, <code>-1</code> without a
+     *                   hint
+     * @param cacheScope {@link GraphQLField#cacheScope()}
+     */
+    public GraphQLFieldDescriptor(String name, FieldType fieldType, String typeName, boolean isNullable,
+            List<GraphQLParameterDescriptor> parameters, String columnName, int cost, String batchLoaderName,
+            String batchKeyName, int maxAge, CacheScope cacheScope) {
+        this.name = name;
+        this.fieldType = fieldType;
+        this.typeName = typeName;
+        this.isNullable = isNullable;
+        this.parameters = Collections.unmodifiableList(parameters);
+        this.columnName = columnName;
+        this.cost = cost;
+        this.batchLoaderName = batchLoaderName;
+        this.batchKeyName = batchLoaderName == null ? null : batchKeyName;
+        this.maxAge = maxAge;
+        this.cacheScope = cacheScope;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public FieldType getFieldType() {
+        return this.fieldType;
+    }
+
+    /**
+     * @return scalar name or the operation name of the referenced schema class
+     */
+    public String getTypeName() {
+        return this.typeName;
+    }
+
+    public boolean isNullable() {
+        return this.isNullable;
+    }
+
+    public List<GraphQLParameterDescriptor> getParameters() {
+        return this.parameters;
+    }
+
+    public String getColumnName() {
+        return this.columnName;
+    }
+
+    public int getCost() {
+        return this.cost;
+    }
+
+    /**
+     * @return name of the batch loader or <code>null</code> when the field is not
+     *         batched
+     */
+    public String getBatchLoaderName() {
+        return this.batchLoaderName;
+    }
+
+    public String getBatchKeyName() {
+        return this.batchKeyName;
+    }
+
+    /**
+     * @return seconds the value may be cached or <code>-1</code> when the field
+     *         declares no hint
+     */
+    public int getMaxAge() {
+        return this.maxAge;
+    }
+
+    public CacheScope getCacheScope() {
+        return this.cacheScope;
+    }
+}
@@ -23,4 +23,16 @@ public @interface GraphQLFieldParameter {
     String paramName();
 
     boolean isNullable() default true;
+
+    /**
+     * column the argument is compared with by {@link GraphQLJdbcDataFetcher},
+     * defaults to the parameter name
+     */
+    String column() default "";
+
+    /**
+     * whether the argument is part of the key of a cached field value, arguments
+     * which do not change the value, e.g. tracing ids, are left out
+     */
+    boolean cacheKey() default true;
 }
@@ -0,0 +1,46 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Schema of one generation, see
+ * {@link GraphQlSchemaGenerator#generate(String...)}. Results are immutable and
+ * may be shared between threads and tenants.
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLGeneratedSchema {
+
+    private final List<String> packages;
+
+    private final String schema;
+
+    private final List<String> prunedClassNames;
+
+    GraphQLGeneratedSchema(String[] packages, String schema, List<String> prunedClassNames) {
+        this.packages = Collections.unmodifiableList(Arrays.asList(packages.clone()));
+        this.schema = schema;
+        this.prunedClassNames = Collections.unmodifiableList(prunedClassNames);
+    }
+
+    /**
+     * @return scanned packages in scan order
+     */
+    public List<String> getPackages() {
+        return this.packages;
+    }
+
+    public String getSchema() {
+        return this.schema;
+    }
+
+    /**
+     * @return class names of the types which were pruned, empty when the schema
+     *         was loaded from a precompiled resource
+     */
+    public List<String> getPrunedClassNames() {
+        return this.prunedClassNames;
+    }
+}
@@ -0,0 +1,141 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * Resolves a mutation field whose argument is a {@link GraphQLSchema#table()}
+ * input type by inserting the given items with JDBC batches.
+ *
+ * <pre>
+ * mutation { addDocs(docs: [{ title: "a", url: "/a" }, { title: "b", url: "/b" }]) }
+ *
+ * INSERT INTO doc (title, url) VALUES (?, ?)   addBatch per item, executeBatch per batchSize items
+ * </pre>
+ *
+ * All items of one field are inserted in one transaction, a failing batch rolls
+ * back the items of the earlier batches as well. Fields of the input which are
+ * not given are inserted as <code>NULL</code>. The field returns one value per
+ * item in the order of the items, the update count when it is a
+ * {@link FieldType#INT} field or a list of <code>Int</code>, otherwise the item
+ * itself. A field whose argument is a single input inserts one row and returns
+ * one value.
+ *
+ * @author Yogaraj
+ */
+public class GraphQLJdbcBatchMutation implements DataFetcher<Object> {
+
+    private final DataSource dataSource;
+
+    private final int batchSize;
+
+    private final GraphQLFieldDescriptor field;
+
+    private final GraphQLParameterDescriptor parameter;
+
+    private final GraphQLTypeDescriptor table;
+
+    private final String insert;
+
+    /**
+     * @param dataSource
+     * @param batchSize  items which are sent per round trip
+     * @param field      mutation field
+     * @param parameter  argument of the field with the items
+     * @param table      input type of the argument with a
+     *                   {@link GraphQLSchema#table()}
+     */
+    public GraphQLJdbcBatchMutation(DataSource dataSource, int batchSize, GraphQLFieldDescriptor field,
+            GraphQLParameterDescriptor parameter, GraphQLTypeDescriptor table) {
+        this.dataSource = dataSource;
+        this.batchSize = Math.max(1, batchSize);
+        this.field = field;
+        this.parameter = parameter;
+        this.table = table;
+        this.insert = this.buildInsert();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object get(DataFetchingEnvironment environment) throws Exception {
+        Object argument = environment.getArgument(this.parameter.getName());
+        if (argument == null) {
+            return null;
+        }
+        boolean single = !(argument instanceof List);
+        List<Map<String, Object>> items = single ? List.of((Map<String, Object>) argument)
+                : (List<Map<String, Object>>) argument;
+
+        int[] updateCounts = new int[items.size()];
+        try (Connection connection = this.dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(this.insert)) {
+                int batchStart = 0;
+                for (int i = 0; i < items.size(); i++) {
+                    this.bindItem(statement, items.get(i));
+                    statement.addBatch();
+                    if (i + 1 - batchStart == this.batchSize || i + 1 == items.size()) {
+                        int[] batchCounts = statement.executeBatch();
+                        System.arraycopy(batchCounts, 0, updateCounts, batchStart, batchCounts.length);
+                        batchStart = i + 1;
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("failed to insert " + this.field.getName() + ": " + e.getMessage(), e);
+        }
+
+        boolean returnsCounts = this.field.getFieldType() == FieldType.INT
+                || (this.field.getFieldType() == FieldType.LIST && FieldType.INT.type.equals(this.field.getTypeName()));
+        List<Object> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            // drivers which rewrite batches only report that a row was inserted
+            results.add(returnsCounts ? (Object) (updateCounts[i] == Statement.SUCCESS_NO_INFO ? 1 : updateCounts[i])
+                    : items.get(i));
+        }
+        return single ? results.get(0) : results;
+    }
+
+    private void bindItem(PreparedStatement statement, Map<String, Object> item) throws SQLException {
+        List<GraphQLFieldDescriptor> columns = this.table.getFields();
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = item.get(columns.get(i).getName());
+            if (value == null) {
+                statement.setNull(i + 1, Types.NULL);
+            } else {
+                statement.setObject(i + 1, value);
+            }
+        }
+    }
+
+    private String buildInsert() {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(this.table.getTableName()).append(" (");
+        StringBuilder values = new StringBuilder(") VALUES (");
+        List<GraphQLFieldDescriptor> columns = this.table.getFields();
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(columns.get(i).getColumnName());
+            values.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(values).append(")").toString();
+    }
+}
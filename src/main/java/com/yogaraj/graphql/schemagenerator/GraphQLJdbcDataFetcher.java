@@ -0,0 +1,157 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+
+/**
+ * Resolves a query field of a {@link GraphQLSchema#table()} type with one
+ * <code>SELECT</code> of only the columns which are selected by the query.
+ *
+ * <pre>
+ * { docs(type: "media") { title url } }
+ *
+ * SELECT title, url FROM doc WHERE type = ?
+ * </pre>
+ *
+ * The arguments of the field are bound as parameters, arguments which are not
+ * given are left out of the <code>WHERE</code> clause. A selected field with a
+ * {@link GraphQLField#batchLoader()} adds the column of its
+ * {@link GraphQLField#batchKey()}. Rows are fetched from a cursor of
+ * <code>fetchSize</code> rows and are returned as maps by field name, a
+ * {@link FieldType#OBJECT} field returns the first row or <code>null</code>.
+ *
+ * @author Yogaraj
+ */
+public class GraphQLJdbcDataFetcher implements DataFetcher<Object> {
+
+    private final DataSource dataSource;
+
+    private final int fetchSize;
+
+    private final GraphQLFieldDescriptor field;
+
+    private final GraphQLTypeDescriptor table;
+
+    /**
+     * @param dataSource
+     * @param fetchSize  rows which are transferred per round trip
+     * @param field      query field with the parameters of the where clause
+     * @param table      type of the field with a {@link GraphQLSchema#table()}
+     */
+    public GraphQLJdbcDataFetcher(DataSource dataSource, int fetchSize, GraphQLFieldDescriptor field,
+            GraphQLTypeDescriptor table) {
+        this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+        this.field = field;
+        this.table = table;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) throws Exception {
+        List<GraphQLFieldDescriptor> columns = this.selectColumns(environment.getSelectionSet());
+        List<Object> values = new ArrayList<>();
+        String sql = this.buildSelect(columns, environment.getArguments(), values);
+        boolean single = this.field.getFieldType() != FieldType.LIST;
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (Connection connection = this.dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            // postgres only fetches with a cursor with in a transaction
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(single ? 1 : this.fetchSize);
+                for (int i = 0; i < values.size(); i++) {
+                    statement.setObject(i + 1, values.get(i));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows.add(this.readRow(resultSet, columns));
+                        if (single) {
+                            break;
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("failed to select " + this.field.getName() + ": " + e.getMessage(), e);
+        }
+        if (single) {
+            return rows.isEmpty() ? null : rows.get(0);
+        }
+        return rows;
+    }
+
+    /**
+     * @return selected scalar fields and the batch keys of the selected batched
+     *         fields, in the order of the type
+     */
+    private List<GraphQLFieldDescriptor> selectColumns(DataFetchingFieldSelectionSet selectionSet) {
+        List<String> names = new ArrayList<>();
+        for (GraphQLFieldDescriptor column : this.table.getFields()) {
+            if (!selectionSet.contains(column.getName())) {
+                continue;
+            }
+            if (column.getBatchLoaderName() != null) {
+                names.add(column.getBatchKeyName());
+            } else if (column.getFieldType() != FieldType.OBJECT && column.getFieldType() != FieldType.LIST) {
+                names.add(column.getName());
+            }
+        }
+        List<GraphQLFieldDescriptor> columns = new ArrayList<>();
+        for (GraphQLFieldDescriptor column : this.table.getFields()) {
+            if (names.contains(column.getName()) && column.getBatchLoaderName() == null) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    private String buildSelect(List<GraphQLFieldDescriptor> columns, Map<String, Object> arguments,
+            List<Object> values) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (columns.isEmpty()) {
+            // e.g. only __typename is selected
+            sql.append("1");
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(columns.get(i).getColumnName());
+        }
+        sql.append(" FROM ").append(this.table.getTableName());
+        for (GraphQLParameterDescriptor parameter : this.field.getParameters()) {
+            Object value = arguments.get(parameter.getName());
+            if (value == null) {
+                continue;
+            }
+            sql.append(values.isEmpty() ? " WHERE " : " AND ").append(parameter.getColumnName()).append(" = ?");
+            values.add(value);
+        }
+        return sql.toString();
+    }
+
+    private Map<String, Object> readRow(ResultSet resultSet, List<GraphQLFieldDescriptor> columns)
+            throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            row.put(columns.get(i).getName(), resultSet.getObject(i + 1));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,80 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+
+/**
+ * Resolved form of a {@link GraphQLFieldParameter}
+ *
+ * <pre>
+ * (key: type, key: type!, key: [type]!)
+ * </pre>
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLParameterDescriptor {
+
+    private final String name;
+
+    private final FieldType paramType;
+
+    private final String typeName;
+
+    private final boolean isNullable;
+
+    private final String columnName;
+
+    private final boolean isCacheKey;
+
+    public GraphQLParameterDescriptor(String name, FieldType paramType, String typeName, boolean isNullable) {
+        this(name, paramType, typeName, isNullable, name);
+    }
+
+    /**
+     * @param columnName {@link GraphQLFieldParameter#column()} or the parameter
+     *                   name
+     */
+    public GraphQLParameterDescriptor(String name, FieldType paramType, String typeName, boolean isNullable,
+            String columnName) {
+        this(name, paramType, typeName, isNullable, columnName, true);
+    }
+
+    /**
+     * @param isCacheKey {@link GraphQLFieldParameter#cacheKey()}
+     */
+    public GraphQLParameterDescriptor(String name, FieldType paramType, String typeName, boolean isNullable,
+            String columnName, boolean isCacheKey) {
+        this.name = name;
+        this.paramType = paramType;
+        this.typeName = typeName;
+        this.isNullable = isNullable;
+        this.columnName = columnName;
+        this.isCacheKey = isCacheKey;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public FieldType getParamType() {
+        return this.paramType;
+    }
+
+    /**
+     * @return scalar name or the operation name of the referenced schema class
+     */
+    public String getTypeName() {
+        return this.typeName;
+    }
+
+    public boolean isNullable() {
+        return this.isNullable;
+    }
+
+    public String getColumnName() {
+        return this.columnName;
+    }
+
+    public boolean isCacheKey() {
+        return this.isCacheKey;
+    }
+}
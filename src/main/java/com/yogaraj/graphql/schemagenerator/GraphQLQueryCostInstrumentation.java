@@ -0,0 +1,282 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLQueryCostTable.FieldCost;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.language.Argument;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.IntValue;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+
+/**
+ * Rejects queries which are nested deeper or cost more than the limits before
+ * any data fetcher runs. The cost is summed up from the
+ * {@link GraphQLQueryCostTable} in one pass over the operation, fragments are
+ * measured once and reused by every spread.
+ *
+ * <pre>
+ * cost(field)  field cost + list size * cost(selections)
+ * list size    pagination argument of the field or the default list size
+ * </pre>
+ *
+ * Introspection fields are neither counted nor nested. The cost and depth of
+ * every executed query are reported in the <code>cost</code> extension of the
+ * result.
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * { "data": {...}, "extensions": { "cost": { "complexity": 42, "depth": 3 } } }
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * @author Yogaraj
+ */
+public class GraphQLQueryCostInstrumentation extends SimpleInstrumentation {
+
+    public static final String EXTENSION_NAME = "cost";
+
+    private final GraphQLQueryCostTable costTable;
+
+    private final int maxDepth;
+
+    private final long maxComplexity;
+
+    private final int defaultListSize;
+
+    /**
+     * @param costTable       costs of the schema
+     * @param maxDepth        deepest allowed nesting of fields, 0 for no limit
+     * @param maxComplexity   highest allowed cost, 0 for no limit
+     * @param defaultListSize assumed size of lists without a pagination argument
+     */
+    public GraphQLQueryCostInstrumentation(GraphQLQueryCostTable costTable, int maxDepth, long maxComplexity,
+            int defaultListSize) {
+        this.costTable = costTable;
+        this.maxDepth = maxDepth;
+        this.maxComplexity = maxComplexity;
+        this.defaultListSize = defaultListSize;
+    }
+
+    @Override
+    public InstrumentationState createState() {
+        return new CostState();
+    }
+
+    /**
+     * runs for every execution, also when the parsed document is reused from a
+     * cache and validation is skipped
+     */
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters) {
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        QueryCost cost = this.measure(executionContext);
+        CostState state = parameters.getInstrumentationState();
+        state.cost = cost;
+        if (this.maxDepth > 0 && cost.getDepth() > this.maxDepth) {
+            throw new AbortExecutionException(
+                    "query depth " + cost.getDepth() + " exceeds the maximum depth " + this.maxDepth);
+        }
+        if (this.maxComplexity > 0 && cost.getComplexity() > this.maxComplexity) {
+            throw new AbortExecutionException(
+                    "query cost " + cost.getComplexity() + " exceeds the maximum cost " + this.maxComplexity);
+        }
+        return super.beginExecuteOperation(parameters);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+            InstrumentationExecutionParameters parameters) {
+        CostState state = parameters.getInstrumentationState();
+        if (state == null || state.cost == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        Map<Object, Object> extensions = new LinkedHashMap<>();
+        if (executionResult.getExtensions() != null) {
+            extensions.putAll(executionResult.getExtensions());
+        }
+        extensions.put(EXTENSION_NAME, state.cost.toMap());
+        return CompletableFuture.completedFuture(
+                new ExecutionResultImpl(executionResult.getData(), executionResult.getErrors(), extensions));
+    }
+
+    /**
+     * @return cost and depth of the operation which is executed
+     */
+    public QueryCost measure(ExecutionContext executionContext) {
+        OperationDefinition operation = executionContext.getOperationDefinition();
+        String rootTypeName = operation.getOperation() == OperationDefinition.Operation.MUTATION
+                ? GraphQLExecutableSchemaBuilder.MUTATION_TYPE_NAME
+                : GraphQLExecutableSchemaBuilder.QUERY_TYPE_NAME;
+        return new Measurement(executionContext).measure(operation.getSelectionSet(), rootTypeName);
+    }
+
+    /**
+     * one pass over the selections of an operation
+     */
+    private final class Measurement {
+
+        private final Map<String, FragmentDefinition> fragments;
+
+        private final Map<String, Object> variables;
+
+        private final Map<String, QueryCost> fragmentCosts = new HashMap<>();
+
+        private Measurement(ExecutionContext executionContext) {
+            this.fragments = executionContext.getFragmentsByName();
+            this.variables = executionContext.getVariables();
+        }
+
+        private QueryCost measure(SelectionSet selectionSet, String typeName) {
+            if (selectionSet == null) {
+                return QueryCost.NONE;
+            }
+            long complexity = 0;
+            int depth = 0;
+            for (Selection<?> selection : selectionSet.getSelections()) {
+                QueryCost cost;
+                if (selection instanceof Field) {
+                    cost = this.measureField((Field) selection, typeName);
+                } else if (selection instanceof InlineFragment) {
+                    InlineFragment inlineFragment = (InlineFragment) selection;
+                    cost = this.measure(inlineFragment.getSelectionSet(), inlineFragment.getTypeCondition() == null
+                            ? typeName
+                            : inlineFragment.getTypeCondition().getName());
+                } else {
+                    cost = this.measureFragment(((FragmentSpread) selection).getName());
+                }
+                complexity = add(complexity, cost.getComplexity());
+                depth = Math.max(depth, cost.getDepth());
+            }
+            return new QueryCost(complexity, depth);
+        }
+
+        private QueryCost measureField(Field field, String typeName) {
+            if (field.getName().startsWith("__")) {
+                return QueryCost.NONE;
+            }
+            FieldCost fieldCost = typeName == null ? null
+                    : GraphQLQueryCostInstrumentation.this.costTable.get(typeName, field.getName());
+            QueryCost selections = this.measure(field.getSelectionSet(),
+                    fieldCost == null ? null : fieldCost.getTypeName());
+            long multiplier = fieldCost != null && fieldCost.isList() ? this.listSize(field, fieldCost) : 1;
+            long complexity = add(fieldCost == null ? GraphQLQueryCostTable.DEFAULT_FIELD_COST : fieldCost.getCost(),
+                    multiply(multiplier, selections.getComplexity()));
+            return new QueryCost(complexity, selections.getDepth() + 1);
+        }
+
+        private QueryCost measureFragment(String name) {
+            QueryCost cost = this.fragmentCosts.get(name);
+            if (cost == null) {
+                // fragments can not spread themselves, this only guards invalid documents
+                this.fragmentCosts.put(name, QueryCost.NONE);
+                FragmentDefinition fragment = this.fragments.get(name);
+                cost = fragment == null ? QueryCost.NONE
+                        : this.measure(fragment.getSelectionSet(), fragment.getTypeCondition().getName());
+                this.fragmentCosts.put(name, cost);
+            }
+            return cost;
+        }
+
+        private long listSize(Field field, FieldCost fieldCost) {
+            if (fieldCost.getPaginationParameter() != null) {
+                for (Argument argument : field.getArguments()) {
+                    if (argument.getName().equals(fieldCost.getPaginationParameter())) {
+                        Object value = this.valueOf(argument.getValue());
+                        if (value instanceof Number) {
+                            return Math.max(0, ((Number) value).longValue());
+                        }
+                    }
+                }
+            }
+            return GraphQLQueryCostInstrumentation.this.defaultListSize;
+        }
+
+        private Object valueOf(Value<?> value) {
+            if (value instanceof IntValue) {
+                BigInteger intValue = ((IntValue) value).getValue();
+                return intValue.bitLength() < 63 ? intValue.longValue() : Long.MAX_VALUE;
+            }
+            if (value instanceof VariableReference) {
+                return this.variables.get(((VariableReference) value).getName());
+            }
+            return null;
+        }
+    }
+
+    private static long add(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long multiply(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * cost and depth of a query or a part of it
+     */
+    public static final class QueryCost {
+
+        private static final QueryCost NONE = new QueryCost(0, 0);
+
+        private final long complexity;
+
+        private final int depth;
+
+        private QueryCost(long complexity, int depth) {
+            this.complexity = complexity;
+            this.depth = depth;
+        }
+
+        public long getComplexity() {
+            return this.complexity;
+        }
+
+        public int getDepth() {
+            return this.depth;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("complexity", this.complexity);
+            map.put("depth", this.depth);
+            return map;
+        }
+    }
+
+    /**
+     * cost of the query of one execution
+     */
+    private static final class CostState implements InstrumentationState {
+
+        private QueryCost cost;
+    }
+}
@@ -0,0 +1,135 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+
+/**
+ * Flat lookup table of the cost of every output field, keyed by
+ * <code>type.field</code>. It is computed once from the
+ * {@link GraphQLTypeDescriptor}s when the schema is generated, so the cost of a
+ * query is looked up per field of the document without walking the schema.
+ *
+ * <pre>
+ * field cost   {@link GraphQLField#cost()}, {@value #DEFAULT_FIELD_COST} by default
+ * list size    value of the first INT parameter named first, last, limit, size or pageSize
+ * </pre>
+ *
+ * The root fields are keyed by
+ * {@link GraphQLExecutableSchemaBuilder#QUERY_TYPE_NAME} and
+ * {@link GraphQLExecutableSchemaBuilder#MUTATION_TYPE_NAME}.
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLQueryCostTable {
+
+    public static final int DEFAULT_FIELD_COST = 1;
+
+    /**
+     * parameter names whose value is the number of requested list elements
+     */
+    public static final Set<String> PAGINATION_PARAMETERS = Set.of("first", "last", "limit", "size", "pageSize");
+
+    private final Map<String, FieldCost> fields;
+
+    private GraphQLQueryCostTable(Map<String, FieldCost> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @param types every type of the schema, inputs and enums are skipped
+     */
+    public static GraphQLQueryCostTable of(List<GraphQLTypeDescriptor> types) {
+        Map<String, FieldCost> fields = new HashMap<>();
+        for (GraphQLTypeDescriptor type : types) {
+            String typeName;
+            switch (type.getSchemaType()) {
+            case QUERY:
+                typeName = GraphQLExecutableSchemaBuilder.QUERY_TYPE_NAME;
+                break;
+            case MUTATION:
+                typeName = GraphQLExecutableSchemaBuilder.MUTATION_TYPE_NAME;
+                break;
+            case INPUT:
+            case ENUM:
+                continue;
+            default:
+                typeName = type.getOperationName();
+                break;
+            }
+            for (GraphQLFieldDescriptor field : type.getFields()) {
+                fields.put(key(typeName, field.getName()), new FieldCost(field));
+            }
+        }
+        return new GraphQLQueryCostTable(fields);
+    }
+
+    /**
+     * @return cost of the field or <code>null</code> when the type has no such
+     *         field
+     */
+    public FieldCost get(String typeName, String fieldName) {
+        return this.fields.get(key(typeName, fieldName));
+    }
+
+    public int size() {
+        return this.fields.size();
+    }
+
+    private static String key(String typeName, String fieldName) {
+        return typeName + '.' + fieldName;
+    }
+
+    /**
+     * precomputed cost of one field
+     */
+    public static final class FieldCost {
+
+        private final int cost;
+
+        private final boolean isList;
+
+        private final String typeName;
+
+        private final String paginationParameter;
+
+        private FieldCost(GraphQLFieldDescriptor field) {
+            this.cost = field.getCost();
+            this.isList = field.getFieldType() == FieldType.LIST;
+            this.typeName = field.getTypeName();
+            String pagination = null;
+            for (GraphQLParameterDescriptor parameter : field.getParameters()) {
+                if (parameter.getParamType() == FieldType.INT && PAGINATION_PARAMETERS.contains(parameter.getName())) {
+                    pagination = parameter.getName();
+                    break;
+                }
+            }
+            this.paginationParameter = pagination;
+        }
+
+        public int getCost() {
+            return this.cost;
+        }
+
+        public boolean isList() {
+            return this.isList;
+        }
+
+        /**
+         * @return type of the selections of the field, the element type of a list
+         */
+        public String getTypeName() {
+            return this.typeName;
+        }
+
+        /**
+         * @return parameter which limits the size of the list or <code>null</code>
+         */
+        public String getPaginationParameter() {
+            return this.paginationParameter;
+        }
+    }
+}
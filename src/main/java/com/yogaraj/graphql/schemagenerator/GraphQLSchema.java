@@ -25,9 +25,31 @@ public @interface GraphQLSchema {
         }
     };
 
+    /**
+     * who may cache a response, see {@link GraphQLCacheControlInstrumentation}
+     */
+    public enum CacheScope {
+        PUBLIC, PRIVATE
+    }
+
     Class<?> baseSchemaClassRef() default Class.class;
 
     SchemaType schemaType() default SchemaType.OBJECT;
 
     String operationName();
+
+    /**
+     * table the rows of this type are selected from by
+     * {@link GraphQLJdbcDataFetcher}, e.g. "public.doc"
+     */
+    String table() default "";
+
+    /**
+     * seconds the values of fields of this type may be cached, e.g. for
+     * reference data, {@link GraphQLField#maxAge()} of a field takes precedence.
+     * <code>-1</code> declares no hint.
+     */
+    int maxAge() default -1;
+
+    CacheScope cacheScope() default CacheScope.PUBLIC;
 }
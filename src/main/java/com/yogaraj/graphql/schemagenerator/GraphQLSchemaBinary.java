@@ -0,0 +1,425 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.CacheScope;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+/**
+ * Compact binary form of the resolved types of a schema, written once by the
+ * generator and loaded by every node which serves the schema. Loading reads
+ * fixed size records from a memory mapped file instead of scanning classes or
+ * parsing schema text.
+ *
+ * <pre>
+ * header      magic "GQLB", version, number of strings, types, fields, parameters and references
+ * strings     end offset of every string, then the UTF-8 bytes of all strings
+ * types       class, schema type, operation name, implements, table, max age, cache scope, first field, fields,
+ *             first reference, references
+ * fields      name, field type, type name, nullable, column, cost, batch loader, batch key, max age, cache scope,
+ *             first parameter, parameters
+ * parameters  name, parameter type, type name, nullable, column, cache key
+ * references  string of every referenced class name
+ * checksum    CRC-32 of everything before it
+ * </pre>
+ *
+ * Strings are stored once and referred to by index, <code>-1</code> stands for
+ * <code>null</code>. A string is only decoded when a record which uses it is
+ * read, every other byte stays in the mapped file.
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * try (OutputStream out = Files.newOutputStream(file)) {
+ *     generator.generateBinarySchema(out, "com.yogaraj.graphql.dto");
+ * }
+ * GraphQLSchemaBinary schemaBinary = GraphQLSchemaBinary.open(file);
+ * String schema = schemaBinary.renderSchema();
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLSchemaBinary {
+
+    private static final int MAGIC = 0x47514c42; // "GQLB"
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = Integer.BYTES * 7;
+
+    private static final int TYPE_RECORD_SIZE = Integer.BYTES * 9 + 2;
+
+    private static final int FIELD_RECORD_SIZE = Integer.BYTES * 9 + 3;
+
+    private static final int PARAMETER_RECORD_SIZE = Integer.BYTES * 3 + 3;
+
+    private static final int NONE = -1;
+
+    private static final SchemaType[] SCHEMA_TYPES = SchemaType.values();
+
+    private static final FieldType[] FIELD_TYPES = FieldType.values();
+
+    private static final CacheScope[] CACHE_SCOPES = CacheScope.values();
+
+    private final ByteBuffer buffer;
+
+    private final String[] strings;
+
+    private final int stringOffsetsStart;
+
+    private final int stringsStart;
+
+    private final int typesStart;
+
+    private final int typeCount;
+
+    private final int fieldsStart;
+
+    private final int parametersStart;
+
+    private final int referencesStart;
+
+    private GraphQLSchemaBinary(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE + Long.BYTES || buffer.getInt(0) != MAGIC
+                || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("not a binary schema");
+        }
+        int checksumPosition = buffer.limit() - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(checksumPosition));
+        if (crc.getValue() != buffer.getLong(checksumPosition)) {
+            throw new IOException("checksum mismatch");
+        }
+
+        this.buffer = buffer;
+        int stringCount = buffer.getInt(Integer.BYTES * 2);
+        this.typeCount = buffer.getInt(Integer.BYTES * 3);
+        int fieldCount = buffer.getInt(Integer.BYTES * 4);
+        int parameterCount = buffer.getInt(Integer.BYTES * 5);
+        this.strings = new String[stringCount];
+        this.stringOffsetsStart = HEADER_SIZE;
+        this.stringsStart = this.stringOffsetsStart + Integer.BYTES * stringCount;
+        this.typesStart = this.stringsStart
+                + (stringCount == 0 ? 0 : buffer.getInt(this.stringOffsetsStart + Integer.BYTES * (stringCount - 1)));
+        this.fieldsStart = this.typesStart + TYPE_RECORD_SIZE * this.typeCount;
+        this.parametersStart = this.fieldsStart + FIELD_RECORD_SIZE * fieldCount;
+        this.referencesStart = this.parametersStart + PARAMETER_RECORD_SIZE * parameterCount;
+        int referenceCount = buffer.getInt(Integer.BYTES * 6);
+        if (this.referencesStart + Integer.BYTES * referenceCount != checksumPosition) {
+            throw new IOException("sections do not match the header");
+        }
+    }
+
+    /**
+     * maps a binary schema file, the file is not read until the types are
+     *
+     * @throws IOException when the file can not be read or is no valid binary
+     *                     schema
+     */
+    public static GraphQLSchemaBinary open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param buffer binary schema, e.g. a mapped file or a classpath resource
+     * @throws IOException when the buffer is no valid binary schema
+     */
+    public static GraphQLSchemaBinary read(ByteBuffer buffer) throws IOException {
+        try {
+            return new GraphQLSchemaBinary(buffer.slice());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("damaged binary schema", e);
+        }
+    }
+
+    /**
+     * @param types types of one schema in the order they are rendered
+     * @param out   stream the binary schema is written to, it is not closed
+     * @throws IOException when the stream fails
+     */
+    public static void write(List<GraphQLTypeDescriptor> types, OutputStream out) throws IOException {
+        StringTable stringTable = new StringTable();
+        int fieldCount = 0;
+        int parameterCount = 0;
+        int referenceCount = 0;
+        for (GraphQLTypeDescriptor type : types) {
+            stringTable.add(type.getClassName(), type.getOperationName(), type.getImplementsName(),
+                    type.getTableName());
+            for (GraphQLFieldDescriptor field : type.getFields()) {
+                stringTable.add(field.getName(), field.getTypeName(), field.getColumnName(),
+                        field.getBatchLoaderName(), field.getBatchKeyName());
+                for (GraphQLParameterDescriptor parameter : field.getParameters()) {
+                    stringTable.add(parameter.getName(), parameter.getTypeName(), parameter.getColumnName());
+                }
+                parameterCount += field.getParameters().size();
+            }
+            fieldCount += type.getFields().size();
+            for (String className : type.getReferencedClassNames()) {
+                stringTable.add(className);
+            }
+            referenceCount += type.getReferencedClassNames().size();
+        }
+
+        CRC32 crc = new CRC32();
+        CheckedOutputStream checkedOut = new CheckedOutputStream(new BufferedOutputStream(out), crc);
+        DataOutputStream dataOut = new DataOutputStream(checkedOut);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(VERSION);
+        dataOut.writeInt(stringTable.strings.size());
+        dataOut.writeInt(types.size());
+        dataOut.writeInt(fieldCount);
+        dataOut.writeInt(parameterCount);
+        dataOut.writeInt(referenceCount);
+        stringTable.write(dataOut);
+
+        int firstField = 0;
+        int firstReference = 0;
+        for (GraphQLTypeDescriptor type : types) {
+            dataOut.writeInt(stringTable.indexOf(type.getClassName()));
+            dataOut.writeByte(type.getSchemaType().ordinal());
+            dataOut.writeInt(stringTable.indexOf(type.getOperationName()));
+            dataOut.writeInt(stringTable.indexOf(type.getImplementsName()));
+            dataOut.writeInt(stringTable.indexOf(type.getTableName()));
+            dataOut.writeInt(type.getMaxAge());
+            dataOut.writeByte(type.getCacheScope().ordinal());
+            dataOut.writeInt(firstField);
+            dataOut.writeInt(type.getFields().size());
+            dataOut.writeInt(firstReference);
+            dataOut.writeInt(type.getReferencedClassNames().size());
+            firstField += type.getFields().size();
+            firstReference += type.getReferencedClassNames().size();
+        }
+        int firstParameter = 0;
+        for (GraphQLTypeDescriptor type : types) {
+            for (GraphQLFieldDescriptor field : type.getFields()) {
+                dataOut.writeInt(stringTable.indexOf(field.getName()));
+                dataOut.writeByte(field.getFieldType().ordinal());
+                dataOut.writeInt(stringTable.indexOf(field.getTypeName()));
+                dataOut.writeBoolean(field.isNullable());
+                dataOut.writeInt(stringTable.indexOf(field.getColumnName()));
+                dataOut.writeInt(field.getCost());
+                dataOut.writeInt(stringTable.indexOf(field.getBatchLoaderName()));
+                dataOut.writeInt(stringTable.indexOf(field.getBatchKeyName()));
+                dataOut.writeInt(field.getMaxAge());
+                dataOut.writeByte(field.getCacheScope().ordinal());
+                dataOut.writeInt(firstParameter);
+                dataOut.writeInt(field.getParameters().size());
+                firstParameter += field.getParameters().size();
+            }
+        }
+        for (GraphQLTypeDescriptor type : types) {
+            for (GraphQLFieldDescriptor field : type.getFields()) {
+                for (GraphQLParameterDescriptor parameter : field.getParameters()) {
+                    dataOut.writeInt(stringTable.indexOf(parameter.getName()));
+                    dataOut.writeByte(parameter.getParamType().ordinal());
+                    dataOut.writeInt(stringTable.indexOf(parameter.getTypeName()));
+                    dataOut.writeBoolean(parameter.isNullable());
+                    dataOut.writeInt(stringTable.indexOf(parameter.getColumnName()));
+                    dataOut.writeBoolean(parameter.isCacheKey());
+                }
+            }
+        }
+        for (GraphQLTypeDescriptor type : types) {
+            for (String className : type.getReferencedClassNames()) {
+                dataOut.writeInt(stringTable.indexOf(className));
+            }
+        }
+        dataOut.flush();
+        dataOut.writeLong(crc.getValue());
+        dataOut.flush();
+    }
+
+    public int getTypeCount() {
+        return this.typeCount;
+    }
+
+    /**
+     * @return descriptors of all types in the order they were written
+     */
+    public List<GraphQLTypeDescriptor> readTypes() {
+        List<GraphQLTypeDescriptor> types = new ArrayList<>(this.typeCount);
+        for (int index = 0; index < this.typeCount; index++) {
+            types.add(this.readType(index));
+        }
+        return types;
+    }
+
+    /**
+     * @return descriptor of the type record at the index
+     */
+    public GraphQLTypeDescriptor readType(int index) {
+        int position = this.typesStart + TYPE_RECORD_SIZE * index;
+        String className = this.string(this.buffer.getInt(position));
+        SchemaType schemaType = SCHEMA_TYPES[this.buffer.get(position + Integer.BYTES)];
+        position += Integer.BYTES + 1;
+        String operationName = this.string(this.buffer.getInt(position));
+        String implementsName = this.string(this.buffer.getInt(position + Integer.BYTES));
+        String tableName = this.string(this.buffer.getInt(position + Integer.BYTES * 2));
+        int maxAge = this.buffer.getInt(position + Integer.BYTES * 3);
+        CacheScope cacheScope = CACHE_SCOPES[this.buffer.get(position + Integer.BYTES * 4)];
+        position += Integer.BYTES * 4 + 1;
+        int firstField = this.buffer.getInt(position);
+        int fieldCount = this.buffer.getInt(position + Integer.BYTES);
+        int firstReference = this.buffer.getInt(position + Integer.BYTES * 2);
+        int referenceCount = this.buffer.getInt(position + Integer.BYTES * 3);
+
+        List<GraphQLFieldDescriptor> fields = new ArrayList<>(fieldCount);
+        for (int field = firstField; field < firstField + fieldCount; field++) {
+            fields.add(this.readField(field));
+        }
+        Set<String> references = new LinkedHashSet<>();
+        for (int reference = firstReference; reference < firstReference + referenceCount; reference++) {
+            references.add(this.string(this.buffer.getInt(this.referencesStart + Integer.BYTES * reference)));
+        }
+        return new GraphQLTypeDescriptor(className, schemaType, operationName, implementsName, fields, references,
+                tableName, maxAge, cacheScope);
+    }
+
+    private GraphQLFieldDescriptor readField(int index) {
+        int position = this.fieldsStart + FIELD_RECORD_SIZE * index;
+        String name = this.string(this.buffer.getInt(position));
+        FieldType fieldType = FIELD_TYPES[this.buffer.get(position + Integer.BYTES)];
+        position += Integer.BYTES + 1;
+        String typeName = this.string(this.buffer.getInt(position));
+        boolean isNullable = this.buffer.get(position + Integer.BYTES) != 0;
+        position += Integer.BYTES + 1;
+        String columnName = this.string(this.buffer.getInt(position));
+        int cost = this.buffer.getInt(position + Integer.BYTES);
+        String batchLoaderName = this.string(this.buffer.getInt(position + Integer.BYTES * 2));
+        String batchKeyName = this.string(this.buffer.getInt(position + Integer.BYTES * 3));
+        int maxAge = this.buffer.getInt(position + Integer.BYTES * 4);
+        CacheScope cacheScope = CACHE_SCOPES[this.buffer.get(position + Integer.BYTES * 5)];
+        position += Integer.BYTES * 5 + 1;
+        int firstParameter = this.buffer.getInt(position);
+        int parameterCount = this.buffer.getInt(position + Integer.BYTES);
+
+        List<GraphQLParameterDescriptor> parameters = parameterCount == 0 ? Collections.emptyList()
+                : new ArrayList<>(parameterCount);
+        for (int parameter = firstParameter; parameter < firstParameter + parameterCount; parameter++) {
+            parameters.add(this.readParameter(parameter));
+        }
+        return new GraphQLFieldDescriptor(name, fieldType, typeName, isNullable, parameters, columnName, cost,
+                batchLoaderName, batchKeyName, maxAge, cacheScope);
+    }
+
+    private GraphQLParameterDescriptor readParameter(int index) {
+        int position = this.parametersStart + PARAMETER_RECORD_SIZE * index;
+        String name = this.string(this.buffer.getInt(position));
+        FieldType paramType = FIELD_TYPES[this.buffer.get(position + Integer.BYTES)];
+        position += Integer.BYTES + 1;
+        String typeName = this.string(this.buffer.getInt(position));
+        boolean isNullable = this.buffer.get(position + Integer.BYTES) != 0;
+        String columnName = this.string(this.buffer.getInt(position + Integer.BYTES + 1));
+        boolean isCacheKey = this.buffer.get(position + Integer.BYTES * 2 + 1) != 0;
+        return new GraphQLParameterDescriptor(name, paramType, typeName, isNullable, columnName, isCacheKey);
+    }
+
+    /**
+     * decodes a string once, later records which use it get the same instance
+     */
+    private String string(int index) {
+        if (index == NONE) {
+            return null;
+        }
+        String string = this.strings[index];
+        if (string == null) {
+            int start = index == 0 ? 0 : this.buffer.getInt(this.stringOffsetsStart + Integer.BYTES * (index - 1));
+            int end = this.buffer.getInt(this.stringOffsetsStart + Integer.BYTES * index);
+            byte[] bytes = new byte[end - start];
+            this.buffer.duplicate().position(this.stringsStart + start).get(bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+            this.strings[index] = string;
+        }
+        return string;
+    }
+
+    /**
+     * @return schema text, the same as {@link GraphQlSchemaGenerator#getSchema()}
+     *         of the generation the binary schema was written from
+     */
+    public String renderSchema() {
+        GraphQLSchemaWriter schemaWriter = new GraphQLSchemaWriter();
+        StringBuilder schemaBuilder = new StringBuilder();
+        try {
+            for (int index = 0; index < this.typeCount; index++) {
+                schemaWriter.write(this.readType(index), schemaBuilder);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return schemaBuilder.toString();
+    }
+
+    /**
+     * @param schemaBuilder {@link GraphQLExecutableSchemaBuilder} with the data
+     *                      fetchers of the schema
+     * @return executable schema of the types
+     */
+    public graphql.schema.GraphQLSchema buildExecutableSchema(GraphQLExecutableSchemaBuilder schemaBuilder) {
+        for (int index = 0; index < this.typeCount; index++) {
+            schemaBuilder.type(this.readType(index));
+        }
+        return schemaBuilder.build();
+    }
+
+    /**
+     * distinct strings in the order they are first used
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private final List<String> strings = new ArrayList<>();
+
+        private void add(String... values) {
+            for (String value : values) {
+                if (value != null && !this.indexes.containsKey(value)) {
+                    this.indexes.put(value, this.strings.size());
+                    this.strings.add(value);
+                }
+            }
+        }
+
+        private int indexOf(String value) {
+            return value == null ? NONE : this.indexes.get(value);
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            List<byte[]> encoded = new ArrayList<>(this.strings.size());
+            int end = 0;
+            for (String string : this.strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                end += bytes.length;
+                out.writeInt(end);
+            }
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarEntry;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Persists a generated schema in a local file, keyed by a fingerprint of the
+ * class files of the scanned packages. When an application restarts on the
+ * same classpath {@link GraphQlSchemaGenerator#generateSchema(String...)} reads
+ * the schema back instead of scanning and reading the classes again.
+ *
+ * <p>
+ * The fingerprint only lists the class files, no class is read or loaded: the
+ * size and modification time of class files in directories, and the size and
+ * checksum which the jar directory records for class files in jars. Schema
+ * classes outside of the scanned packages, e.g. a
+ * {@link GraphQLSchema#baseSchemaClassRef()} in another package, are not part
+ * of the fingerprint. The class files of the generator itself are part of it,
+ * so a schema is generated again after the generator changed.
+ * </p>
+ *
+ * <p>
+ * The file is written to a temporary file and moved over the old one, and its
+ * content is verified with a checksum before it is used, so a crash while
+ * writing or a damaged file is only a cache miss. The file also lists the
+ * class files of its fingerprint, a miss logs which of them changed.
+ * </p>
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * GraphQlSchemaGenerator graphQlSchemaGenerator = new GraphQlSchemaGenerator();
+ * graphQlSchemaGenerator.setSchemaCache(new GraphQLSchemaCache(Paths.get("target/schema.cache")));
+ * graphQlSchemaGenerator.generateSchema("com.yogaraj.graphql.dto");
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * @author Yogaraj
+ */
+public class GraphQLSchemaCache {
+
+    private static final int MAGIC = 0x47514c43; // "GQLC"
+
+    private static final int VERSION = 2;
+
+    /**
+     * classes whose code decides how a schema is rendered
+     */
+    private static final Class<?>[] GENERATOR_CLASSES = { GraphQlSchemaGenerator.class,
+            GraphQLSchemaClassReader.class, GraphQLSchemaWriter.class, GraphQLSchemaSymbolTable.class,
+            GraphQLSchemaPruner.class, GraphQLTypeDescriptor.class, GraphQLFieldDescriptor.class,
+            GraphQLParameterDescriptor.class, GraphQLSchema.class, GraphQLField.class, GraphQLFieldParameter.class };
+
+    private static volatile byte[] generatorDigest;
+
+    private final Path cacheFile;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private Logger logger = Logger.getLogger(GraphQLSchemaCache.class.getSimpleName());
+
+    /**
+     * @param cacheFile file which holds the cached schema, it is created when
+     *                  the first schema is stored
+     */
+    public GraphQLSchemaCache(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * lists the class files of the packages
+     *
+     * @param classLoader {@link ClassLoader} which the packages are scanned with
+     * @param packages
+     * @throws IOException when the classpath can not be listed
+     */
+    public Fingerprint fingerprint(ClassLoader classLoader, String... packages) throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+        MessageDigest digest = newDigest();
+        digest.update(generatorDigest());
+        List<ClassFile> classFiles = new ArrayList<>();
+
+        for (String sPackage : packages) {
+            digest.update(sPackage.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+
+            List<ClassFile> packageClassFiles = new ArrayList<>();
+            for (Resource resource : resolver.getResources(PathMatchingResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX
+                    + ClassUtils.convertClassNameToResourcePath(sPackage) + "/**/*.class")) {
+                packageClassFiles.add(describe(resource));
+            }
+            // resource order depends on the file system
+            packageClassFiles.sort(Comparator.comparing(ClassFile::getLocation));
+
+            for (ClassFile classFile : packageClassFiles) {
+                digest.update(classFile.location.getBytes(StandardCharsets.UTF_8));
+                digest.update(longBytes(classFile.size));
+                digest.update(longBytes(classFile.stamp));
+            }
+            classFiles.addAll(packageClassFiles);
+        }
+        return new Fingerprint(digest.digest(), classFiles);
+    }
+
+    /**
+     * @return digest of the class files of {@link #GENERATOR_CLASSES}, computed
+     *         once
+     */
+    private static byte[] generatorDigest() throws IOException {
+        byte[] digest = generatorDigest;
+        if (digest == null) {
+            MessageDigest generatorClassesDigest = newDigest();
+            for (Class<?> generatorClass : GENERATOR_CLASSES) {
+                try (InputStream in = generatorClass
+                        .getResourceAsStream(ClassUtils.getClassFileName(generatorClass))) {
+                    if (in == null) {
+                        throw new IOException("class file of " + generatorClass.getName() + " is missing");
+                    }
+                    generatorClassesDigest.update(in.readAllBytes());
+                }
+            }
+            digest = generatorClassesDigest.digest();
+            generatorDigest = digest;
+        }
+        return digest;
+    }
+
+    private static ClassFile describe(Resource resource) throws IOException {
+        URL url = resource.getURL();
+        URLConnection connection = url.openConnection();
+        if (connection instanceof JarURLConnection) {
+            // the jar directory already knows the checksum of every entry
+            JarEntry entry = ((JarURLConnection) connection).getJarEntry();
+            return new ClassFile(url.toString(), entry.getSize(), entry.getCrc());
+        }
+        return new ClassFile(url.toString(), resource.contentLength(), resource.lastModified());
+    }
+
+    /**
+     * reads the cached schema
+     *
+     * @param fingerprint {@link Fingerprint} of the current classpath
+     * @return <code>null</code> when nothing is cached for the fingerprint or the
+     *         file is damaged
+     */
+    public Entry load(Fingerprint fingerprint) {
+        try (FileChannel channel = FileChannel.open(this.cacheFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Entry entry = read(buffer, fingerprint);
+            if (entry == null) {
+                this.missCount.incrementAndGet();
+                this.printLogMessage("CACHE MISS: " + describeChanges(buffer, fingerprint));
+                return null;
+            }
+            this.hitCount.incrementAndGet();
+            this.printLogMessage("CACHE HIT: " + this.cacheFile + " (" + fingerprint.getClassFiles().size()
+                    + " class files)");
+            return entry;
+        } catch (NoSuchFileException e) {
+            this.missCount.incrementAndGet();
+            this.printLogMessage("CACHE MISS: " + this.cacheFile + " does not exist");
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            this.missCount.incrementAndGet();
+            this.printLogMessage("CACHE MISS: " + this.cacheFile + " could not be read: " + e);
+        }
+        return null;
+    }
+
+    /**
+     * @return the entry or <code>null</code> when the digest differs, the
+     *         buffer is then positioned after the digest
+     */
+    private static Entry read(ByteBuffer buffer, Fingerprint fingerprint) throws IOException {
+        if (buffer.remaining() < Integer.BYTES * 2 + Long.BYTES || buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION) {
+            throw new IOException("not a schema cache file");
+        }
+        // the checksum at the end covers everything before it
+        int checksumPosition = buffer.limit() - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(checksumPosition));
+        if (crc.getValue() != buffer.getLong(checksumPosition)) {
+            throw new IOException("checksum mismatch");
+        }
+
+        byte[] digest = new byte[buffer.getInt()];
+        buffer.get(digest);
+        if (!Arrays.equals(digest, fingerprint.digest)) {
+            return null;
+        }
+
+        byte[] schema = new byte[buffer.getInt()];
+        buffer.get(schema);
+        List<String> prunedClassNames = new ArrayList<>();
+        for (int count = buffer.getInt(); count > 0; count--) {
+            byte[] prunedClassName = new byte[buffer.getInt()];
+            buffer.get(prunedClassName);
+            prunedClassNames.add(new String(prunedClassName, StandardCharsets.UTF_8));
+        }
+        return new Entry(new String(schema, StandardCharsets.UTF_8), prunedClassNames);
+    }
+
+    /**
+     * compares the class files which are stored after the schema and the pruned
+     * class names with the class files of the fingerprint
+     *
+     * @param buffer buffer positioned after the digest
+     */
+    private static String describeChanges(ByteBuffer buffer, Fingerprint fingerprint) throws IOException {
+        int schemaLength = buffer.getInt();
+        buffer.position(buffer.position() + schemaLength);
+        for (int count = buffer.getInt(); count > 0; count--) {
+            int prunedClassNameLength = buffer.getInt();
+            buffer.position(buffer.position() + prunedClassNameLength);
+        }
+        byte[] metadata = new byte[buffer.limit() - Long.BYTES - buffer.position()];
+        buffer.get(metadata);
+        Map<String, ClassFile> storedClassFiles = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(metadata))) {
+            for (int count = in.readInt(); count > 0; count--) {
+                ClassFile classFile = new ClassFile(in.readUTF(), in.readLong(), in.readLong());
+                storedClassFiles.put(classFile.location, classFile);
+            }
+        }
+
+        int changed = 0;
+        int added = 0;
+        String example = null;
+        for (ClassFile classFile : fingerprint.classFiles) {
+            ClassFile storedClassFile = storedClassFiles.remove(classFile.location);
+            if (storedClassFile == null) {
+                added++;
+            } else if (storedClassFile.size != classFile.size || storedClassFile.stamp != classFile.stamp) {
+                changed++;
+            } else {
+                continue;
+            }
+            example = example == null ? classFile.location : example;
+        }
+        if (changed + added + storedClassFiles.size() == 0) {
+            return "class files are unchanged, the schema was generated by another generator or with other options";
+        }
+        if (example == null) {
+            example = storedClassFiles.keySet().iterator().next();
+        }
+        return changed + " class files changed, " + added + " added, " + storedClassFiles.size() + " removed, e.g. "
+                + example;
+    }
+
+    /**
+     * replaces the cached schema
+     *
+     * @param fingerprint      {@link Fingerprint} the schema was generated for
+     * @param schema
+     * @param prunedClassNames class names of the types which the schema left out
+     * @throws IOException when the file can not be written
+     */
+    public void store(Fingerprint fingerprint, String schema, List<String> prunedClassNames) throws IOException {
+        Path directory = this.cacheFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, this.cacheFile.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream fileOut = Files.newOutputStream(tempFile);
+                    CheckedOutputStream checkedOut = new CheckedOutputStream(new BufferedOutputStream(fileOut), crc);
+                    DataOutputStream out = new DataOutputStream(checkedOut)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(fingerprint.digest.length);
+                out.write(fingerprint.digest);
+                byte[] schemaBytes = schema.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(schemaBytes.length);
+                out.write(schemaBytes);
+                out.writeInt(prunedClassNames.size());
+                for (String prunedClassName : prunedClassNames) {
+                    byte[] prunedClassNameBytes = prunedClassName.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(prunedClassNameBytes.length);
+                    out.write(prunedClassNameBytes);
+                }
+                // per class metadata, read on a miss to tell which class files changed
+                out.writeInt(fingerprint.classFiles.size());
+                for (ClassFile classFile : fingerprint.classFiles) {
+                    out.writeUTF(classFile.location);
+                    out.writeLong(classFile.size);
+                    out.writeLong(classFile.stamp);
+                }
+                out.flush();
+                out.writeLong(crc.getValue());
+                out.flush();
+                fileOut.flush();
+            }
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tempFile, this.cacheFile, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        this.printLogMessage("CACHE STORE: " + this.cacheFile);
+    }
+
+    public Path getCacheFile() {
+        return this.cacheFile;
+    }
+
+    /**
+     * @return number of {@link GraphQLSchemaCache#load(Fingerprint)} calls which
+     *         returned a schema
+     */
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    /**
+     * @return number of {@link GraphQLSchemaCache#load(Fingerprint)} calls which
+     *         returned <code>null</code>
+     */
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] longBytes(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    private void printLogMessage(String message) {
+        this.logger.info(message);
+    }
+
+    /**
+     * schema and pruned class names of one cached generation
+     */
+    public static final class Entry {
+
+        private final String schema;
+
+        private final List<String> prunedClassNames;
+
+        private Entry(String schema, List<String> prunedClassNames) {
+            this.schema = schema;
+            this.prunedClassNames = Collections.unmodifiableList(prunedClassNames);
+        }
+
+        public String getSchema() {
+            return this.schema;
+        }
+
+        /**
+         * @return class names of the types which the pruned schema left out,
+         *         empty when the schema was not pruned
+         */
+        public List<String> getPrunedClassNames() {
+            return this.prunedClassNames;
+        }
+    }
+
+    /**
+     * class files of the scanned packages and their digest
+     */
+    public static final class Fingerprint {
+
+        private final byte[] digest;
+
+        private final List<ClassFile> classFiles;
+
+        private Fingerprint(byte[] digest, List<ClassFile> classFiles) {
+            this.digest = digest;
+            this.classFiles = Collections.unmodifiableList(classFiles);
+        }
+
+        public List<ClassFile> getClassFiles() {
+            return this.classFiles;
+        }
+
+        /**
+         * @return fingerprint of the same class files for a schema which is
+         *         generated with an option, e.g. pruning
+         */
+        public Fingerprint withOption(String option) {
+            MessageDigest optionDigest = newDigest();
+            optionDigest.update(this.digest);
+            optionDigest.update(option.getBytes(StandardCharsets.UTF_8));
+            return new Fingerprint(optionDigest.digest(), this.classFiles);
+        }
+    }
+
+    /**
+     * location, size and modification time or checksum of one class file
+     */
+    public static final class ClassFile {
+
+        private final String location;
+
+        private final long size;
+
+        private final long stamp;
+
+        private ClassFile(String location, long size, long stamp) {
+            this.location = location;
+            this.size = size;
+            this.stamp = stamp;
+        }
+
+        public String getLocation() {
+            return this.location;
+        }
+
+        public long getSize() {
+            return this.size;
+        }
+
+        /**
+         * @return modification time of a class file in a directory or the CRC-32
+         *         of a class file in a jar
+         */
+        public long getStamp() {
+            return this.stamp;
+        }
+    }
+}
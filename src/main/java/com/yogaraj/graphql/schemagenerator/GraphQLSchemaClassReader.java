@@ -0,0 +1,640 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.CacheScope;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchemaSymbolTable.Symbol;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.FieldVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Builds {@link GraphQLTypeDescriptor}s straight from class files. The
+ * annotations, public fields and enum constants are read with ASM, so the
+ * schema classes are never loaded nor initialized and their static
+ * initializers do not run.
+ *
+ * <p>
+ * Every class file is parsed once per reader, the classes which are found by
+ * {@link GraphQLSchemaClassReader#findSchemaClassNames(String...)} are not
+ * read again when their descriptors are built. A reader may be used from
+ * multiple threads.
+ * </p>
+ *
+ * <p>
+ * The parsed annotations and fields are immutable and shared by all readers,
+ * keyed by the class name and a CRC32C of the class file. Repeated
+ * generations, e.g. of tests, tenants or reloads, only checksum the class
+ * files and resolve the type references again, a recompiled class is parsed
+ * again. The key holds no class nor class loader.
+ * </p>
+ *
+ * The candidates are the same as the ones which Spring's
+ * {@link org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider}
+ * finds with an annotation filter for {@link GraphQLSchema}.
+ *
+ * @author Yogaraj
+ */
+public class GraphQLSchemaClassReader {
+
+    private static final String SCHEMA_DESCRIPTOR = Type.getDescriptor(GraphQLSchema.class);
+
+    private static final String FIELD_DESCRIPTOR = Type.getDescriptor(GraphQLField.class);
+
+    private static final int PARSING_OPTIONS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG
+            | ClassReader.SKIP_FRAMES;
+
+    private static final int CLASS_FILE_CACHE_SIZE = 100_000;
+
+    private static final Cache<String, ClassFile> CLASS_FILES = Caffeine.newBuilder()
+            .maximumSize(CLASS_FILE_CACHE_SIZE).recordStats().build();
+
+    private final ClassLoader classLoader;
+
+    private final PathMatchingResourcePatternResolver resolver;
+
+    private final Map<String, ClassFile> classFiles = new ConcurrentHashMap<>();
+
+    private final GraphQLSchemaMetrics metrics;
+
+    private final GraphQLSchemaSymbolTable symbolTable = new GraphQLSchemaSymbolTable();
+
+    private Logger logger = Logger.getLogger(GraphQLSchemaClassReader.class.getSimpleName());
+
+    /**
+     * @param classLoader {@link ClassLoader} the class files are read from
+     */
+    public GraphQLSchemaClassReader(ClassLoader classLoader) {
+        this(classLoader, GraphQLSchemaMetrics.NONE);
+    }
+
+    /**
+     * @param classLoader {@link ClassLoader} the class files are read from
+     * @param metrics     counts the ignored and invalid annotations
+     */
+    public GraphQLSchemaClassReader(ClassLoader classLoader, GraphQLSchemaMetrics metrics) {
+        this.classLoader = classLoader;
+        this.resolver = new PathMatchingResourcePatternResolver(classLoader);
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return type names of the classes which this reader resolved so far
+     */
+    public GraphQLSchemaSymbolTable getSymbolTable() {
+        return this.symbolTable;
+    }
+
+    /**
+     * scans the packages for independent, concrete classes which are annotated by
+     * {@link GraphQLSchema}
+     *
+     * @param packages
+     * @return class names in package order, ordered by class name with in a
+     *         package
+     */
+    public List<String> findSchemaClassNames(String... packages) {
+        List<String> classNames = new ArrayList<>();
+        for (String sPackage : packages) {
+            Set<String> packageClassNames = new TreeSet<>();
+            try {
+                for (Resource resource : this.resolver.getResources(
+                        PathMatchingResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX
+                                + ClassUtils.convertClassNameToResourcePath(sPackage) + "/**/*.class")) {
+                    ClassFile classFile;
+                    try (InputStream in = resource.getInputStream()) {
+                        classFile = this.parse(in);
+                    }
+                    this.classFiles.putIfAbsent(classFile.name, classFile);
+                    if (classFile.isCandidate()) {
+                        packageClassNames.add(classFile.name);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to scan package " + sPackage, e);
+            }
+            classNames.addAll(packageClassNames);
+        }
+        return classNames;
+    }
+
+    /**
+     * resolves the annotations of a class file into a
+     * {@link GraphQLTypeDescriptor}
+     *
+     * @param className binary name of the class
+     * @return <code>null</code> when the class is not annotated
+     * @throws ClassNotFoundException when there is no class file for the class or
+     *                                one of its super types
+     */
+    public GraphQLTypeDescriptor buildTypeDescriptor(String className) throws ClassNotFoundException {
+        ClassFile classFile = this.read(className);
+        AnnotationValues sGraphQLSchema = classFile.schema;
+        if (this.resolveSymbol(className) == null) {
+            this.ignore(() -> "IGNORING: Class " + className + " should be annotated");
+            return null;
+        }
+        Set<String> references = new HashSet<>();
+        String implementsName = this.resolveImplementation(sGraphQLSchema, references);
+        List<GraphQLFieldDescriptor> fields = this.resolveSchemaFields(classFile, sGraphQLSchema, references);
+        references.remove(className);
+        return new GraphQLTypeDescriptor(className, sGraphQLSchema.getEnum("schemaType", SchemaType.class),
+                sGraphQLSchema.getString("operationName"), implementsName, fields, references,
+                emptyToNull(sGraphQLSchema.getString("table")), sGraphQLSchema.getInt("maxAge"),
+                sGraphQLSchema.getEnum("cacheScope", CacheScope.class));
+    }
+
+    private String resolveImplementation(AnnotationValues sGraphQLSchema, Set<String> references)
+            throws ClassNotFoundException {
+        if (sGraphQLSchema.getEnum("schemaType", SchemaType.class) != SchemaType.IMPLEMENTATION) {
+            return null;
+        }
+        String baseSchemaClassName = sGraphQLSchema.getClassName("baseSchemaClassRef");
+        if (baseSchemaClassName.equals(Class.class.getName())) {
+            this.reject(() -> "IGNORING: Class implementation since no class reference is provided");
+            return null;
+        }
+        Symbol baseSymbol = this.resolveSymbol(baseSchemaClassName);
+        if (baseSymbol == null) {
+            this.reject(() -> "IGNORING: Class implementation since invalid class reference is provided");
+            return null;
+        }
+        if (baseSymbol.getSchemaType() != SchemaType.OBJECT) {
+            this.reject(() -> "IGNORING: Class implementation since invalid class reference is provided"
+                    + " (Need to be of type OBJECT)");
+            return null;
+        }
+        references.add(baseSchemaClassName);
+        return baseSymbol.getTypeName();
+    }
+
+    private List<GraphQLFieldDescriptor> resolveSchemaFields(ClassFile classFile, AnnotationValues sGraphQLSchema,
+            Set<String> references) throws ClassNotFoundException {
+        Map<String, PublicField> fields = new LinkedHashMap<>();
+        this.collectPublicFields(classFile, fields);
+
+        List<GraphQLFieldDescriptor> fieldDescriptors = new ArrayList<>(fields.size());
+        for (PublicField field : fields.values()) {
+            AnnotationValues mGraphQLField = field.annotation;
+            if (mGraphQLField == null) {
+                this.ignore(() -> "IGNORING: field " + classFile.name + " should be annotated");
+                continue;
+            }
+            String key = mGraphQLField.getString("fieldName");
+            if (key.isEmpty())
+                key = field.name;
+
+            FieldType fieldType = mGraphQLField.getEnum("fieldType", FieldType.class);
+            String type = fieldType.type;
+            boolean isEnum = sGraphQLSchema.getEnum("schemaType", SchemaType.class) == SchemaType.ENUM;
+            if (!isEnum && fieldType == FieldType.OBJECT) {
+                Type javaType = Type.getType(field.descriptor);
+                String fieldClassName = javaType.getSort() == Type.OBJECT ? javaType.getClassName() : null;
+                Symbol fieldSymbol = fieldClassName == null ? null : this.resolveSymbol(fieldClassName);
+                if (fieldSymbol == null) {
+                    this.reject(() -> "IGNORING: field " + field.declaringClassName + "." + field.name
+                            + " should be of an annotated type");
+                    continue;
+                }
+                references.add(fieldClassName);
+                type = fieldSymbol.getTypeName();
+            } else if (!isEnum && fieldType == FieldType.LIST) {
+                type = this.resolveElementTypeName(elementClassName(field.descriptor, field.signature), references);
+            }
+            String batchLoader = mGraphQLField.getString("batchLoader");
+            fieldDescriptors.add(new GraphQLFieldDescriptor(key, fieldType, type, mGraphQLField.getBoolean("isNullable"),
+                    this.resolveSchemaFieldParams(mGraphQLField, references),
+                    orDefault(mGraphQLField.getString("column"), field.name), mGraphQLField.getInt("cost"),
+                    emptyToNull(batchLoader), mGraphQLField.getString("batchKey"), mGraphQLField.getInt("maxAge"),
+                    mGraphQLField.getEnum("cacheScope", CacheScope.class)));
+        }
+        return fieldDescriptors;
+    }
+
+    private List<GraphQLParameterDescriptor> resolveSchemaFieldParams(AnnotationValues mGraphQLField,
+            Set<String> references) throws ClassNotFoundException {
+        List<AnnotationValues> parameters = mGraphQLField.getAnnotations("parameters");
+        if (parameters.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<GraphQLParameterDescriptor> paramDescriptors = new ArrayList<>();
+        for (AnnotationValues gFieldParameter : parameters) {
+            String key = gFieldParameter.getString("paramName");
+            FieldType paramType = gFieldParameter.getEnum("paramType", FieldType.class);
+            String type = paramType.type;
+
+            String paramObjectClassName = gFieldParameter.getClassName("paramObjectClass");
+            if (paramType == FieldType.OBJECT) {
+                if (paramObjectClassName.equals(Class.class.getName())) {
+                    this.reject(
+                            () -> "IGNORING: param " + key + " is of type object but no class reference is provided");
+                    continue;
+                }
+                Symbol paramSymbol = this.resolveSymbol(paramObjectClassName);
+                if (paramSymbol == null) {
+                    this.reject(() -> "IGNORING: param " + paramObjectClassName + " should be annotated");
+                    continue;
+                }
+                references.add(paramObjectClassName);
+                type = paramSymbol.getTypeName();
+            } else if (paramType == FieldType.LIST && !paramObjectClassName.equals(Class.class.getName())) {
+                type = this.resolveElementTypeName(paramObjectClassName, references);
+            }
+            paramDescriptors.add(new GraphQLParameterDescriptor(key, paramType, type,
+                    gFieldParameter.getBoolean("isNullable"), orDefault(gFieldParameter.getString("column"), key),
+                    gFieldParameter.getBoolean("cacheKey")));
+        }
+        return paramDescriptors;
+    }
+
+    /**
+     * collects public fields in the order of {@link Class#getFields()}: declared
+     * fields, fields of the super interfaces and then of the super class
+     */
+    private void collectPublicFields(ClassFile classFile, Map<String, PublicField> fields)
+            throws ClassNotFoundException {
+        for (PublicField field : classFile.publicFields) {
+            fields.putIfAbsent(field.declaringClassName + '.' + field.name, field);
+        }
+        for (String superInterface : classFile.interfaces) {
+            this.collectPublicFields(this.read(superInterface), fields);
+        }
+        if (classFile.superName != null && !classFile.superName.equals(Object.class.getName())) {
+            this.collectPublicFields(this.read(classFile.superName), fields);
+        }
+    }
+
+    /**
+     * resolves a class once per reader
+     *
+     * @return <code>null</code> when the class is not annotated
+     */
+    private Symbol resolveSymbol(String className) throws ClassNotFoundException {
+        if (this.symbolTable.isDefined(className)) {
+            return this.symbolTable.get(className);
+        }
+        AnnotationValues sGraphQLSchema = this.read(className).schema;
+        return sGraphQLSchema == null ? this.symbolTable.define(className, null, null)
+                : this.symbolTable.define(className, sGraphQLSchema.getEnum("schemaType", SchemaType.class),
+                        sGraphQLSchema.getString("operationName"));
+    }
+
+    /**
+     * @param elementClassName binary name of the list element or
+     *                         <code>null</code> when it is not known
+     * @return scalar or operation name of the element, "list" when the element is
+     *         neither
+     */
+    private String resolveElementTypeName(String elementClassName, Set<String> references)
+            throws ClassNotFoundException {
+        if (elementClassName == null) {
+            return FieldType.LIST.type;
+        }
+        String scalarTypeName = GraphQLSchemaSymbolTable.scalarTypeName(elementClassName);
+        if (scalarTypeName != null) {
+            return scalarTypeName;
+        }
+        Symbol elementSymbol = this.resolveSymbol(elementClassName);
+        if (elementSymbol == null) {
+            return FieldType.LIST.type;
+        }
+        references.add(elementClassName);
+        return elementSymbol.getTypeName();
+    }
+
+    /**
+     * element of an array or of the first type argument of a generic field, e.g.
+     * <code>Ljava/util/List&lt;+Lcom/yogaraj/Doc;&gt;;</code>
+     *
+     * @return binary class name or <code>null</code> when the element is not a
+     *         class
+     */
+    private static String elementClassName(String descriptor, String signature) {
+        Type javaType = Type.getType(descriptor);
+        if (javaType.getSort() == Type.ARRAY) {
+            return javaType.getDimensions() == 1 ? javaType.getElementType().getClassName() : null;
+        }
+        int index = signature == null ? -1 : signature.indexOf('<') + 1;
+        if (index <= 0) {
+            return null;
+        }
+        if (signature.charAt(index) == '+') {
+            index++;
+        }
+        if (signature.charAt(index) != 'L') {
+            return null;
+        }
+        int end = index + 1;
+        while (signature.charAt(end) != ';' && signature.charAt(end) != '<') {
+            end++;
+        }
+        return ClassUtils.convertResourcePathToClassName(signature.substring(index + 1, end));
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String orDefault(String value, String defaultValue) {
+        return value.isEmpty() ? defaultValue : value;
+    }
+
+    private ClassFile read(String className) throws ClassNotFoundException {
+        ClassFile classFile = this.classFiles.get(className);
+        if (classFile != null) {
+            return classFile;
+        }
+        try (InputStream in = this.classLoader.getResourceAsStream(ClassUtils.convertClassNameToResourcePath(className)
+                + ClassUtils.CLASS_FILE_SUFFIX)) {
+            if (in == null) {
+                throw new ClassNotFoundException(className);
+            }
+            classFile = this.parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read class " + className, e);
+        }
+        ClassFile previous = this.classFiles.putIfAbsent(className, classFile);
+        return previous == null ? classFile : previous;
+    }
+
+    /**
+     * @return shared class file of an earlier reader when the content is the
+     *         same
+     */
+    private ClassFile parse(InputStream in) throws IOException {
+        byte[] bytecode = in.readAllBytes();
+        // only the constant pool is read to get the name
+        ClassReader classReader = new ClassReader(bytecode);
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytecode);
+        return CLASS_FILES.get(classReader.getClassName() + '@' + bytecode.length + ':' + checksum.getValue(),
+                key -> {
+                    ClassFile classFile = new ClassFile();
+                    classReader.accept(classFile, PARSING_OPTIONS);
+                    return classFile;
+                });
+    }
+
+    /**
+     * drops the shared class files, e.g. to measure cold reads
+     */
+    public static void clearClassFileCache() {
+        CLASS_FILES.invalidateAll();
+    }
+
+    /**
+     * @return hits and misses of the shared class files
+     */
+    static CacheStats classFileCacheStats() {
+        return CLASS_FILES.stats();
+    }
+
+    /**
+     * a class or field without annotation, the message is only built when debug
+     * logging is enabled
+     */
+    private void ignore(Supplier<String> message) {
+        this.metrics.ignored();
+        this.logger.fine(message);
+    }
+
+    /**
+     * an annotation with an invalid class reference
+     */
+    private void reject(Supplier<String> message) {
+        this.metrics.invalid();
+        this.logger.fine(message);
+    }
+
+    /**
+     * the parts of a class file which are needed for the schema
+     */
+    private static final class ClassFile extends ClassVisitor {
+
+        private String name;
+
+        private String superName;
+
+        private String[] interfaces;
+
+        private int access;
+
+        private boolean independent = true;
+
+        private AnnotationValues schema;
+
+        private final List<PublicField> publicFields = new ArrayList<>();
+
+        private ClassFile() {
+            super(SpringAsmInfo.ASM_VERSION);
+        }
+
+        /**
+         * mirrors the default candidate rules of
+         * {@link org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider}
+         */
+        private boolean isCandidate() {
+            return this.schema != null && this.independent
+                    && (this.access & (Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT)) == 0;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName,
+                String[] interfaces) {
+            this.name = ClassUtils.convertResourcePathToClassName(name);
+            this.superName = superName == null ? null : ClassUtils.convertResourcePathToClassName(superName);
+            this.interfaces = new String[interfaces.length];
+            for (int i = 0; i < interfaces.length; i++) {
+                this.interfaces[i] = ClassUtils.convertResourcePathToClassName(interfaces[i]);
+            }
+            this.access = access;
+        }
+
+        @Override
+        public void visitOuterClass(String owner, String name, String descriptor) {
+            // local and anonymous classes
+            this.independent = false;
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            if (outerName != null && ClassUtils.convertResourcePathToClassName(name).equals(this.name)
+                    && (access & Opcodes.ACC_STATIC) == 0) {
+                this.independent = false;
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            if (!SCHEMA_DESCRIPTOR.equals(descriptor)) {
+                return null;
+            }
+            this.schema = new AnnotationValues(GraphQLSchema.class);
+            return this.schema;
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            if ((access & Opcodes.ACC_PUBLIC) == 0 || (access & Opcodes.ACC_SYNTHETIC) != 0) {
+                return null;
+            }
+            PublicField field = new PublicField(this.name, name, descriptor, signature);
+            this.publicFields.add(field);
+            return new FieldVisitor(SpringAsmInfo.ASM_VERSION) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    if (!FIELD_DESCRIPTOR.equals(descriptor)) {
+                        return null;
+                    }
+                    field.annotation = new AnnotationValues(GraphQLField.class);
+                    return field.annotation;
+                }
+            };
+        }
+    }
+
+    private static final class PublicField {
+
+        private final String declaringClassName;
+
+        private final String name;
+
+        private final String descriptor;
+
+        private final String signature;
+
+        private AnnotationValues annotation;
+
+        private PublicField(String declaringClassName, String name, String descriptor, String signature) {
+            this.declaringClassName = declaringClassName;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.signature = signature;
+        }
+    }
+
+    /**
+     * attribute values of one annotation, attributes which are not in the class
+     * file have the default value of the annotation type. {@link Class} values
+     * are kept as class names so the classes are not loaded.
+     */
+    private static final class AnnotationValues extends AnnotationVisitor {
+
+        private static final Map<Class<?>, Map<String, Object>> DEFAULTS = new ConcurrentHashMap<>();
+
+        private final Class<?> annotationType;
+
+        private final Map<String, Object> values;
+
+        private AnnotationValues(Class<?> annotationType) {
+            super(SpringAsmInfo.ASM_VERSION);
+            this.annotationType = annotationType;
+            this.values = new HashMap<>(DEFAULTS.computeIfAbsent(annotationType, AnnotationValues::readDefaults));
+        }
+
+        private static Map<String, Object> readDefaults(Class<?> annotationType) {
+            Map<String, Object> defaults = new HashMap<>();
+            for (Method attribute : annotationType.getDeclaredMethods()) {
+                Object value = attribute.getDefaultValue();
+                if (value instanceof Class) {
+                    value = ((Class<?>) value).getName();
+                } else if (value instanceof Object[]) {
+                    // only arrays of nested annotations are used, their default is empty
+                    value = Collections.emptyList();
+                }
+                if (value != null) {
+                    defaults.put(attribute.getName(), value);
+                }
+            }
+            return defaults;
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            this.values.put(name, value instanceof Type ? ((Type) value).getClassName() : value);
+        }
+
+        @Override
+        public void visitEnum(String name, String descriptor, String value) {
+            this.values.put(name, value);
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            List<AnnotationValues> annotations = new ArrayList<>();
+            this.values.put(name, annotations);
+            return new AnnotationVisitor(SpringAsmInfo.ASM_VERSION) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String elementName, String descriptor) {
+                    AnnotationValues annotation = new AnnotationValues(elementType(name));
+                    annotations.add(annotation);
+                    return annotation;
+                }
+            };
+        }
+
+        private Class<?> elementType(String name) {
+            try {
+                return this.annotationType.getMethod(name).getReturnType().getComponentType();
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private String getString(String name) {
+            return (String) this.values.get(name);
+        }
+
+        private String getClassName(String name) {
+            return (String) this.values.get(name);
+        }
+
+        private boolean getBoolean(String name) {
+            return (Boolean) this.values.get(name);
+        }
+
+        private int getInt(String name) {
+            return (Integer) this.values.get(name);
+        }
+
+        private <E extends Enum<E>> E getEnum(String name, Class<E> enumType) {
+            Object value = this.values.get(name);
+            return enumType.isInstance(value) ? enumType.cast(value) : Enum.valueOf(enumType, (String) value);
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<AnnotationValues> getAnnotations(String name) {
+            return (List<AnnotationValues>) this.values.get(name);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Micrometer meters of the schema generation.
+ *
+ * <pre>
+ * graphql.schema.generation{phase=scan}    finding the schema classes in the packages
+ * graphql.schema.generation{phase=read}    reading the annotations from the class files
+ * graphql.schema.generation{phase=render}  rendering the schema text
+ * graphql.schema.generation{phase=total}   the whole generation
+ * graphql.schema.classes                   classes of the last generated schema
+ * graphql.schema.fields                    fields of the last generated schema
+ * graphql.schema.parameters                field parameters of the last generated schema
+ * graphql.schema.annotations{outcome=ignored}  classes and fields without annotation
+ * graphql.schema.annotations{outcome=invalid}  annotations with invalid class references
+ * graphql.schema.annotations{outcome=unreachable}  types pruned since no root reaches them
+ * </pre>
+ *
+ * With the parallel generation the read and render times are summed up over all
+ * threads. {@link #NONE} records into a registry without backends, so the
+ * generator needs no checks when no registry is set.
+ *
+ * @author Yogaraj
+ */
+public class GraphQLSchemaMetrics {
+
+    public static final GraphQLSchemaMetrics NONE = new GraphQLSchemaMetrics(new CompositeMeterRegistry());
+
+    public static final String GENERATION_TIMER = "graphql.schema.generation";
+
+    private final Timer scanTimer;
+
+    private final Timer readTimer;
+
+    private final Timer renderTimer;
+
+    private final Timer totalTimer;
+
+    private final Counter ignoredCounter;
+
+    private final Counter invalidCounter;
+
+    private final Counter unreachableCounter;
+
+    private final AtomicInteger classes = new AtomicInteger();
+
+    private final AtomicInteger fields = new AtomicInteger();
+
+    private final AtomicInteger parameters = new AtomicInteger();
+
+    public GraphQLSchemaMetrics(MeterRegistry meterRegistry) {
+        this.scanTimer = phaseTimer(meterRegistry, "scan");
+        this.readTimer = phaseTimer(meterRegistry, "read");
+        this.renderTimer = phaseTimer(meterRegistry, "render");
+        this.totalTimer = phaseTimer(meterRegistry, "total");
+        this.ignoredCounter = annotationCounter(meterRegistry, "ignored");
+        this.invalidCounter = annotationCounter(meterRegistry, "invalid");
+        this.unreachableCounter = annotationCounter(meterRegistry, "unreachable");
+        Gauge.builder("graphql.schema.classes", this.classes, AtomicInteger::get)
+                .description("classes of the last generated schema").register(meterRegistry);
+        Gauge.builder("graphql.schema.fields", this.fields, AtomicInteger::get)
+                .description("fields of the last generated schema").register(meterRegistry);
+        Gauge.builder("graphql.schema.parameters", this.parameters, AtomicInteger::get)
+                .description("field parameters of the last generated schema").register(meterRegistry);
+    }
+
+    private static Timer phaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder(GENERATION_TIMER).description("time of one phase of the schema generation")
+                .tag("phase", phase).register(meterRegistry);
+    }
+
+    private static Counter annotationCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("graphql.schema.annotations").description("annotations which are not in the schema")
+                .tag("outcome", outcome).register(meterRegistry);
+    }
+
+    public void recordScan(long nanos) {
+        this.scanTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRead(long nanos) {
+        this.readTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRender(long nanos) {
+        this.renderTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTotal(long nanos) {
+        this.totalTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * a class or field is skipped since it is not annotated
+     */
+    public void ignored() {
+        this.ignoredCounter.increment();
+    }
+
+    /**
+     * an annotation is skipped since it refers to a class which can not be used
+     */
+    public void invalid() {
+        this.invalidCounter.increment();
+    }
+
+    /**
+     * types are left out since no Query or Mutation reaches them
+     */
+    public void pruned(int typeCount) {
+        this.unreachableCounter.increment(typeCount);
+    }
+
+    /**
+     * updates the gauges with the size of the generated schema
+     */
+    public void recordSchema(List<GraphQLTypeDescriptor> types) {
+        int fieldCount = 0;
+        int parameterCount = 0;
+        for (GraphQLTypeDescriptor type : types) {
+            fieldCount += type.getFields().size();
+            for (GraphQLFieldDescriptor field : type.getFields()) {
+                parameterCount += field.getParameters().size();
+            }
+        }
+        this.recordSchema(types.size(), fieldCount, parameterCount);
+    }
+
+    /**
+     * updates the gauges with the counts of a schema whose types are not kept,
+     * e.g. a streamed schema
+     */
+    public void recordSchema(int classCount, int fieldCount, int parameterCount) {
+        this.classes.set(classCount);
+        this.fields.set(fieldCount);
+        this.parameters.set(parameterCount);
+    }
+}
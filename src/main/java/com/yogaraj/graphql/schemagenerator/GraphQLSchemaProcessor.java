@@ -0,0 +1,468 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.StandardLocation;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+/**
+ * Annotation processor which renders the graphQL schema at compile time, so
+ * {@link GraphQlSchemaGenerator#loadSchema(String...)} does not have to scan
+ * the classpath at startup.
+ *
+ * <p>
+ * The processor only runs when the packages which are passed to the generator
+ * at runtime are given as compiler option, the precompiled schema is used only
+ * when both match.
+ * </p>
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * -Agraphql.schema.packages=com.yogaraj.graphql.dto
+ * -Agraphql.schema.prune=true
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * With <code>graphql.schema.prune</code> only the types which are reachable
+ * from Query and Mutation are written, see {@link GraphQLSchemaPruner}, and the
+ * precompiled schema is only used by generators which prune as well.
+ *
+ * It writes the schema to {@value #SCHEMA_RESOURCE}, the resolved types as
+ * {@link GraphQLSchemaBinary} to {@value #BINARY_RESOURCE}, from which the
+ * executable schema is built, and a loader class
+ * {@value GraphQlSchemaGenerator#PRECOMPILED_SCHEMA_CLASS} which records the
+ * packages and the scanned classes it was built from. Only classes of the
+ * current compilation are included, so the generator falls back to scanning
+ * when another classpath root holds classes of the packages at runtime.
+ *
+ * @author Yogaraj
+ */
+@SupportedAnnotationTypes("com.yogaraj.graphql.schemagenerator.GraphQLSchema")
+@SupportedOptions({ GraphQLSchemaProcessor.PACKAGES_OPTION, GraphQLSchemaProcessor.PRUNE_OPTION })
+public class GraphQLSchemaProcessor extends AbstractProcessor {
+
+    static final String PACKAGES_OPTION = "graphql.schema.packages";
+
+    static final String PRUNE_OPTION = "graphql.schema.prune";
+
+    static final String SCHEMA_RESOURCE = "META-INF/graphql/schema.graphqls";
+
+    static final String BINARY_RESOURCE = "META-INF/graphql/schema.bin";
+
+    private boolean isSchemaWritten;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<? extends Element> elements = roundEnv.getElementsAnnotatedWith(GraphQLSchema.class);
+        if (elements.isEmpty()) {
+            return false;
+        }
+        String packagesOption = processingEnv.getOptions().get(PACKAGES_OPTION);
+        if (packagesOption == null || packagesOption.trim().isEmpty()) {
+            return false;
+        }
+        if (isSchemaWritten) {
+            this.printMessage(Kind.WARNING,
+                    "IGNORING: schema classes generated in later rounds are not part of the precompiled schema");
+            return false;
+        }
+
+        List<TypeElement> types = new ArrayList<>();
+        for (Element element : elements) {
+            if (this.isCandidate(element)) {
+                types.add((TypeElement) element);
+            }
+        }
+        // same order as GraphQlSchemaGenerator#generateSchema
+        types.sort(Comparator.comparing(this::getBinaryName));
+
+        String[] packages = packagesOption.trim().split("\\s*,\\s*");
+        boolean isPruned = Boolean.parseBoolean(processingEnv.getOptions().get(PRUNE_OPTION));
+        List<GraphQLTypeDescriptor> typeDescriptors = new ArrayList<>();
+        // the same as GraphQLSchemaClassReader#findSchemaClassNames, the generator compares them
+        List<String> classNames = new ArrayList<>();
+        GraphQLSchemaSymbolTable symbolTable = new GraphQLSchemaSymbolTable();
+        for (String sPackage : packages) {
+            for (TypeElement type : types) {
+                if (!this.getBinaryName(type).startsWith(sPackage + ".")) {
+                    continue;
+                }
+                classNames.add(this.getBinaryName(type));
+                GraphQLTypeDescriptor typeDescriptor = this.buildTypeDescriptor(type);
+                String claimedClassName = symbolTable.claim(typeDescriptor);
+                if (claimedClassName != null) {
+                    this.printMessage(Kind.WARNING, "IGNORING: operation name " + typeDescriptor.getOperationName()
+                            + " is already used by " + claimedClassName, type);
+                    continue;
+                }
+                typeDescriptors.add(typeDescriptor);
+            }
+        }
+        for (List<String> cycle : GraphQLSchemaSymbolTable.findInputCycles(typeDescriptors)) {
+            this.printMessage(Kind.WARNING, "INVALID: input types refer to themselves through non-null fields: "
+                    + String.join(" -> ", cycle) + " -> " + cycle.get(0));
+        }
+        if (isPruned) {
+            GraphQLSchemaPruner.Result result = GraphQLSchemaPruner.prune(typeDescriptors);
+            for (String className : result.getPrunedClassNames()) {
+                this.printMessage(Kind.NOTE, "PRUNED: " + className + " is not reachable from Query or Mutation");
+            }
+            typeDescriptors = result.getTypes();
+        }
+
+        StringBuilder schemaBuilder = new StringBuilder();
+        GraphQLSchemaWriter schemaWriter = new GraphQLSchemaWriter();
+        try {
+            for (GraphQLTypeDescriptor typeDescriptor : typeDescriptors) {
+                schemaWriter.write(typeDescriptor, schemaBuilder);
+            }
+            this.writeSchemaResource(schemaBuilder);
+            this.writeBinaryResource(typeDescriptors);
+            this.writeLoaderClass(packages, isPruned, classNames);
+        } catch (IOException e) {
+            this.printMessage(Kind.ERROR, "GraphQL schema could not be written: " + e.getMessage());
+        }
+        isSchemaWritten = true;
+        return false;
+    }
+
+    /**
+     * mirrors {@link org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider},
+     * which only picks up independent concrete classes
+     */
+    private boolean isCandidate(Element element) {
+        if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.ENUM) {
+            return false;
+        }
+        TypeElement type = (TypeElement) element;
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        return type.getNestingKind() == NestingKind.TOP_LEVEL
+                || (type.getNestingKind() == NestingKind.MEMBER && type.getModifiers().contains(Modifier.STATIC));
+    }
+
+    private GraphQLTypeDescriptor buildTypeDescriptor(TypeElement type) {
+        GraphQLSchema sGraphQLSchema = type.getAnnotation(GraphQLSchema.class);
+        Set<String> references = new HashSet<>();
+        String implementsName = this.resolveImplementation(type, sGraphQLSchema, references);
+        List<GraphQLFieldDescriptor> fields = this.resolveSchemaFields(type, sGraphQLSchema, references);
+        references.remove(this.getBinaryName(type));
+        return new GraphQLTypeDescriptor(this.getBinaryName(type), sGraphQLSchema.schemaType(),
+                sGraphQLSchema.operationName(), implementsName, fields, references,
+                sGraphQLSchema.table().isEmpty() ? null : sGraphQLSchema.table(), sGraphQLSchema.maxAge(),
+                sGraphQLSchema.cacheScope());
+    }
+
+    private String resolveImplementation(TypeElement type, GraphQLSchema sGraphQLSchema, Set<String> references) {
+        if (sGraphQLSchema.schemaType() != SchemaType.IMPLEMENTATION) {
+            return null;
+        }
+        TypeElement baseSchemaType = this.getClassValue(sGraphQLSchema::baseSchemaClassRef);
+        if (baseSchemaType == null) {
+            this.printMessage(Kind.WARNING, "IGNORING: Class implementation since no class reference is provided",
+                    type);
+            return null;
+        }
+        GraphQLSchema bGraphQLSchema = baseSchemaType.getAnnotation(GraphQLSchema.class);
+        if (bGraphQLSchema == null) {
+            this.printMessage(Kind.WARNING, "IGNORING: Class implementation since invalid class reference is provided",
+                    type);
+            return null;
+        }
+        if (bGraphQLSchema.schemaType() != SchemaType.OBJECT) {
+            this.printMessage(Kind.WARNING,
+                    "IGNORING: Class implementation since invalid class reference is provided (Need to be of type OBJECT)",
+                    type);
+            return null;
+        }
+        references.add(this.getBinaryName(baseSchemaType));
+        return bGraphQLSchema.operationName();
+    }
+
+    private List<GraphQLFieldDescriptor> resolveSchemaFields(TypeElement type, GraphQLSchema sGraphQLSchema,
+            Set<String> references) {
+        Set<VariableElement> fields = new LinkedHashSet<>();
+        this.collectPublicFields(type, fields);
+
+        List<GraphQLFieldDescriptor> fieldDescriptors = new ArrayList<>(fields.size());
+        for (VariableElement field : fields) {
+            GraphQLField mGraphQLField = field.getAnnotation(GraphQLField.class);
+            if (mGraphQLField == null) {
+                continue;
+            }
+            String key = mGraphQLField.fieldName();
+            if (key.isEmpty())
+                key = field.getSimpleName().toString();
+
+            String typeName = mGraphQLField.fieldType().type;
+            boolean isEnum = sGraphQLSchema.schemaType() == SchemaType.ENUM;
+            if (!isEnum && mGraphQLField.fieldType() == FieldType.OBJECT) {
+                TypeElement fieldObjectType = field.asType().getKind() == TypeKind.DECLARED
+                        ? (TypeElement) ((DeclaredType) field.asType()).asElement()
+                        : null;
+                GraphQLSchema sFieldObjectSchema = fieldObjectType == null ? null
+                        : fieldObjectType.getAnnotation(GraphQLSchema.class);
+                if (sFieldObjectSchema == null) {
+                    this.printMessage(Kind.WARNING, "IGNORING: field should be of an annotated type", field);
+                    continue;
+                }
+                references.add(this.getBinaryName(fieldObjectType));
+                typeName = sFieldObjectSchema.operationName();
+            } else if (!isEnum && mGraphQLField.fieldType() == FieldType.LIST) {
+                typeName = this.resolveElementTypeName(this.elementType(field.asType()), references);
+            }
+            String batchLoader = mGraphQLField.batchLoader();
+            fieldDescriptors.add(new GraphQLFieldDescriptor(key, mGraphQLField.fieldType(), typeName,
+                    mGraphQLField.isNullable(), this.resolveSchemaFieldParams(field, mGraphQLField, references),
+                    mGraphQLField.column().isEmpty() ? field.getSimpleName().toString() : mGraphQLField.column(),
+                    mGraphQLField.cost(), batchLoader.isEmpty() ? null : batchLoader, mGraphQLField.batchKey(),
+                    mGraphQLField.maxAge(), mGraphQLField.cacheScope()));
+        }
+        return fieldDescriptors;
+    }
+
+    private List<GraphQLParameterDescriptor> resolveSchemaFieldParams(VariableElement field,
+            GraphQLField mGraphQLField, Set<String> references) {
+        if (mGraphQLField.parameters().length == 0) {
+            return Collections.emptyList();
+        }
+        List<GraphQLParameterDescriptor> paramDescriptors = new ArrayList<>();
+        for (GraphQLFieldParameter gFieldParameter : mGraphQLField.parameters()) {
+            String key = gFieldParameter.paramName();
+            String typeName = gFieldParameter.paramType().type;
+
+            TypeElement paramObjectType = this.getClassValue(gFieldParameter::paramObjectClass);
+            if (gFieldParameter.paramType() == FieldType.OBJECT) {
+                if (paramObjectType == null) {
+                    this.printMessage(Kind.WARNING,
+                            "IGNORING: param " + key + " is of type object but no class reference is provided", field);
+                    continue;
+                }
+                GraphQLSchema sFieldObjectSchema = paramObjectType.getAnnotation(GraphQLSchema.class);
+                if (sFieldObjectSchema == null) {
+                    this.printMessage(Kind.WARNING,
+                            "IGNORING: param " + paramObjectType.getQualifiedName() + " should be annotated", field);
+                    continue;
+                }
+                references.add(this.getBinaryName(paramObjectType));
+                typeName = sFieldObjectSchema.operationName();
+            } else if (gFieldParameter.paramType() == FieldType.LIST && paramObjectType != null) {
+                typeName = this.resolveElementTypeName(paramObjectType.asType(), references);
+            }
+            paramDescriptors.add(new GraphQLParameterDescriptor(key, gFieldParameter.paramType(), typeName,
+                    gFieldParameter.isNullable(),
+                    gFieldParameter.column().isEmpty() ? key : gFieldParameter.column(), gFieldParameter.cacheKey()));
+        }
+        return paramDescriptors;
+    }
+
+    /**
+     * @param elementType type of the list elements or <code>null</code> when it
+     *                    is not known
+     * @return scalar or operation name of the element, "list" when the element is
+     *         neither
+     */
+    private String resolveElementTypeName(TypeMirror elementType, Set<String> references) {
+        if (elementType == null) {
+            return FieldType.LIST.type;
+        }
+        if (elementType.getKind().isPrimitive()) {
+            return GraphQLSchemaSymbolTable.scalarTypeName(elementType.toString());
+        }
+        if (elementType.getKind() != TypeKind.DECLARED) {
+            return FieldType.LIST.type;
+        }
+        TypeElement elementElement = (TypeElement) ((DeclaredType) elementType).asElement();
+        String scalarTypeName = GraphQLSchemaSymbolTable.scalarTypeName(this.getBinaryName(elementElement));
+        if (scalarTypeName != null) {
+            return scalarTypeName;
+        }
+        GraphQLSchema sElementSchema = elementElement.getAnnotation(GraphQLSchema.class);
+        if (sElementSchema == null) {
+            return FieldType.LIST.type;
+        }
+        references.add(this.getBinaryName(elementElement));
+        return sElementSchema.operationName();
+    }
+
+    /**
+     * element of an array or the first type argument of a generic field, e.g.
+     * <code>List&lt;? extends Doc&gt;</code>
+     */
+    private TypeMirror elementType(TypeMirror fieldType) {
+        if (fieldType.getKind() == TypeKind.ARRAY) {
+            TypeMirror componentType = ((ArrayType) fieldType).getComponentType();
+            return componentType.getKind() == TypeKind.ARRAY ? null : componentType;
+        }
+        if (fieldType.getKind() != TypeKind.DECLARED || ((DeclaredType) fieldType).getTypeArguments().isEmpty()) {
+            return null;
+        }
+        TypeMirror argument = ((DeclaredType) fieldType).getTypeArguments().get(0);
+        if (argument.getKind() == TypeKind.WILDCARD) {
+            argument = ((WildcardType) argument).getExtendsBound();
+        }
+        return argument;
+    }
+
+    /**
+     * collects public fields in the order of {@link Class#getFields()}: declared
+     * fields, fields of the super interfaces and then of the super class
+     */
+    private void collectPublicFields(TypeElement type, Set<VariableElement> fields) {
+        for (Element element : type.getEnclosedElements()) {
+            if ((element.getKind() == ElementKind.FIELD || element.getKind() == ElementKind.ENUM_CONSTANT)
+                    && element.getModifiers().contains(Modifier.PUBLIC)) {
+                fields.add((VariableElement) element);
+            }
+        }
+        for (TypeMirror superInterface : type.getInterfaces()) {
+            this.collectPublicFields((TypeElement) ((DeclaredType) superInterface).asElement(), fields);
+        }
+        if (type.getSuperclass().getKind() == TypeKind.DECLARED) {
+            this.collectPublicFields((TypeElement) ((DeclaredType) type.getSuperclass()).asElement(), fields);
+        }
+    }
+
+    /**
+     * {@link Class} attributes can not be read at compile time, the referenced
+     * type is only available through {@link MirroredTypeException}
+     *
+     * @return <code>null</code> for the default value {@link Class}
+     */
+    private TypeElement getClassValue(Supplier<Class<?>> attribute) {
+        TypeMirror typeMirror;
+        try {
+            attribute.get();
+            return null;
+        } catch (MirroredTypeException e) {
+            typeMirror = e.getTypeMirror();
+        }
+        if (typeMirror.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement typeElement = (TypeElement) ((DeclaredType) typeMirror).asElement();
+        if (typeElement.getQualifiedName().contentEquals(Class.class.getName())) {
+            return null;
+        }
+        return typeElement;
+    }
+
+    private String getBinaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void writeSchemaResource(CharSequence schema) throws IOException {
+        try (Writer writer = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", SCHEMA_RESOURCE).openWriter()) {
+            writer.append(schema);
+        }
+    }
+
+    private void writeBinaryResource(List<GraphQLTypeDescriptor> typeDescriptors) throws IOException {
+        try (OutputStream out = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", BINARY_RESOURCE).openOutputStream()) {
+            GraphQLSchemaBinary.write(typeDescriptors, out);
+        }
+    }
+
+    private void writeLoaderClass(String[] packages, boolean isPruned, List<String> classNames) throws IOException {
+        String qualifiedName = GraphQlSchemaGenerator.PRECOMPILED_SCHEMA_CLASS;
+        int packageEnd = qualifiedName.lastIndexOf('.');
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(qualifiedName, 0, packageEnd).append(";\n\n");
+        source.append("import java.io.FileNotFoundException;\n");
+        source.append("import java.io.IOException;\n");
+        source.append("import java.io.InputStream;\n");
+        source.append("import java.nio.charset.StandardCharsets;\n\n");
+        source.append("@javax.annotation.processing.Generated(\"").append(GraphQLSchemaProcessor.class.getName())
+                .append("\")\n");
+        source.append("public final class ").append(qualifiedName.substring(packageEnd + 1)).append(" {\n\n");
+        source.append("    public static final String RESOURCE = \"").append(SCHEMA_RESOURCE).append("\";\n\n");
+        source.append("    public static final String BINARY_RESOURCE = \"").append(BINARY_RESOURCE).append("\";\n\n");
+        source.append("    public static final String[] PACKAGES = ").append(this.toArrayLiteral(Arrays.asList(packages)))
+                .append(";\n\n");
+        source.append("    public static final boolean PRUNED = ").append(isPruned).append(";\n\n");
+        source.append("    public static final String[] CLASS_NAMES = ").append(this.toArrayLiteral(classNames))
+                .append(";\n\n");
+        source.append("    private ").append(qualifiedName.substring(packageEnd + 1)).append("() {\n    }\n\n");
+        source.append("    public static String load() throws IOException {\n");
+        source.append("        return new String(read(RESOURCE), StandardCharsets.UTF_8);\n");
+        source.append("    }\n\n");
+        source.append("    public static byte[] loadBinary() throws IOException {\n");
+        source.append("        return read(BINARY_RESOURCE);\n");
+        source.append("    }\n\n");
+        source.append("    private static byte[] read(String resource) throws IOException {\n");
+        source.append("        try (InputStream in = ").append(qualifiedName.substring(packageEnd + 1))
+                .append(".class.getClassLoader().getResourceAsStream(resource)) {\n");
+        source.append("            if (in == null) {\n");
+        source.append("                throw new FileNotFoundException(resource);\n");
+        source.append("            }\n");
+        source.append("            return in.readAllBytes();\n");
+        source.append("        }\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName).openWriter()) {
+            writer.append(source);
+        }
+    }
+
+    private String toArrayLiteral(List<String> values) {
+        StringBuilder literal = new StringBuilder("{");
+        for (int index = 0; index < values.size(); index++) {
+            literal.append(index > 0 ? ", " : " ").append('"').append(values.get(index)).append('"');
+        }
+        return literal.append(" }").toString();
+    }
+
+    private void printMessage(Kind kind, String message) {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(kind, message);
+    }
+
+    private void printMessage(Kind kind, String message, Element element) {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(kind, message, element);
+    }
+}
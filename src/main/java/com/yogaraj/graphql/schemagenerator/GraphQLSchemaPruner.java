@@ -0,0 +1,125 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+/**
+ * Removes the types which can not be reached from a Query or Mutation root, so
+ * internal DTOs of the scanned packages are not part of the schema.
+ *
+ * <pre>
+ * Query / Mutation   roots, always kept
+ * field, param       the type of OBJECT and LIST fields and of paramObjectClass parameters
+ * implementation     the type of baseSchemaClassRef
+ * base type          every implementation of a reachable base type
+ * </pre>
+ *
+ * Implementations of a reachable base type are kept although no field names
+ * them, since queries select them with fragments on the base type. The graph is
+ * walked once, every type is visited at most once.
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLSchemaPruner {
+
+    private GraphQLSchemaPruner() {
+    }
+
+    /**
+     * @param types types of one schema
+     * @return reachable types in the given order and the class names of the
+     *         others
+     */
+    public static Result prune(List<GraphQLTypeDescriptor> types) {
+        Map<String, GraphQLTypeDescriptor> typesByClassName = new HashMap<>();
+        Map<String, List<GraphQLTypeDescriptor>> typesByName = new HashMap<>();
+        Map<String, List<GraphQLTypeDescriptor>> implementationsByBaseName = new HashMap<>();
+        Deque<GraphQLTypeDescriptor> pending = new ArrayDeque<>();
+        Set<String> reachable = new HashSet<>();
+        for (GraphQLTypeDescriptor type : types) {
+            typesByClassName.put(type.getClassName(), type);
+            typesByName.computeIfAbsent(type.getOperationName(), key -> new ArrayList<>()).add(type);
+            if (type.getImplementsName() != null) {
+                implementationsByBaseName.computeIfAbsent(type.getImplementsName(), key -> new ArrayList<>())
+                        .add(type);
+            }
+            if ((type.getSchemaType() == SchemaType.QUERY || type.getSchemaType() == SchemaType.MUTATION)
+                    && reachable.add(type.getClassName())) {
+                pending.add(type);
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            GraphQLTypeDescriptor type = pending.poll();
+            List<GraphQLTypeDescriptor> references = new ArrayList<>();
+            for (String className : type.getReferencedClassNames()) {
+                GraphQLTypeDescriptor reference = typesByClassName.get(className);
+                if (reference != null) {
+                    references.add(reference);
+                }
+            }
+            // names also reach types whose class is not recorded, e.g. list elements
+            for (GraphQLFieldDescriptor field : type.getFields()) {
+                references.addAll(typesByName.getOrDefault(field.getTypeName(), Collections.emptyList()));
+                for (GraphQLParameterDescriptor parameter : field.getParameters()) {
+                    references.addAll(typesByName.getOrDefault(parameter.getTypeName(), Collections.emptyList()));
+                }
+            }
+            if (type.getImplementsName() != null) {
+                references.addAll(typesByName.getOrDefault(type.getImplementsName(), Collections.emptyList()));
+            }
+            if (type.getSchemaType() != SchemaType.QUERY && type.getSchemaType() != SchemaType.MUTATION) {
+                references.addAll(
+                        implementationsByBaseName.getOrDefault(type.getOperationName(), Collections.emptyList()));
+            }
+            for (GraphQLTypeDescriptor reference : references) {
+                if (reachable.add(reference.getClassName())) {
+                    pending.add(reference);
+                }
+            }
+        }
+
+        List<GraphQLTypeDescriptor> reachableTypes = new ArrayList<>(reachable.size());
+        List<String> prunedClassNames = new ArrayList<>();
+        for (GraphQLTypeDescriptor type : types) {
+            if (reachable.contains(type.getClassName())) {
+                reachableTypes.add(type);
+            } else {
+                prunedClassNames.add(type.getClassName());
+            }
+        }
+        return new Result(reachableTypes, prunedClassNames);
+    }
+
+    /**
+     * types which are kept and class names of the pruned types
+     */
+    public static final class Result {
+
+        private final List<GraphQLTypeDescriptor> types;
+
+        private final List<String> prunedClassNames;
+
+        private Result(List<GraphQLTypeDescriptor> types, List<String> prunedClassNames) {
+            this.types = Collections.unmodifiableList(types);
+            this.prunedClassNames = Collections.unmodifiableList(prunedClassNames);
+        }
+
+        public List<GraphQLTypeDescriptor> getTypes() {
+            return this.types;
+        }
+
+        public List<String> getPrunedClassNames() {
+            return this.prunedClassNames;
+        }
+    }
+}
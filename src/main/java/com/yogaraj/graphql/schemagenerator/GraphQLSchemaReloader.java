@@ -0,0 +1,530 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
+
+/**
+ * Keeps the schema of some packages up to date while their classes are
+ * recompiled, e.g. in development or when plugins are reloaded.
+ *
+ * <p>
+ * Every rendered class fragment is cached with a fingerprint of its bytecode.
+ * {@link GraphQLSchemaReloader#reload(Collection)} reads the changed class
+ * files with a {@link GraphQLSchemaClassReader}, without loading the classes,
+ * and renders only them and the classes which refer to them, all other
+ * fragments are reused. The fragments are claimed, checked for input cycles
+ * and pruned like the ones of {@link GraphQlSchemaGenerator}, so a reloaded
+ * schema equals a generated one. {@link GraphQLSchemaReloader#watch()}
+ * calls it for the class files which a {@link WatchService} reports in the
+ * compiled class directories of the packages.
+ * </p>
+ *
+ * <blockquote>
+ *
+ * <pre>
+ * GraphQLSchemaReloader reloader = new GraphQLSchemaReloader(classLoader, "com.yogaraj.graphql.dto");
+ * reloader.load();
+ * reloader.addListener(schema -&gt; ...);
+ * reloader.watch();
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * The schema is published atomically, readers of
+ * {@link GraphQLSchemaReloader#getSchema()} always see a complete schema.
+ *
+ * @author Yogaraj
+ */
+public class GraphQLSchemaReloader implements Closeable {
+
+    /**
+     * events of one compilation arrive in bursts, they are reloaded together
+     */
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final ClassLoader parentClassLoader;
+
+    private final String[] packages;
+
+    private final List<Path> classDirectories;
+
+    /**
+     * cached fragments ordered by class name, guarded by this. A reload changes
+     * a copy, which replaces them once the schema is published.
+     */
+    private TreeMap<String, CachedFragment> fragments = new TreeMap<>();
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile String schema = "";
+
+    private volatile List<GraphQLTypeDescriptor> types = Collections.emptyList();
+
+    private boolean pruneUnreachableTypes;
+
+    private WatchService watchService;
+
+    private Thread watchThread;
+
+    private Logger logger = Logger.getLogger(GraphQLSchemaReloader.class.getSimpleName());
+
+    /**
+     * @param parentClassLoader {@link ClassLoader} of the application, the
+     *                          changed class files of the packages are read
+     *                          through child class loaders of it
+     * @param packages          packages to generate the schema for
+     * @throws IOException when the class directories can not be resolved
+     */
+    public GraphQLSchemaReloader(ClassLoader parentClassLoader, String... packages) throws IOException {
+        this.parentClassLoader = parentClassLoader;
+        this.packages = packages.clone();
+        this.classDirectories = this.findClassDirectories();
+    }
+
+    /**
+     * publishes only the types which are reachable from the Query and Mutation
+     * roots, see {@link GraphQlSchemaGenerator#setPruneUnreachableTypes(boolean)}
+     *
+     * @param pruneUnreachableTypes
+     */
+    public synchronized void setPruneUnreachableTypes(boolean pruneUnreachableTypes) {
+        this.pruneUnreachableTypes = pruneUnreachableTypes;
+    }
+
+    /**
+     * scans the packages and renders every class
+     *
+     * @throws IOException            when class files can not be read
+     * @throws ClassNotFoundException when a referenced class file is missing
+     */
+    public synchronized void load() throws IOException, ClassNotFoundException {
+        List<String> classNames = new GraphQLSchemaClassReader(this.parentClassLoader)
+                .findSchemaClassNames(this.packages);
+        try (ReloadingClassLoader classLoader = new ReloadingClassLoader(this.classDirectories,
+                this.parentClassLoader, this.packages)) {
+            this.reload(classNames, classLoader, new TreeMap<>());
+        }
+    }
+
+    /**
+     * renders the changed classes again, together with the cached classes which
+     * refer to them, and publishes the new schema. Classes which were removed or
+     * are no longer annotated are dropped. When it fails, the cached fragments
+     * and the published schema are left as they were.
+     *
+     * @param classNames binary names of the changed classes
+     * @throws IOException            when class files can not be read
+     * @throws ClassNotFoundException when a referenced class file is missing
+     */
+    public synchronized void reload(Collection<String> classNames) throws IOException, ClassNotFoundException {
+        try (ReloadingClassLoader classLoader = new ReloadingClassLoader(this.classDirectories,
+                this.parentClassLoader, this.packages)) {
+            this.reload(classNames, classLoader, new TreeMap<>(this.fragments));
+        }
+    }
+
+    private void reload(Collection<String> classNames, ClassLoader classLoader,
+            TreeMap<String, CachedFragment> fragments) throws IOException, ClassNotFoundException {
+        SimpleMetadataReaderFactory metadataReaderFactory = new SimpleMetadataReaderFactory(classLoader);
+        Map<String, Long> changedClasses = new HashMap<>();
+        Set<String> dependentClasses = new HashSet<>();
+        int removedClasses = 0;
+        for (String className : classNames) {
+            byte[] bytecode = this.isInPackages(className) ? this.readBytecode(classLoader, className) : null;
+            if (bytecode == null || !this.isSchemaCandidate(metadataReaderFactory, bytecode)) {
+                if (fragments.remove(className) != null) {
+                    this.printLogMessage("REMOVED: " + className);
+                    removedClasses++;
+                    dependentClasses.addAll(this.findDependentClasses(fragments, className));
+                }
+                continue;
+            }
+            long fingerprint = this.fingerprint(bytecode);
+            CachedFragment cachedFragment = fragments.get(className);
+            if (cachedFragment != null && cachedFragment.fingerprint == fingerprint) {
+                continue;
+            }
+            changedClasses.put(className, fingerprint);
+            dependentClasses.addAll(this.findDependentClasses(fragments, className));
+        }
+
+        for (String className : dependentClasses) {
+            CachedFragment cachedFragment = fragments.get(className);
+            if (cachedFragment != null) {
+                changedClasses.putIfAbsent(className, cachedFragment.fingerprint);
+            }
+        }
+        if (changedClasses.isEmpty() && removedClasses == 0) {
+            return;
+        }
+
+        // the class files are read, changed classes are neither loaded nor initialized
+        GraphQLSchemaClassReader classReader = new GraphQLSchemaClassReader(classLoader);
+        for (Map.Entry<String, Long> changedClass : changedClasses.entrySet()) {
+            GraphQLTypeDescriptor typeDescriptor = classReader.buildTypeDescriptor(changedClass.getKey());
+            if (typeDescriptor == null) {
+                fragments.remove(changedClass.getKey());
+                continue;
+            }
+            StringBuilder fragmentBuilder = new StringBuilder();
+            new GraphQLSchemaWriter().render(typeDescriptor, fragmentBuilder);
+            fragments.put(changedClass.getKey(),
+                    new CachedFragment(changedClass.getValue(), typeDescriptor, fragmentBuilder.toString()));
+        }
+        this.printLogMessage("RELOADED: " + changedClasses.size() + " of " + fragments.size() + " classes");
+        this.publish(fragments);
+    }
+
+    /**
+     * starts a daemon thread which reloads the classes whose class files change
+     * in the class directories of the packages
+     *
+     * @throws IOException when the directories can not be watched
+     */
+    public synchronized void watch() throws IOException {
+        if (this.watchThread != null) {
+            return;
+        }
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Map<WatchKey, Path[]> watchedDirectories = new HashMap<>();
+        for (Path classDirectory : this.classDirectories) {
+            for (String sPackage : this.packages) {
+                Path packageDirectory = classDirectory.resolve(sPackage.replace('.', '/'));
+                if (Files.isDirectory(packageDirectory)) {
+                    this.register(classDirectory, packageDirectory, watchedDirectories);
+                }
+            }
+        }
+        this.watchThread = new Thread(() -> this.processEvents(watchedDirectories), "graphql-schema-reloader");
+        this.watchThread.setDaemon(true);
+        this.watchThread.start();
+    }
+
+    public String getSchema() {
+        return this.schema;
+    }
+
+    /**
+     * @return types of {@link GraphQLSchemaReloader#getSchema()} in schema order,
+     *         e.g. for {@link GraphQLExecutableSchemaBuilder#type(GraphQLTypeDescriptor)}
+     */
+    public List<GraphQLTypeDescriptor> getTypeDescriptors() {
+        return this.types;
+    }
+
+    /**
+     * @return {@link ClassLoader} of the application, whose classes the objects
+     *         of the published types are instances of
+     */
+    public ClassLoader getClassLoader() {
+        return this.parentClassLoader;
+    }
+
+    /**
+     * @param listener called with every newly published schema
+     */
+    public void addListener(Consumer<String> listener) {
+        this.listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.watchService != null) {
+            this.watchService.close();
+        }
+        if (this.watchThread != null) {
+            this.watchThread.interrupt();
+            this.watchThread = null;
+        }
+    }
+
+    /**
+     * claims, checks and prunes the cached types in scan order like
+     * {@link GraphQlSchemaGenerator}, then writes their cached fragments and
+     * keeps them
+     */
+    private void publish(TreeMap<String, CachedFragment> fragments) {
+        GraphQLSchemaSymbolTable symbolTable = new GraphQLSchemaSymbolTable();
+        List<GraphQLTypeDescriptor> types = new ArrayList<>();
+        Map<String, String> bodies = new HashMap<>();
+        for (String sPackage : this.packages) {
+            // all class names which start with "package."
+            for (CachedFragment fragment : fragments.subMap(sPackage + ".", sPackage + "/").values()) {
+                String claimedClassName = symbolTable.claim(fragment.type);
+                if (claimedClassName != null) {
+                    this.printLogMessage("IGNORING: Class " + fragment.type.getClassName()
+                            + " since operation name " + fragment.type.getOperationName()
+                            + " is already used by " + claimedClassName);
+                    continue;
+                }
+                types.add(fragment.type);
+                bodies.put(fragment.type.getClassName(), fragment.body);
+            }
+        }
+        for (List<String> cycle : GraphQLSchemaSymbolTable.findInputCycles(types)) {
+            this.printLogMessage("INVALID: input types refer to themselves through non-null fields: "
+                    + String.join(" -> ", cycle) + " -> " + cycle.get(0));
+        }
+        if (this.pruneUnreachableTypes) {
+            GraphQLSchemaPruner.Result result = GraphQLSchemaPruner.prune(types);
+            this.printLogMessage("PRUNED: " + result.getPrunedClassNames().size() + " of " + types.size() + " types");
+            types = result.getTypes();
+        }
+
+        // "extend" depends on the order, so the schema is written with a new writer
+        GraphQLSchemaWriter schemaWriter = new GraphQLSchemaWriter();
+        StringBuilder schemaBuilder = new StringBuilder();
+        try {
+            for (GraphQLTypeDescriptor type : types) {
+                schemaWriter.write(type, bodies.get(type.getClassName()), schemaBuilder);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.fragments = fragments;
+        this.types = Collections.unmodifiableList(types);
+        this.schema = schemaBuilder.toString();
+        for (Consumer<String> listener : this.listeners) {
+            listener.accept(this.schema);
+        }
+    }
+
+    private Set<String> findDependentClasses(Map<String, CachedFragment> fragments, String className) {
+        Set<String> dependentClasses = new HashSet<>();
+        for (CachedFragment fragment : fragments.values()) {
+            if (fragment.type.getReferencedClassNames().contains(className)) {
+                dependentClasses.add(fragment.type.getClassName());
+            }
+        }
+        return dependentClasses;
+    }
+
+    private void processEvents(Map<WatchKey, Path[]> watchedDirectories) {
+        // classes of a failed reload are reloaded again with the next events
+        Set<String> changedClasses = new LinkedHashSet<>();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey watchKey = this.watchService.take();
+                while (watchKey != null) {
+                    this.collectChangedClasses(watchKey, watchedDirectories, changedClasses);
+                    watchKey = this.watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (changedClasses.isEmpty()) {
+                    continue;
+                }
+                try {
+                    this.reload(changedClasses);
+                    changedClasses.clear();
+                } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                    this.printLogMessage("IGNORING: reload of " + changedClasses.size()
+                            + " classes failed, they are retried with the next change " + e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void collectChangedClasses(WatchKey watchKey, Map<WatchKey, Path[]> watchedDirectories,
+            Set<String> changedClasses) {
+        Path[] directories = watchedDirectories.get(watchKey);
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (directories == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                continue;
+            }
+            Path path = directories[1].resolve((Path) event.context());
+            if (Files.isDirectory(path) && event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                try {
+                    this.register(directories[0], path, watchedDirectories);
+                    try (Stream<Path> files = Files.walk(path)) {
+                        files.forEach(file -> this.addClassName(directories[0], file, changedClasses));
+                    }
+                } catch (IOException e) {
+                    this.printLogMessage("IGNORING: directory " + path + " can not be watched");
+                }
+                continue;
+            }
+            this.addClassName(directories[0], path, changedClasses);
+        }
+        watchKey.reset();
+    }
+
+    private void addClassName(Path classDirectory, Path file, Set<String> classNames) {
+        String fileName = classDirectory.relativize(file).toString();
+        if (fileName.endsWith(".class")) {
+            classNames.add(fileName.substring(0, fileName.length() - ".class".length())
+                    .replace(file.getFileSystem().getSeparator(), "."));
+        }
+    }
+
+    private void register(Path classDirectory, Path directory, Map<WatchKey, Path[]> watchedDirectories)
+            throws IOException {
+        try (Stream<Path> directories = Files.walk(directory)) {
+            for (Path subDirectory : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                WatchKey watchKey = subDirectory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.put(watchKey, new Path[] { classDirectory, subDirectory });
+            }
+        }
+    }
+
+    /**
+     * class path directories, jars are not watched
+     */
+    private List<Path> findClassDirectories() throws IOException {
+        Set<Path> classDirectories = new LinkedHashSet<>();
+        for (String sPackage : this.packages) {
+            String packagePath = sPackage.replace('.', '/');
+            Enumeration<URL> resources = this.parentClassLoader.getResources(packagePath);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                if (!"file".equals(resource.getProtocol())) {
+                    continue;
+                }
+                try {
+                    Path classDirectory = Paths.get(resource.toURI());
+                    for (int index = sPackage.split("\\.").length; index > 0; index--) {
+                        classDirectory = classDirectory.getParent();
+                    }
+                    classDirectories.add(classDirectory);
+                } catch (URISyntaxException e) {
+                    this.printLogMessage("IGNORING: class directory " + resource);
+                }
+            }
+        }
+        return new ArrayList<>(classDirectories);
+    }
+
+    private boolean isInPackages(String className) {
+        for (String sPackage : this.packages) {
+            if (className.startsWith(sPackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * same conditions as
+     * {@link org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider}
+     */
+    private boolean isSchemaCandidate(SimpleMetadataReaderFactory metadataReaderFactory, byte[] bytecode)
+            throws IOException {
+        AnnotationMetadata metadata = metadataReaderFactory.getMetadataReader(new ByteArrayResource(bytecode))
+                .getAnnotationMetadata();
+        return metadata.hasAnnotation(GraphQLSchema.class.getName()) && metadata.isIndependent()
+                && metadata.isConcrete();
+    }
+
+    private byte[] readBytecode(ClassLoader classLoader, String className) throws IOException {
+        try (InputStream in = classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+            return in == null ? null : in.readAllBytes();
+        }
+    }
+
+    private long fingerprint(byte[] bytecode) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytecode);
+        return ((long) bytecode.length << 32) ^ checksum.getValue();
+    }
+
+    private void printLogMessage(String message) {
+        this.logger.info(message);
+    }
+
+    private static final class CachedFragment {
+
+        private final long fingerprint;
+
+        private final GraphQLTypeDescriptor type;
+
+        private final String body;
+
+        private CachedFragment(long fingerprint, GraphQLTypeDescriptor type, String body) {
+            this.fingerprint = fingerprint;
+            this.type = type;
+            this.body = body;
+        }
+    }
+
+    /**
+     * finds the class files of the packages itself instead of asking the parent
+     * first, so recompiled classes are read. All other class files, like the
+     * ones of jars, come from the parent.
+     */
+    private static final class ReloadingClassLoader extends URLClassLoader {
+
+        private final String[] packages;
+
+        private ReloadingClassLoader(List<Path> classDirectories, ClassLoader parent, String[] packages)
+                throws MalformedURLException {
+            super(toUrls(classDirectories), parent);
+            this.packages = packages;
+        }
+
+        private static URL[] toUrls(List<Path> classDirectories) throws MalformedURLException {
+            URL[] urls = new URL[classDirectories.size()];
+            for (int index = 0; index < urls.length; index++) {
+                urls[index] = classDirectories.get(index).toUri().toURL();
+            }
+            return urls;
+        }
+
+        @Override
+        public URL getResource(String name) {
+            String className = name.endsWith(".class") ? name.substring(0, name.length() - 6).replace('/', '.') : "";
+            if (this.isReloadable(className)) {
+                URL resource = findResource(name);
+                if (resource != null) {
+                    return resource;
+                }
+            }
+            return super.getResource(name);
+        }
+
+        private boolean isReloadable(String className) {
+            for (String sPackage : this.packages) {
+                if (className.startsWith(sPackage + ".")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
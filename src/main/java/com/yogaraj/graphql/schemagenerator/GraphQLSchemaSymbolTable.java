@@ -0,0 +1,203 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+/**
+ * Type names and kinds of the schema classes of one generation, keyed by binary
+ * class name. Every class is resolved once, its operation name is interned, so
+ * fields and parameters which refer to the same class share one name and are
+ * resolved with a single lookup.
+ *
+ * <pre>
+ * com.yogaraj.graphql.dto.Doc      doc (OBJECT)
+ * com.yogaraj.graphql.dto.DocType  docType (ENUM)
+ * java.lang.String                 String, see {@link #scalarTypeName(String)}
+ * </pre>
+ *
+ * The table also checks the types as a whole: an operation name may only be
+ * used by one class, except for the Query and Mutation roots which extend each
+ * other, and input types must not refer to themselves through non-null fields
+ * since no value could be written for them. A table may be used from multiple
+ * threads.
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLSchemaSymbolTable {
+
+    private static final Symbol UNANNOTATED = new Symbol(null, null);
+
+    private final Map<String, Symbol> symbols = new ConcurrentHashMap<>();
+
+    private final Map<String, String> typeNames = new ConcurrentHashMap<>();
+
+    private final Map<String, String> claimedClassNames = new HashMap<>();
+
+    /**
+     * @param className binary class name
+     * @return symbol of the class, <code>null</code> for a class without
+     *         {@link GraphQLSchema} or when the class was not defined yet
+     */
+    public Symbol get(String className) {
+        Symbol symbol = this.symbols.get(className);
+        return symbol == UNANNOTATED ? null : symbol;
+    }
+
+    /**
+     * @param className binary class name
+     * @return <code>true</code> when the class was defined, also when it is not
+     *         annotated
+     */
+    public boolean isDefined(String className) {
+        return this.symbols.containsKey(className);
+    }
+
+    /**
+     * defines the symbol of a class, the first definition is kept
+     *
+     * @param schemaType schema type of the class or <code>null</code> when it is
+     *                   not annotated
+     * @return symbol of the class or <code>null</code> when it is not annotated
+     */
+    public Symbol define(String className, SchemaType schemaType, String typeName) {
+        Symbol symbol = schemaType == null ? UNANNOTATED : new Symbol(this.intern(typeName), schemaType);
+        Symbol previous = this.symbols.putIfAbsent(className, symbol);
+        Symbol defined = previous == null ? symbol : previous;
+        return defined == UNANNOTATED ? null : defined;
+    }
+
+    private String intern(String typeName) {
+        String interned = this.typeNames.putIfAbsent(typeName, typeName);
+        return interned == null ? typeName : interned;
+    }
+
+    /**
+     * reserves the operation name of a type for the schema
+     *
+     * @return class name which already uses the operation name or
+     *         <code>null</code> when the type may be written
+     */
+    public synchronized String claim(GraphQLTypeDescriptor type) {
+        if (type.getSchemaType() == SchemaType.QUERY || type.getSchemaType() == SchemaType.MUTATION) {
+            return null;
+        }
+        String claimedClassName = this.claimedClassNames.putIfAbsent(type.getOperationName(), type.getClassName());
+        return claimedClassName == null || claimedClassName.equals(type.getClassName()) ? null : claimedClassName;
+    }
+
+    /**
+     * finds input types which refer to themselves through non-null, non-list
+     * fields, e.g. <code>input A { b: B! } input B { a: A! }</code>, in one
+     * depth first pass over the types
+     *
+     * @return operation names of every cycle in reference order
+     */
+    public static List<List<String>> findInputCycles(List<GraphQLTypeDescriptor> types) {
+        // in type order, so the same types always report the same cycles in the same order
+        Map<String, GraphQLTypeDescriptor> inputTypes = new LinkedHashMap<>();
+        for (GraphQLTypeDescriptor type : types) {
+            if (type.getSchemaType() == SchemaType.INPUT) {
+                inputTypes.putIfAbsent(type.getOperationName(), type);
+            }
+        }
+        List<List<String>> cycles = new ArrayList<>();
+        Map<String, Boolean> visited = new HashMap<>();
+        for (String typeName : inputTypes.keySet()) {
+            findInputCycles(typeName, inputTypes, visited, new ArrayList<>(), cycles);
+        }
+        return cycles;
+    }
+
+    /**
+     * @param visited <code>false</code> while the type is on the path,
+     *                <code>true</code> once all its references are visited
+     */
+    private static void findInputCycles(String typeName, Map<String, GraphQLTypeDescriptor> inputTypes,
+            Map<String, Boolean> visited, List<String> path, List<List<String>> cycles) {
+        Boolean isVisited = visited.get(typeName);
+        if (Boolean.TRUE.equals(isVisited)) {
+            return;
+        }
+        if (Boolean.FALSE.equals(isVisited)) {
+            cycles.add(new ArrayList<>(path.subList(path.indexOf(typeName), path.size())));
+            return;
+        }
+        visited.put(typeName, Boolean.FALSE);
+        path.add(typeName);
+        for (GraphQLFieldDescriptor field : inputTypes.get(typeName).getFields()) {
+            if (field.getFieldType() == FieldType.OBJECT && !field.isNullable()
+                    && inputTypes.containsKey(field.getTypeName())) {
+                findInputCycles(field.getTypeName(), inputTypes, visited, path, cycles);
+            }
+        }
+        path.remove(path.size() - 1);
+        visited.put(typeName, Boolean.TRUE);
+    }
+
+    /**
+     * scalar of a java type, used for the elements of {@link FieldType#LIST}
+     * fields
+     *
+     * @param className binary class name or primitive name
+     * @return scalar name or <code>null</code> when the type is not a scalar
+     */
+    public static String scalarTypeName(String className) {
+        switch (className) {
+        case "java.lang.String":
+        case "char":
+        case "java.lang.Character":
+            return FieldType.STRING.type;
+        case "int":
+        case "long":
+        case "short":
+        case "byte":
+        case "java.lang.Integer":
+        case "java.lang.Long":
+        case "java.lang.Short":
+        case "java.lang.Byte":
+        case "java.math.BigInteger":
+            return FieldType.INT.type;
+        case "float":
+        case "double":
+        case "java.lang.Float":
+        case "java.lang.Double":
+        case "java.math.BigDecimal":
+            return FieldType.FLOAT.type;
+        case "boolean":
+        case "java.lang.Boolean":
+            return FieldType.BOOLEAN.type;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * interned type name and schema type of one class
+     */
+    public static final class Symbol {
+
+        private final String typeName;
+
+        private final SchemaType schemaType;
+
+        private Symbol(String typeName, SchemaType schemaType) {
+            this.typeName = typeName;
+            this.schemaType = schemaType;
+        }
+
+        public String getTypeName() {
+            return this.typeName;
+        }
+
+        public SchemaType getSchemaType() {
+            return this.schemaType;
+        }
+    }
+}
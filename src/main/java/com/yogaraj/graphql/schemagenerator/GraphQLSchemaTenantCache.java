@@ -0,0 +1,89 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Generated schemas of many tenants, keyed by their package set.
+ *
+ * <pre>
+ * GraphQLSchemaTenantCache tenantSchemas = new GraphQLSchemaTenantCache(generator, 100, Duration.ofHours(1));
+ * String schema = tenantSchemas.get("com.tenant.a.dto", "com.shared.dto").getSchema();
+ * </pre>
+ *
+ * Tenants which ask for the schema of the same packages while it is generated
+ * wait for that generation instead of starting their own, the generation runs
+ * on the thread of the first caller. The cache holds at most
+ * <code>maximumSize</code> schemas, the least valuable ones are evicted
+ * (W-TinyLFU), and schemas which were not asked for during
+ * <code>expireAfterAccess</code> are dropped. A failed generation is not kept,
+ * the next caller generates again. The package order is part of the key since
+ * it is the order of the schema text.
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLSchemaTenantCache {
+
+    private final GraphQlSchemaGenerator generator;
+
+    private final AsyncCache<List<String>, GraphQLGeneratedSchema> schemas;
+
+    /**
+     * @param generator         generates the schemas, also when it is used
+     *                          elsewhere
+     * @param maximumSize       maximum number of package sets
+     * @param expireAfterAccess idle time after which a schema is dropped
+     */
+    public GraphQLSchemaTenantCache(GraphQlSchemaGenerator generator, long maximumSize, Duration expireAfterAccess) {
+        this.generator = generator;
+        this.schemas = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterAccess(expireAfterAccess)
+                .buildAsync();
+    }
+
+    /**
+     * @return schema of the packages, generated once for concurrent callers
+     * @throws ClassNotFoundException when a referenced class file is missing
+     */
+    public GraphQLGeneratedSchema get(String... packages) throws ClassNotFoundException {
+        List<String> key = List.of(packages);
+        CompletableFuture<GraphQLGeneratedSchema> generation = new CompletableFuture<>();
+        CompletableFuture<GraphQLGeneratedSchema> schema = this.schemas.asMap().putIfAbsent(key, generation);
+        if (schema == null) {
+            schema = generation;
+            try {
+                generation.complete(this.generator.generate(packages));
+            } catch (ClassNotFoundException | RuntimeException | Error e) {
+                // waiting callers fail as well, the cache drops the failed generation
+                generation.completeExceptionally(e);
+            }
+        }
+        try {
+            return schema.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ClassNotFoundException) {
+                throw (ClassNotFoundException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * drops the schema of the packages, e.g. after their classes changed
+     */
+    public void invalidate(String... packages) {
+        this.schemas.synchronous().invalidate(List.of(packages));
+    }
+
+    /**
+     * @return number of cached schemas, including generations in progress
+     */
+    public long size() {
+        this.schemas.synchronous().cleanUp();
+        return this.schemas.synchronous().estimatedSize();
+    }
+}
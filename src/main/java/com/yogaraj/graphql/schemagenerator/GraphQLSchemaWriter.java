@@ -0,0 +1,326 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.io.IOException;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+/**
+ * Renders {@link GraphQLTypeDescriptor}s as graphQL schema text.
+ *
+ * <p>
+ * A writer keeps track of the Query and Mutation roots it has already written,
+ * so the same instance has to be used for every type of one schema.
+ * </p>
+ *
+ * @author Yogaraj
+ * @see https://graphql.org/learn/schema
+ */
+public class GraphQLSchemaWriter {
+
+    /**
+     * since multiple Query and Mutation will be created its necessary to use
+     * GraphQL's "extend" functionality to avoid conflits.
+     *
+     * @see https://docs.reactioncommerce.com/docs/how-to-extend-graphql-to-add-field
+     */
+    boolean isQuerySchemaBuild, isMutationSchemaBuild;
+
+    /**
+     * writes the complete schema fragment of one type
+     *
+     * @param type
+     * @param out
+     * @throws IOException when the {@link Appendable} fails
+     */
+    public void write(GraphQLTypeDescriptor type, Appendable out) throws IOException {
+        this.addSpecialCharacters(out, "new-line");
+        this.addExtension(type, out);
+        this.render(type, out);
+    }
+
+    /**
+     * writes a fragment which was rendered before by
+     * {@link GraphQLSchemaWriter#render(GraphQLTypeDescriptor, Appendable)}, only
+     * the "extend" keyword is decided here
+     *
+     * @param type
+     * @param fragment
+     * @param out
+     * @throws IOException when the {@link Appendable} fails
+     */
+    public void write(GraphQLTypeDescriptor type, CharSequence fragment, Appendable out) throws IOException {
+        this.addSpecialCharacters(out, "new-line");
+        this.addExtension(type, out);
+        out.append(fragment);
+    }
+
+    /**
+     * renders the part of the schema fragment which does not depend on the other
+     * types. Unlike {@link GraphQLSchemaWriter#write(GraphQLTypeDescriptor, Appendable)}
+     * this does not change the state of the writer and may be called from
+     * multiple threads.
+     *
+     * @param type
+     * @param out
+     * @throws IOException when the {@link Appendable} fails
+     */
+    public void render(GraphQLTypeDescriptor type, Appendable out) throws IOException {
+        // schema type
+        this.addSchemaType(type, out);
+        // operation name
+        this.addOperationName(type, out);
+        // schema implementation
+        this.addImplementation(type, out);
+
+        this.addSpecialCharacters(out, "delimiter-start");
+
+        this.addSchemaFields(type, out);
+
+        this.addSpecialCharacters(out, "delimiter-end");
+
+        this.addSpecialCharacters(out, "new-line");
+    }
+
+    /**
+     * if schema type is query or mutation we will be adding keyword "extend" to
+     * all but the first one to avoid conflicts.
+     *
+     * @param type
+     * @param out
+     */
+    private void addExtension(GraphQLTypeDescriptor type, Appendable out) throws IOException {
+        switch (type.getSchemaType()) {
+        case QUERY:
+            if (isQuerySchemaBuild) {
+                out.append("extend ");
+            } else {
+                isQuerySchemaBuild = true;
+            }
+            break;
+        case MUTATION:
+            if (isMutationSchemaBuild) {
+                out.append("extend ");
+            } else {
+                isMutationSchemaBuild = true;
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * add schema action type which indicates whether its a query, mutation or etc.
+     *
+     * Example: <blockquote>
+     *
+     * <pre>
+     * type Book {}
+     * {@link GraphQLSchema.SchemaType#OBJECT}
+     *
+     * type Query{}
+     * {@link GraphQLSchema.SchemaType#QUERY}
+     *
+     * type Mutation{}
+     * {@link GraphQLSchema.SchemaType#MUTATION}
+     *
+     * interface Author{}
+     * {@link GraphQLSchema.SchemaType#INTERFACE}
+     *
+     * enum BookType{}
+     *  {@link GraphQLSchema.SchemaType#ENUM}
+     *
+     * input BookInput{}
+     *  {@link GraphQLSchema.SchemaType#INPUT}
+     *
+     * &#64;GraphQLSchema(type=?)
+     * class SampleDto{}
+     *
+     * </pre>
+     *
+     * </blockquote>
+     *
+     * @param type
+     * @param out
+     *
+     * @see https://www.apollographql.com/docs/apollo-server/schema/schema/
+     */
+    private void addSchemaType(GraphQLTypeDescriptor type, Appendable out) throws IOException {
+        SchemaType schemaType = type.getSchemaType();
+        this.addSpecialCharacters(out, "white-space");
+        if (schemaType != SchemaType.IMPLEMENTATION)
+            out.append(schemaType.type);
+        this.addSpecialCharacters(out, "white-space");
+    }
+
+    /**
+     * The operation name is a meaningful and explicit name for your operation. It
+     * is only required in multi-operation documents, but its use is encouraged
+     * because it is very helpful for debugging and server-side logging
+     *
+     * type Book {} {@link GraphQLSchema#operationName()}
+     *
+     * @param type
+     * @param out
+     * @see https://graphql.org/learn/queries/#operation-name
+     */
+    private void addOperationName(GraphQLTypeDescriptor type, Appendable out) throws IOException {
+        SchemaType mType = type.getSchemaType();
+        if (!(mType == SchemaType.QUERY || mType == SchemaType.MUTATION))
+            out.append(type.getOperationName());
+        this.addSpecialCharacters(out, "white-space");
+    }
+
+    /**
+     * add implementation syntax
+     *
+     * <pre>
+     * type Book implements Author {}
+     * {@link GraphQLSchema#baseSchemaClassRef()}
+     * {@link GraphQLSchema.SchemaType#IMPLEMENTATION}
+     * class Book{}
+     * </pre>
+     *
+     * @param type
+     * @param out
+     */
+    private void addImplementation(GraphQLTypeDescriptor type, Appendable out) throws IOException {
+        if (type.getImplementsName() == null) {
+            return;
+        }
+        // implements schema
+        out.append("implements ");
+        out.append(type.getImplementsName());
+    }
+
+    /**
+     * <blockquote>
+     *
+     * <pre>
+     *
+     * type Character {
+        id: ID!
+        name: String!
+        friends: [Character]
+        appearsIn: [Episode]!
+        }
+     * </pre>
+     *
+     * </blockquote>
+     *
+     * @param type
+     * @param out
+     * @see https://graphql.org/learn/queries/#fields
+     */
+    private void addSchemaFields(GraphQLTypeDescriptor type, Appendable out) throws IOException {
+        for (GraphQLFieldDescriptor field : type.getFields()) {
+            // key: type
+            out.append(field.getName());
+
+            if (type.getSchemaType() != SchemaType.ENUM) {
+                this.addSchemaFieldParams(field, out);
+                this.addSpecialCharacters(out, "key-indicator");
+                if (field.getFieldType() == FieldType.LIST) {
+                    this.addSpecialCharacters(out, "list-start");
+                    out.append(field.getTypeName());
+                    this.addSpecialCharacters(out, "list-end");
+                } else {
+                    out.append(field.getTypeName());
+                }
+                if (!field.isNullable())
+                    this.addSpecialCharacters(out, "not-null");
+            }
+
+            this.addSpecialCharacters(out, "new-line");
+        }
+    }
+
+    // params (key: type, key: type!, key: [type]!)
+    private void addSchemaFieldParams(GraphQLFieldDescriptor field, Appendable out) throws IOException {
+        if (field.getParameters().isEmpty()) {
+            return;
+        }
+
+        this.addSpecialCharacters(out, "param-start");
+
+        int index = 0;
+        for (GraphQLParameterDescriptor parameter : field.getParameters()) {
+            if (index > 0)
+                this.addSpecialCharacters(out, "param-seperator");
+
+            out.append(parameter.getName());
+            this.addSpecialCharacters(out, "key-indicator");
+            if (parameter.getParamType() == FieldType.LIST) {
+                this.addSpecialCharacters(out, "list-start");
+                out.append(parameter.getTypeName());
+                this.addSpecialCharacters(out, "list-end");
+            } else {
+                out.append(parameter.getTypeName());
+            }
+
+            if (!parameter.isNullable())
+                this.addSpecialCharacters(out, "not-null");
+
+            index++;
+        }
+
+        this.addSpecialCharacters(out, "param-end");
+    }
+
+    /**
+     * adds special characters which is used to build and pretify graphql schema
+     *
+     * <pre>
+     * "{" => delimiter-start
+     * "}" => delimiter-end
+     * "[" => list-start
+     * "!" => not-null
+     * "]" => list-end
+     * ":" => key-indicator
+     * "(" => param-start
+     * ")" => param-end
+     * </pre>
+     *
+     * @param out  {@link Appendable}
+     * @param type {@link String} indicates the type of special charaters that need
+     *             to be appended
+     */
+    private void addSpecialCharacters(Appendable out, String type) throws IOException {
+        switch (type) {
+        case "white-space":
+            out.append(" ");
+            break;
+        case "delimiter-start":
+            out.append("{\n");
+            break;
+        case "delimiter-end":
+            out.append("}\n");
+            break;
+        case "new-line":
+            out.append("\n");
+            break;
+        case "not-null":
+            out.append("!");
+            break;
+        case "list-start":
+            out.append("[");
+            break;
+        case "list-end":
+            out.append("]");
+            break;
+        case "key-indicator":
+            out.append(": ");
+            break;
+        case "param-start":
+            out.append("( ");
+            break;
+        case "param-end":
+            out.append(") ");
+            break;
+        case "param-seperator":
+            out.append(",");
+            break;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.SerializationError;
+import graphql.UnresolvedTypeError;
+import graphql.execution.ExecutionContext;
+import graphql.execution.ExecutionPath;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.ExecutionStrategy;
+import graphql.execution.ExecutionStrategyParameters;
+import graphql.execution.FieldCollectorParameters;
+import graphql.execution.NonNullableFieldWasNullError;
+import graphql.execution.NonNullableFieldWasNullException;
+import graphql.execution.UnresolvedTypeException;
+import graphql.language.Field;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLType;
+
+/**
+ * Executes an operation field by field and writes every value to a
+ * {@link JsonGenerator} as soon as it is complete, instead of building the
+ * result maps of graphql-java.
+ *
+ * <pre>
+ * "data": {"docs": [{"title": "...", "url": "..."}, ...]}
+ * </pre>
+ *
+ * The fields are resolved depth first in the order of the query. A list is
+ * iterated once and every element is written before the next one is taken,
+ * so the strategy keeps one frame per nesting level and nothing of the
+ * written result, a data fetcher which returns a lazy {@link Iterable} is
+ * never held in memory as a whole.
+ *
+ * <p>
+ * Since written values can not be taken back, a <code>null</code> of a
+ * non-null field is reported as an error but does not null its parent, and
+ * batch loaders are dispatched per field instead of per level. Instrumentations
+ * see the fetch of every field but not its completion, there is no
+ * {@link ExecutionResult} per field. The returned result has the errors and no
+ * data. One instance writes one response.
+ * </p>
+ *
+ * @author Yogaraj
+ */
+public class GraphQLStreamingExecutionStrategy extends ExecutionStrategy {
+
+    private final JsonGenerator generator;
+
+    /**
+     * @param generator receives the <code>"data"</code> field of the response,
+     *                  e.g. inside an object which the caller started
+     */
+    public GraphQLStreamingExecutionStrategy(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> execute(ExecutionContext executionContext,
+            ExecutionStrategyParameters parameters) {
+        try {
+            this.generator.writeFieldName("data");
+            this.writeObject(executionContext, parameters);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return CompletableFuture.completedFuture(new ExecutionResultImpl(null, executionContext.getErrors()));
+    }
+
+    private void writeObject(ExecutionContext executionContext, ExecutionStrategyParameters parameters)
+            throws IOException {
+        this.generator.writeStartObject();
+        for (Map.Entry<String, List<Field>> field : parameters.getFields().entrySet()) {
+            ExecutionStrategyParameters fieldParameters = parameters.transform(builder -> builder
+                    .field(field.getValue()).path(parameters.getPath().segment(field.getKey())).parent(parameters));
+            this.generator.writeFieldName(field.getKey());
+            this.writeField(executionContext, fieldParameters);
+        }
+        this.generator.writeEndObject();
+    }
+
+    private void writeField(ExecutionContext executionContext, ExecutionStrategyParameters parameters)
+            throws IOException {
+        CompletableFuture<Object> fetchedValue = this.fetchField(executionContext, parameters);
+        if (!fetchedValue.isDone() && executionContext.getDataLoaderRegistry() != null) {
+            // the values of batch loaders are loaded once they are dispatched
+            executionContext.getDataLoaderRegistry().dispatchAll();
+        }
+        Object value = fetchedValue.join();
+
+        GraphQLFieldDefinition fieldDefinition = this.getFieldDef(executionContext, parameters,
+                parameters.getField().get(0));
+        ExecutionStepInfo stepInfo = this.createExecutionStepInfo(executionContext, parameters, fieldDefinition);
+        this.writeValue(executionContext,
+                parameters.transform(builder -> builder.executionStepInfo(stepInfo).source(value)), value);
+    }
+
+    private void writeValue(ExecutionContext executionContext, ExecutionStrategyParameters parameters,
+            Object value) throws IOException {
+        ExecutionStepInfo stepInfo = parameters.getExecutionStepInfo();
+        Object result = this.unboxPossibleOptional(value);
+        GraphQLType type = stepInfo.getUnwrappedNonNullType();
+        if (result == null) {
+            this.writeNull(executionContext, parameters);
+        } else if (type instanceof GraphQLList) {
+            this.writeList(executionContext, parameters, result);
+        } else if (type instanceof GraphQLScalarType) {
+            this.writeSerialized(executionContext, parameters, ((GraphQLScalarType) type).getCoercing(), result);
+        } else if (type instanceof GraphQLEnumType) {
+            this.writeSerialized(executionContext, parameters, ((GraphQLEnumType) type).getCoercing(), result);
+        } else {
+            GraphQLObjectType objectType;
+            try {
+                objectType = this.resolveType(executionContext, parameters, type);
+            } catch (UnresolvedTypeException e) {
+                executionContext.addError(new UnresolvedTypeError(parameters.getPath(), stepInfo, e));
+                this.generator.writeNull();
+                return;
+            }
+            FieldCollectorParameters collectorParameters = FieldCollectorParameters.newParameters()
+                    .schema(executionContext.getGraphQLSchema()).objectType(objectType)
+                    .fragments(executionContext.getFragmentsByName()).variables(executionContext.getVariables())
+                    .build();
+            Map<String, List<Field>> fields = this.fieldCollector.collectFields(collectorParameters,
+                    parameters.getField());
+            ExecutionStepInfo objectStepInfo = stepInfo.changeTypeWithPreservedNonNull(objectType);
+            this.writeObject(executionContext, parameters
+                    .transform(builder -> builder.executionStepInfo(objectStepInfo).fields(fields).source(result)));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeList(ExecutionContext executionContext, ExecutionStrategyParameters parameters,
+            Object result) throws IOException {
+        // toIterable copies an Iterable into a collection, arrays and type mismatches are left to it
+        Iterable<Object> elements = result instanceof Iterable ? (Iterable<Object>) result
+                : this.toIterable(executionContext, parameters, result);
+        if (elements == null) {
+            this.writeNull(executionContext, parameters);
+            return;
+        }
+        ExecutionStepInfo stepInfo = parameters.getExecutionStepInfo();
+        GraphQLType elementType = ((GraphQLList) stepInfo.getUnwrappedNonNullType()).getWrappedType();
+        this.generator.writeStartArray();
+        int index = 0;
+        for (Object element : elements) {
+            int elementIndex = index++;
+            ExecutionPath elementPath = parameters.getPath().segment(elementIndex);
+            ExecutionStepInfo elementStepInfo = ExecutionStepInfo.newExecutionStepInfo().type(elementType)
+                    .path(elementPath).parentInfo(stepInfo).fieldDefinition(stepInfo.getFieldDefinition())
+                    .field(stepInfo.getField()).arguments(stepInfo.getArguments()).build();
+            this.writeValue(executionContext, parameters.transform(builder -> builder
+                    .executionStepInfo(elementStepInfo).path(elementPath).currentListIndex(elementIndex)
+                    .source(element)), element);
+        }
+        this.generator.writeEndArray();
+    }
+
+    private void writeSerialized(ExecutionContext executionContext, ExecutionStrategyParameters parameters,
+            Coercing<?, ?> coercing, Object result) throws IOException {
+        Object serialized;
+        try {
+            serialized = coercing.serialize(result);
+        } catch (CoercingSerializeException e) {
+            executionContext.addError(new SerializationError(parameters.getPath(), e), parameters.getPath());
+            serialized = null;
+        }
+        if (serialized instanceof String) {
+            this.generator.writeString((String) serialized);
+        } else if (serialized instanceof Boolean) {
+            this.generator.writeBoolean((Boolean) serialized);
+        } else if (serialized instanceof Integer || serialized instanceof Long || serialized instanceof Short
+                || serialized instanceof Byte) {
+            this.generator.writeNumber(((Number) serialized).longValue());
+        } else if ((serialized instanceof Double && !((Double) serialized).isNaN())
+                || serialized instanceof Float) {
+            this.generator.writeNumber(((Number) serialized).doubleValue());
+        } else if (serialized instanceof BigDecimal) {
+            this.generator.writeNumber((BigDecimal) serialized);
+        } else if (serialized instanceof BigInteger) {
+            this.generator.writeNumber((BigInteger) serialized);
+        } else if (serialized == null || serialized instanceof Double) {
+            this.writeNull(executionContext, parameters);
+        } else {
+            // values of custom scalars
+            this.generator.writeObject(serialized);
+        }
+    }
+
+    /**
+     * the parent is already written, a null of a non-null field is only reported
+     */
+    private void writeNull(ExecutionContext executionContext, ExecutionStrategyParameters parameters)
+            throws IOException {
+        ExecutionStepInfo stepInfo = parameters.getExecutionStepInfo();
+        if (stepInfo.isNonNullType()) {
+            executionContext.addError(
+                    new NonNullableFieldWasNullError(new NonNullableFieldWasNullException(stepInfo,
+                            parameters.getPath())),
+                    parameters.getPath());
+        }
+        this.generator.writeNull();
+    }
+}
@@ -0,0 +1,124 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.CacheScope;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+/**
+ * Resolved form of a class annotated with {@link GraphQLSchema}. Descriptors are
+ * built either reflectively by {@link GraphQlSchemaGenerator} or at compile time
+ * by {@link GraphQLSchemaProcessor}, and both are rendered by
+ * {@link GraphQLSchemaWriter} so the two paths emit the same schema.
+ *
+ * @author Yogaraj
+ */
+public final class GraphQLTypeDescriptor {
+
+    private final String className;
+
+    private final SchemaType schemaType;
+
+    private final String operationName;
+
+    private final String implementsName;
+
+    private final List<GraphQLFieldDescriptor> fields;
+
+    private final Set<String> referencedClassNames;
+
+    private final String tableName;
+
+    private final int maxAge;
+
+    private final CacheScope cacheScope;
+
+    /**
+     * @param className      binary name of the annotated class
+     * @param schemaType
+     * @param operationName
+     * @param implementsName operation name of the implemented schema, or
+     *                       <code>null</code>
+     * @param fields
+     * @param referencedClassNames binary names of the other schema classes whose
+     *                             operation names are used by this type
+     */
+    public GraphQLTypeDescriptor(String className, SchemaType schemaType, String operationName,
+            String implementsName, List<GraphQLFieldDescriptor> fields, Set<String> referencedClassNames) {
+        this(className, schemaType, operationName, implementsName, fields, referencedClassNames, null);
+    }
+
+    /**
+     * @param tableName {@link GraphQLSchema#table()} or <code>null</code>
+     */
+    public GraphQLTypeDescriptor(String className, SchemaType schemaType, String operationName,
+            String implementsName, List<GraphQLFieldDescriptor> fields, Set<String> referencedClassNames,
+            String tableName) {
+        this(className, schemaType, operationName, implementsName, fields, referencedClassNames, tableName, -1,
+                CacheScope.PUBLIC);
+    }
+
+    /**
+     * @param maxAge     {@link GraphQLSchema#maxAge()}, <code>-1</code> without a
+     *                   hint
+     * @param cacheScope {@link GraphQLSchema#cacheScope()}
+     */
+    public GraphQLTypeDescriptor(String className, SchemaType schemaType, String operationName,
+            String implementsName, List<GraphQLFieldDescriptor> fields, Set<String> referencedClassNames,
+            String tableName, int maxAge, CacheScope cacheScope) {
+        this.className = className;
+        this.schemaType = schemaType;
+        this.operationName = operationName;
+        this.implementsName = implementsName;
+        this.fields = Collections.unmodifiableList(fields);
+        this.referencedClassNames = Collections.unmodifiableSet(referencedClassNames);
+        this.tableName = tableName;
+        this.maxAge = maxAge;
+        this.cacheScope = cacheScope;
+    }
+
+    public String getClassName() {
+        return this.className;
+    }
+
+    public SchemaType getSchemaType() {
+        return this.schemaType;
+    }
+
+    public String getOperationName() {
+        return this.operationName;
+    }
+
+    public String getImplementsName() {
+        return this.implementsName;
+    }
+
+    public List<GraphQLFieldDescriptor> getFields() {
+        return this.fields;
+    }
+
+    public Set<String> getReferencedClassNames() {
+        return this.referencedClassNames;
+    }
+
+    /**
+     * @return table of the type or <code>null</code> when it is not mapped
+     */
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    /**
+     * @return seconds the values of fields of this type may be cached or
+     *         <code>-1</code> when the type declares no hint
+     */
+    public int getMaxAge() {
+        return this.maxAge;
+    }
+
+    public CacheScope getCacheScope() {
+        return this.cacheScope;
+    }
+}
@@ -1,21 +1,38 @@
 package com.yogaraj.graphql.schemagenerator;
 
-import java.lang.reflect.Field;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
 import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
 
-import org.springframework.beans.factory.config.BeanDefinition;
-import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
-import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.stereotype.Component;
 
 /**
  * GraphQLSchemaGenerator ligh-weigth java component which converts Java DTO
  * classes into graphQL schema. This class uses
- * {@link ClassPathScanningCandidateComponentProvider} to find the components
- * which are involved in schema generation process.
+ * {@link GraphQLSchemaClassReader} to find the components which are involved
+ * in schema generation process and to read their annotations from the class
+ * files, without loading the classes.
  * 
  * <p>
  * The primary need for creating GraphQlSchemaGenerator is there is no proper
@@ -36,7 +53,30 @@ import org.springframework.stereotype.Component;
  * </blockquote>
  * 
  * once schema is generated we can get the generated schema {@link String} using
- * {@link GraphQlSchemaGenerator#getSchema()}
+ * {@link GraphQlSchemaGenerator#getSchema()}. Large schemas can be streamed
+ * with {@link GraphQlSchemaGenerator#generateSchema(Appendable, String...)}
+ * instead, without holding the whole schema in memory.
+ * 
+ * <p>
+ * Every generation has its own state, so one generator may generate the
+ * schemas of different package sets from many threads at once.
+ * {@link GraphQlSchemaGenerator#generate(String...)} returns the schema as an
+ * immutable {@link GraphQLGeneratedSchema}, {@link GraphQLSchemaTenantCache}
+ * keeps them per package set. The setters configure the generator and are
+ * called before it is shared.
+ * </p>
+ * 
+ * <p>
+ * When {@link GraphQLSchemaProcessor} runs during compilation the schema is
+ * rendered at build time. {@link GraphQlSchemaGenerator#loadSchema(String...)}
+ * then reads the precompiled resource and
+ * {@link GraphQlSchemaGenerator#loadExecutableSchema(GraphQLExecutableSchemaBuilder, String...)}
+ * the precompiled types. Neither lists nor reads a class file: they only look up
+ * the directories of the packages on the classpath and fall back to scanning
+ * when another classpath root, e.g. a second jar, holds classes of the packages.
+ * The recorded class names are compared with a scan only on request, see
+ * {@link GraphQlSchemaGenerator#setVerifyPrecompiledSchema(boolean)}.
+ * </p>
  * 
  * @author Yogaraj
  * @see https://graphql.org/learn/schema
@@ -44,385 +84,737 @@ import org.springframework.stereotype.Component;
 @Component
 public class GraphQlSchemaGenerator {
 
-    private String generatedSchema = "";
+    /**
+     * fully qualified name of the loader class emitted by
+     * {@link GraphQLSchemaProcessor}
+     */
+    static final String PRECOMPILED_SCHEMA_CLASS = "com.yogaraj.graphql.schemagenerator.generated.PrecompiledGraphQLSchema";
+
+    private volatile GraphQLGeneratedSchema generatedSchema;
+
+    /**
+     * only renders fragments, which does not change the state of the writer
+     */
+    private final GraphQLSchemaWriter fragmentWriter = new GraphQLSchemaWriter();
+
+    private final ClassLoader classLoader;
+
+    private Executor executor;
+
+    private GraphQLSchemaCache schemaCache;
+
+    private GraphQLSchemaMetrics metrics = GraphQLSchemaMetrics.NONE;
+
+    private boolean pruneUnreachableTypes;
+
+    private boolean verifyPrecompiledSchema;
 
     private Logger logger = Logger.getLogger(GraphQlSchemaGenerator.class.getSimpleName());
 
+    public GraphQlSchemaGenerator() {
+        this(GraphQlSchemaGenerator.class.getClassLoader());
+    }
+
+    /**
+     * @param classLoader {@link ClassLoader} used to scan and load the schema
+     *                    classes
+     */
+    public GraphQlSchemaGenerator(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * generates the schema fragments of the scanned packages and classes
+     * concurrently on the given {@link Executor}, e.g.
+     * {@link java.util.concurrent.ForkJoinPool#commonPool()}. The output is the
+     * same as the sequential generation which is used when no executor is set.
+     *
+     * @param executor {@link Executor} or <code>null</code>
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
     /**
-     * since multiple Query and Mutation will be created its necessary to use
-     * GraphQL's "extend" functionality to avoid conflits.
-     * 
-     * @see https://docs.reactioncommerce.com/docs/how-to-extend-graphql-to-add-field
+     * reuses the schema of an earlier run when the class files of the scanned
+     * packages did not change, see {@link GraphQLSchemaCache}
+     *
+     * @param schemaCache {@link GraphQLSchemaCache} or <code>null</code>
      */
-    boolean isQuerySchemaBuild, isMutationSchemaBuild;
+    public void setSchemaCache(GraphQLSchemaCache schemaCache) {
+        this.schemaCache = schemaCache;
+    }
 
-    private void appendSchema(String schema) {
-        generatedSchema = generatedSchema.concat(schema);
+    /**
+     * records the time of every generation phase and the size of the schema
+     *
+     * @param metrics {@link GraphQLSchemaMetrics} or <code>null</code>
+     */
+    public void setMetrics(GraphQLSchemaMetrics metrics) {
+        this.metrics = metrics == null ? GraphQLSchemaMetrics.NONE : metrics;
     }
 
     /**
+     * compares the classes a precompiled schema was built from with a scan of
+     * the packages before it is used, which reads every class file of the
+     * packages. Without it only the classpath roots of the packages are
+     * checked, a class which was added to the same root after the compilation
+     * is not noticed.
+     */
+    public void setVerifyPrecompiledSchema(boolean verifyPrecompiledSchema) {
+        this.verifyPrecompiledSchema = verifyPrecompiledSchema;
+    }
+
+    /**
+     * emits only the types which are reachable from the Query and Mutation roots,
+     * see {@link GraphQLSchemaPruner}. The types are read completely before the
+     * first one is written.
+     *
+     * @param pruneUnreachableTypes
+     */
+    public void setPruneUnreachableTypes(boolean pruneUnreachableTypes) {
+        this.pruneUnreachableTypes = pruneUnreachableTypes;
+    }
+
+    /**
+     * @return class names of the types which the last generation of
+     *         {@link GraphQlSchemaGenerator#generateSchema(String...)} pruned
+     */
+    public List<String> getPrunedClassNames() {
+        GraphQLGeneratedSchema schema = this.generatedSchema;
+        return schema == null ? Collections.emptyList() : schema.getPrunedClassNames();
+    }
+
+    /**
+     * loads the schema which {@link GraphQLSchemaProcessor} rendered at compile
+     * time for the same packages. Falls back to
+     * {@link GraphQlSchemaGenerator#generateSchema(String...)} when no
+     * precompiled schema is available. The schema replaces the schema of
+     * {@link GraphQlSchemaGenerator#getSchema()}.
+     *
      * @throws ClassNotFoundException when accessing {@link Class} objects
      * @throws SecurityException      when accessing private fields
      * @throws NullPointerException   when accessing {@link Class} objects,
      */
-    public void generateSchema(String... packages)
+    public void loadSchema(String... packages)
             throws ClassNotFoundException, SecurityException, NullPointerException {
+        this.generatedSchema = this.load(packages);
+    }
 
-        this.printLogMessage("START: GraphQL schema generation ");
+    /**
+     * like {@link GraphQlSchemaGenerator#loadSchema(String...)}, without changing
+     * the schema of the generator
+     *
+     * @throws ClassNotFoundException when a referenced class file is missing
+     */
+    public GraphQLGeneratedSchema load(String... packages) throws ClassNotFoundException {
+        String precompiledSchema = this.loadPrecompiledSchema(packages);
+        if (precompiledSchema == null) {
+            return this.generate(packages);
+        }
+        this.printLogMessage("LOADED: precompiled GraphQL schema");
+        return new GraphQLGeneratedSchema(packages, precompiledSchema, Collections.emptyList());
+    }
 
-        final ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(
-                true);
-        provider.addIncludeFilter(new AnnotationTypeFilter(GraphQLSchema.class));
+    private String loadPrecompiledSchema(String... packages) {
+        Class<?> precompiledClass = this.findPrecompiledClass(packages);
+        if (precompiledClass == null) {
+            return null;
+        }
+        try {
+            return (String) precompiledClass.getMethod("load").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            this.printLogMessage("IGNORING: precompiled schema since it could not be read: " + e.getCause());
+            return null;
+        }
+    }
 
-        // get list of classes which are annotated by {@link GraphQLSchema}
-        for (String sPackage : packages) {
-            for (BeanDefinition definition : provider.findCandidateComponents(sPackage)) {
+    /**
+     * @return types of the precompiled {@link GraphQLSchemaBinary} or
+     *         <code>null</code> when there is none for the packages
+     */
+    private List<GraphQLTypeDescriptor> loadPrecompiledTypes(String... packages) {
+        Class<?> precompiledClass = this.findPrecompiledClass(packages);
+        if (precompiledClass == null) {
+            return null;
+        }
+        try {
+            byte[] binarySchema = (byte[]) precompiledClass.getMethod("loadBinary").invoke(null);
+            return GraphQLSchemaBinary.read(ByteBuffer.wrap(binarySchema)).readTypes();
+        } catch (ReflectiveOperationException e) {
+            this.printLogMessage("IGNORING: precompiled types since they could not be read: " + e.getCause());
+        } catch (IOException e) {
+            this.printLogMessage("IGNORING: precompiled types since they could not be read: " + e);
+        }
+        return null;
+    }
 
-                Class<?> graphQLClass = Class.forName(definition.getBeanClassName());
-                GraphQLSchema sGraphQLSchema = graphQLClass.getAnnotation(GraphQLSchema.class);
-                if (sGraphQLSchema == null) {
-                    this.printLogMessage("IGNORING: Class " + graphQLClass.getName() + " should be annotated");
-                    continue;
+    /**
+     * @return loader class of the precompiled schema when it was built for the
+     *         packages and options of this generator, otherwise
+     *         <code>null</code>
+     */
+    private Class<?> findPrecompiledClass(String... packages) {
+        try {
+            Class<?> precompiledClass = Class.forName(PRECOMPILED_SCHEMA_CLASS, true, this.classLoader);
+            String[] precompiledPackages = (String[]) precompiledClass.getField("PACKAGES").get(null);
+            if (!Arrays.equals(precompiledPackages, packages)) {
+                this.printLogMessage("IGNORING: precompiled schema since it was built for packages "
+                        + Arrays.toString(precompiledPackages));
+                return null;
+            }
+            if (precompiledClass.getField("PRUNED").getBoolean(null) != this.pruneUnreachableTypes) {
+                this.printLogMessage("IGNORING: precompiled schema since it was built with "
+                        + GraphQLSchemaProcessor.PRUNE_OPTION + "=" + !this.pruneUnreachableTypes);
+                return null;
+            }
+            // e.g. schema classes of the packages in other jars, which the compilation did not see
+            String otherRoot = this.findOtherRoot(precompiledClass, packages);
+            if (otherRoot != null) {
+                this.printLogMessage("IGNORING: precompiled schema since " + otherRoot
+                        + " holds classes of the packages as well");
+                return null;
+            }
+            if (this.verifyPrecompiledSchema) {
+                List<String> precompiledClassNames = Arrays
+                        .asList((String[]) precompiledClass.getField("CLASS_NAMES").get(null));
+                List<String> classNames = new GraphQLSchemaClassReader(this.classLoader, this.metrics)
+                        .findSchemaClassNames(packages);
+                if (!precompiledClassNames.equals(classNames)) {
+                    this.printLogMessage("IGNORING: precompiled schema since it was built from "
+                            + precompiledClassNames.size() + " schema classes, " + classNames.size()
+                            + " are on the classpath");
+                    return null;
                 }
+            }
+            return precompiledClass;
+        } catch (ClassNotFoundException e) {
+            this.printLogMessage("IGNORING: precompiled schema since " + PRECOMPILED_SCHEMA_CLASS + " is missing");
+        } catch (ReflectiveOperationException e) {
+            this.printLogMessage("IGNORING: precompiled schema since it could not be read: " + e);
+        } catch (IOException e) {
+            this.printLogMessage("IGNORING: precompiled schema since the classpath could not be read: " + e);
+        }
+        return null;
+    }
 
-                StringBuilder schemaBuilder = new StringBuilder();
+    /**
+     * looks up the directory of every package, which neither lists nor reads
+     * the classes in it
+     *
+     * @return classpath root other than the one of the precompiled schema which
+     *         has a directory of the packages or <code>null</code>
+     */
+    private String findOtherRoot(Class<?> precompiledClass, String... packages) throws IOException {
+        String classResource = precompiledClass.getName().replace('.', '/') + ".class";
+        URL classUrl = this.classLoader.getResource(classResource);
+        if (classUrl == null) {
+            throw new IOException(classResource + " is not a resource");
+        }
+        String root = classUrl.toString().substring(0, classUrl.toString().length() - classResource.length());
+        for (String sPackage : packages) {
+            String packageResource = sPackage.replace('.', '/') + "/";
+            Enumeration<URL> packageUrls = this.classLoader.getResources(packageResource);
+            while (packageUrls.hasMoreElements()) {
+                String packageUrl = packageUrls.nextElement().toString();
+                if (!packageUrl.equals(root + packageResource)) {
+                    return packageUrl;
+                }
+            }
+        }
+        return null;
+    }
 
-                this.addSpecialCharacters(schemaBuilder, "new-line");
-                // schema type
-                this.addSchemaType(sGraphQLSchema, schemaBuilder);
+    /**
+     * generates the schema of {@link GraphQlSchemaGenerator#getSchema()}, a
+     * schema of an earlier call is replaced
+     *
+     * @throws ClassNotFoundException when accessing {@link Class} objects
+     * @throws SecurityException      when accessing private fields
+     * @throws NullPointerException   when accessing {@link Class} objects,
+     */
+    public void generateSchema(String... packages)
+            throws ClassNotFoundException, SecurityException, NullPointerException {
+        this.generatedSchema = this.generate(packages);
+    }
 
-                // operation name
-                this.addOperationName(sGraphQLSchema, schemaBuilder);
-                // schema implementation
-                this.addImplementation(sGraphQLSchema, schemaBuilder);
+    /**
+     * generates the schema of the packages without changing the schema of the
+     * generator, may be called from multiple threads at once
+     *
+     * @throws ClassNotFoundException when a referenced class file is missing
+     */
+    public GraphQLGeneratedSchema generate(String... packages) throws ClassNotFoundException {
+        GraphQLSchemaCache.Fingerprint fingerprint = this.fingerprint(packages);
+        if (fingerprint != null) {
+            GraphQLSchemaCache.Entry cachedEntry = this.schemaCache.load(fingerprint);
+            if (cachedEntry != null) {
+                return new GraphQLGeneratedSchema(packages, cachedEntry.getSchema(),
+                        cachedEntry.getPrunedClassNames());
+            }
+        }
 
-                this.addSpecialCharacters(schemaBuilder, "delimiter-start");
+        StringBuilder schemaBuilder = new StringBuilder();
+        List<String> prunedClassNames;
+        try {
+            prunedClassNames = this.writeSchema(schemaBuilder, packages);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String schema = schemaBuilder.toString();
+        this.printDebugMessage(schema);
+
+        if (fingerprint != null) {
+            try {
+                this.schemaCache.store(fingerprint, schema, prunedClassNames);
+            } catch (IOException e) {
+                this.printLogMessage("IGNORING: schema cache could not be written: " + e);
+            }
+        }
+        return new GraphQLGeneratedSchema(packages, schema, prunedClassNames);
+    }
 
-                this.addSchemaFields(schemaBuilder, graphQLClass, sGraphQLSchema);
+    /**
+     * @return <code>null</code> when no cache is set or the classpath can not be
+     *         listed
+     */
+    private GraphQLSchemaCache.Fingerprint fingerprint(String... packages) {
+        if (this.schemaCache == null) {
+            return null;
+        }
+        try {
+            GraphQLSchemaCache.Fingerprint fingerprint = this.schemaCache.fingerprint(this.classLoader, packages);
+            // a pruned schema is a different schema of the same classes
+            return this.pruneUnreachableTypes ? fingerprint.withOption(GraphQLSchemaProcessor.PRUNE_OPTION)
+                    : fingerprint;
+        } catch (IOException e) {
+            this.printLogMessage("IGNORING: schema cache since the classpath could not be listed: " + e);
+            return null;
+        }
+    }
 
-                this.addSpecialCharacters(schemaBuilder, "delimiter-end");
+    /**
+     * streams the schema to a {@link WritableByteChannel} in UTF-8, e.g. a
+     * {@link java.nio.channels.FileChannel} or
+     * {@link java.nio.channels.Channels#newChannel(java.io.OutputStream)} of a
+     * servlet response or gzip stream. The channel is not closed.
+     *
+     * @throws IOException            when writing to the channel fails
+     * @throws ClassNotFoundException when accessing {@link Class} objects
+     */
+    public void generateSchema(WritableByteChannel channel, String... packages)
+            throws IOException, ClassNotFoundException, SecurityException, NullPointerException {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        this.generateSchema(writer, packages);
+        writer.flush();
+    }
 
-                this.addSpecialCharacters(schemaBuilder, "new-line");
+    /**
+     * streams the schema to an {@link Appendable}. Every class fragment is written
+     * as soon as it is rendered and the schema is not kept by the generator, so
+     * {@link GraphQlSchemaGenerator#getSchema()} is not changed. Only the
+     * references between input types and the counts of the metrics are kept
+     * while streaming, a pruned schema keeps all types until it is written.
+     * <p>
+     * Input types which refer to themselves are reported as
+     * <code>INVALID</code> once the last fragment is written, since the check
+     * needs all types. The schema is complete either way, cycles do not stop the
+     * generation. A pruned schema is only written after all types are read, it
+     * is checked before its first fragment.
+     * </p>
+     *
+     * @throws IOException            when the {@link Appendable} fails
+     * @throws ClassNotFoundException when accessing {@link Class} objects
+     */
+    public void generateSchema(Appendable out, String... packages)
+            throws IOException, ClassNotFoundException, SecurityException, NullPointerException {
+        this.writeSchema(out, packages);
+    }
+
+    /**
+     * @return class names of the pruned types
+     */
+    private List<String> writeSchema(Appendable out, String... packages) throws IOException, ClassNotFoundException {
 
-                this.appendSchema(schemaBuilder.toString());
+        this.printLogMessage("START: GraphQL schema generation ");
+        long start = System.nanoTime();
+        PhaseTimes phaseTimes = new PhaseTimes();
+        WrittenTypes writtenTypes = new WrittenTypes();
+        List<String> prunedClassNames = Collections.emptyList();
+
+        // classes are read from their class files, they are neither loaded nor initialized
+        GraphQLSchemaClassReader classReader = new GraphQLSchemaClassReader(this.classLoader, this.metrics);
+        // the writer extends the Query and Mutation roots once they are written
+        GraphQLSchemaWriter schemaWriter = new GraphQLSchemaWriter();
+        if (this.pruneUnreachableTypes) {
+            GraphQLSchemaPruner.Result result = this.generatePrunedSchema(out, schemaWriter, classReader, phaseTimes,
+                    packages);
+            result.getTypes().forEach(writtenTypes::add);
+            prunedClassNames = result.getPrunedClassNames();
+        } else if (this.executor == null) {
+            List<String> classNames = classReader.findSchemaClassNames(packages);
+            long readStart = System.nanoTime();
+            phaseTimes.scan.add(readStart - start);
+            for (String className : classNames) {
+                GraphQLTypeDescriptor typeDescriptor = classReader.buildTypeDescriptor(className);
+                long renderStart = System.nanoTime();
+                phaseTimes.read.add(renderStart - readStart);
+                if (typeDescriptor != null && this.claim(classReader, typeDescriptor)) {
+                    writtenTypes.add(typeDescriptor);
+                    schemaWriter.write(typeDescriptor, out);
+                }
+                readStart = System.nanoTime();
+                phaseTimes.render.add(readStart - renderStart);
+            }
+        } else {
+            for (CompletableFuture<SchemaFragment> future : this.renderFragmentsAsync(classReader, phaseTimes,
+                    packages)) {
+                // fragments are written in scan order since only the first Query and Mutation is not extended
+                SchemaFragment fragment = this.joinFragment(future);
+                if (fragment != null && this.claim(classReader, fragment.type)) {
+                    writtenTypes.add(fragment.type);
+                    schemaWriter.write(fragment.type, fragment.body, out);
+                }
             }
         }
 
+        if (!this.pruneUnreachableTypes) {
+            // already streamed, see generateSchema(Appendable, String...)
+            this.checkInputCycles(writtenTypes.inputTypes);
+        }
+        this.metrics.recordScan(phaseTimes.scan.sum());
+        this.metrics.recordRead(phaseTimes.read.sum());
+        this.metrics.recordRender(phaseTimes.render.sum());
+        this.metrics.recordTotal(System.nanoTime() - start);
+        this.metrics.recordSchema(writtenTypes.classCount, writtenTypes.fieldCount, writtenTypes.parameterCount);
         this.printLogMessage("END: GraphQL schema generation ");
-        this.printLogMessage(this.generatedSchema);
-    }
-
-    /**
-     * add schema action type which indicates whether its a query, mutation or etc.
-     * 
-     * if schema type is query or mutation we will be adding keyword "extend" to
-     * avoid conflicts.
-     * 
-     * Example: <blockquote>
-     * 
-     * <pre>
-     * type Book {}
-     * {@link GraphQLSchema.SchemaType#OBJECT} 
-     * 
-     * type Query{}
-     * {@link GraphQLSchema.SchemaType#QUERY}
-     * 
-     * type Mutation{}
-     * {@link GraphQLSchema.SchemaType#MUTATION}
-     * 
-     * interface Author{}
-     * {@link GraphQLSchema.SchemaType#INTERFACE}
-     * 
-     * enum BookType{}
-     *  {@link GraphQLSchema.SchemaType#ENUM}
-     * 
-     * input BookInput{}
-     *  {@link GraphQLSchema.SchemaType#INPUT}
-     * 
-     * &#64;GraphQLSchema(type=?)
-     * class SampleDto{}
-     * 
-     * </pre>
-     * 
-     * </blockquote>
-     * 
-     * @param sGraphQLSchema
-     * @param schemaBuilder
-     * 
-     * @see https://www.apollographql.com/docs/apollo-server/schema/schema/
-     */
-    private void addSchemaType(GraphQLSchema sGraphQLSchema, StringBuilder schemaBuilder) {
-        GraphQLSchema.SchemaType schemaType = sGraphQLSchema.schemaType();
-        // check if extend is needed.
-        switch (schemaType) {
-        case QUERY:
-            if (isQuerySchemaBuild) {
-                schemaBuilder.append("extend ");
-            } else {
-                isQuerySchemaBuild = true;
+        return prunedClassNames;
+    }
+
+    /**
+     * reads every type, drops the unreachable ones and writes the rest in scan
+     * order
+     *
+     * @return written and pruned types
+     */
+    private GraphQLSchemaPruner.Result generatePrunedSchema(Appendable out, GraphQLSchemaWriter schemaWriter,
+            GraphQLSchemaClassReader classReader, PhaseTimes phaseTimes, String... packages)
+            throws IOException, ClassNotFoundException {
+        List<GraphQLTypeDescriptor> types = new ArrayList<>();
+        Map<String, CharSequence> bodies = new HashMap<>();
+        if (this.executor == null) {
+            long start = System.nanoTime();
+            List<String> classNames = classReader.findSchemaClassNames(packages);
+            long readStart = System.nanoTime();
+            phaseTimes.scan.add(readStart - start);
+            for (String className : classNames) {
+                GraphQLTypeDescriptor typeDescriptor = classReader.buildTypeDescriptor(className);
+                if (typeDescriptor != null && this.claim(classReader, typeDescriptor)) {
+                    types.add(typeDescriptor);
+                }
+            }
+            phaseTimes.read.add(System.nanoTime() - readStart);
+        } else {
+            for (CompletableFuture<SchemaFragment> future : this.renderFragmentsAsync(classReader, phaseTimes,
+                    packages)) {
+                SchemaFragment fragment = this.joinFragment(future);
+                if (fragment != null && this.claim(classReader, fragment.type)) {
+                    types.add(fragment.type);
+                    bodies.put(fragment.type.getClassName(), fragment.body);
+                }
             }
-            break;
-        case MUTATION:
-            if (isMutationSchemaBuild) {
-                schemaBuilder.append("extend ");
+        }
+
+        this.checkInputCycles(types);
+        GraphQLSchemaPruner.Result result = GraphQLSchemaPruner.prune(types);
+        List<String> prunedClassNames = result.getPrunedClassNames();
+        this.metrics.pruned(prunedClassNames.size());
+        for (String className : prunedClassNames) {
+            this.printDebugMessage("PRUNED: " + className + " is not reachable from Query or Mutation");
+        }
+        this.printLogMessage("PRUNED: " + prunedClassNames.size() + " of " + types.size() + " types");
+
+        long renderStart = System.nanoTime();
+        for (GraphQLTypeDescriptor type : result.getTypes()) {
+            CharSequence body = bodies.get(type.getClassName());
+            if (body == null) {
+                schemaWriter.write(type, out);
             } else {
-                isMutationSchemaBuild = true;
+                schemaWriter.write(type, body, out);
             }
-            break;
-        default:
-            break;
         }
-        this.addSpecialCharacters(schemaBuilder, "white-space");
-        if (schemaType != SchemaType.IMPLEMENTATION)
-            schemaBuilder.append(schemaType.type);
-        this.addSpecialCharacters(schemaBuilder, "white-space");
-    }
-
-    /**
-     * The operation name is a meaningful and explicit name for your operation. It
-     * is only required in multi-operation documents, but its use is encouraged
-     * because it is very helpful for debugging and server-side logging
-     * 
-     * type Book {} {@link GraphQLSchema#operationName()}
-     * 
-     * @param sGraphQLSchema
-     * @param schemaBuilder
-     * @see https://graphql.org/learn/queries/#operation-name
-     */
-    private void addOperationName(GraphQLSchema sGraphQLSchema, StringBuilder schemaBuilder) {
-        SchemaType mType = sGraphQLSchema.schemaType();
-        if (!(mType == SchemaType.QUERY || mType == SchemaType.MUTATION))
-            schemaBuilder.append(sGraphQLSchema.operationName());
-        this.addSpecialCharacters(schemaBuilder, "white-space");
-    }
-
-    /**
-     * add implementation syntax
-     * 
-     * <pre>
-     * type Book implements Author {}
-     * {@link GraphQLSchema#baseSchemaClassRef()}
-     * {@link GraphQLSchema.SchemaType#IMPLEMENTATION}
-     * class Book{}
-     * </pre>
-     * 
-     * @param sGraphQLSchema
-     * @param schemaBuilder
-     */
-    private void addImplementation(GraphQLSchema sGraphQLSchema, StringBuilder schemaBuilder) {
-        if (sGraphQLSchema.schemaType() != SchemaType.IMPLEMENTATION) {
-            return;
+        phaseTimes.render.add(System.nanoTime() - renderStart);
+        return result;
+    }
+
+    /**
+     * builds the executable schema from the types which
+     * {@link GraphQLSchemaProcessor} resolved at compile time, like
+     * {@link GraphQlSchemaGenerator#loadSchema(String...)} the schema text. Falls
+     * back to
+     * {@link GraphQlSchemaGenerator#generateExecutableSchema(GraphQLExecutableSchemaBuilder, String...)}
+     * when no precompiled types are available.
+     *
+     * @param schemaBuilder {@link GraphQLExecutableSchemaBuilder} with the data
+     *                      fetchers of the schema
+     * @throws ClassNotFoundException when a referenced class file is missing
+     */
+    public graphql.schema.GraphQLSchema loadExecutableSchema(GraphQLExecutableSchemaBuilder schemaBuilder,
+            String... packages) throws ClassNotFoundException {
+        List<GraphQLTypeDescriptor> types = this.loadPrecompiledTypes(packages);
+        if (types == null) {
+            return this.generateExecutableSchema(schemaBuilder, packages);
+        }
+        this.printLogMessage("LOADED: precompiled GraphQL types");
+        types.forEach(schemaBuilder::type);
+        return schemaBuilder.classLoader(this.classLoader).build();
+    }
+
+    /**
+     * builds an executable graphql-java schema from the annotations, without
+     * rendering and parsing schema text. The schema text can be printed on demand
+     * with {@link graphql.schema.idl.SchemaPrinter}.
+     *
+     * @throws ClassNotFoundException when a referenced class file is missing
+     * @see GraphQLExecutableSchemaBuilder
+     */
+    public graphql.schema.GraphQLSchema generateExecutableSchema(String... packages) throws ClassNotFoundException {
+        return this.generateExecutableSchema(new GraphQLExecutableSchemaBuilder(), packages);
+    }
+
+    /**
+     * @param schemaBuilder {@link GraphQLExecutableSchemaBuilder} with the data
+     *                      fetchers of the schema
+     * @throws ClassNotFoundException when a referenced class file is missing
+     */
+    public graphql.schema.GraphQLSchema generateExecutableSchema(GraphQLExecutableSchemaBuilder schemaBuilder,
+            String... packages) throws ClassNotFoundException {
+        for (GraphQLTypeDescriptor typeDescriptor : this.readTypeDescriptors(packages)) {
+            schemaBuilder.type(typeDescriptor);
         }
-        if (sGraphQLSchema.baseSchemaClassRef() == Class.class) {
-            this.printLogMessage("IGNORING: Class implementation since no class reference is provided");
-            return;
+        return schemaBuilder.classLoader(this.classLoader).build();
+    }
+
+    /**
+     * writes the resolved types in the compact form of
+     * {@link GraphQLSchemaBinary}, which nodes load without scanning classes or
+     * parsing schema text. The stream is not closed.
+     *
+     * @throws IOException            when writing to the stream fails
+     * @throws ClassNotFoundException when a referenced class file is missing
+     */
+    public void generateBinarySchema(OutputStream out, String... packages)
+            throws IOException, ClassNotFoundException {
+        GraphQLSchemaBinary.write(this.readTypeDescriptors(packages), out);
+    }
+
+    /**
+     * @return types of the packages in scan order, without the types which are
+     *         pruned or whose operation name is already used
+     */
+    private List<GraphQLTypeDescriptor> readTypeDescriptors(String... packages) throws ClassNotFoundException {
+        GraphQLSchemaClassReader classReader = new GraphQLSchemaClassReader(this.classLoader, this.metrics);
+        List<GraphQLTypeDescriptor> types = new ArrayList<>();
+        for (String className : classReader.findSchemaClassNames(packages)) {
+            GraphQLTypeDescriptor typeDescriptor = classReader.buildTypeDescriptor(className);
+            if (typeDescriptor != null && this.claim(classReader, typeDescriptor)) {
+                types.add(typeDescriptor);
+            }
         }
-        // verify if the extending class is a graphQL schema
-        Class<?> baseSchemaClass = sGraphQLSchema.baseSchemaClassRef();
-        GraphQLSchema bGraphQLSchema = baseSchemaClass.getAnnotation(GraphQLSchema.class);
-        if (bGraphQLSchema == null) {
-            this.printLogMessage("IGNORING: Class implementation since invalid class reference is provided");
-            return;
+        this.checkInputCycles(types);
+        if (this.pruneUnreachableTypes) {
+            GraphQLSchemaPruner.Result result = GraphQLSchemaPruner.prune(types);
+            this.metrics.pruned(result.getPrunedClassNames().size());
+            types = result.getTypes();
         }
+        return types;
+    }
 
-        if (bGraphQLSchema.schemaType() != SchemaType.OBJECT) {
-            this.printLogMessage(
-                    "IGNORING: Class implementation since invalid class reference is provided (Need to be of type OBJECT)");
-            return;
+    /**
+     * only the first class of an operation name is part of the schema, Query and
+     * Mutation classes extend each other
+     *
+     * @return <code>false</code> when another class already uses the operation
+     *         name of the type
+     */
+    private boolean claim(GraphQLSchemaClassReader classReader, GraphQLTypeDescriptor type) {
+        String claimedClassName = classReader.getSymbolTable().claim(type);
+        if (claimedClassName == null) {
+            return true;
         }
+        this.metrics.invalid();
+        this.printLogMessage("IGNORING: Class " + type.getClassName() + " since operation name "
+                + type.getOperationName() + " is already used by " + claimedClassName);
+        return false;
+    }
 
-        // implements schema
-        schemaBuilder.append("implements ");
-        schemaBuilder.append(bGraphQLSchema.operationName());
+    /**
+     * input types which require themselves can not be passed, the schema is
+     * still emitted
+     */
+    private void checkInputCycles(List<GraphQLTypeDescriptor> types) {
+        for (List<String> cycle : GraphQLSchemaSymbolTable.findInputCycles(types)) {
+            this.metrics.invalid();
+            this.printLogMessage("INVALID: input types refer to themselves through non-null fields: "
+                    + String.join(" -> ", cycle) + " -> " + cycle.get(0));
+        }
     }
 
     /**
-     * <blockquote>
-     * 
-     * <pre>
-     * 
-     * type Character {
-        id: ID!
-        name: String!
-        friends: [Character]
-        appearsIn: [Episode]!
+     * scans every package and renders every class in a separate task. The
+     * returned futures are in the same order as
+     * {@link GraphQLSchemaClassReader#findSchemaClassNames(String...)}.
+     */
+    private List<CompletableFuture<SchemaFragment>> renderFragmentsAsync(GraphQLSchemaClassReader classReader,
+            PhaseTimes phaseTimes, String... packages) {
+        List<CompletableFuture<List<String>>> scans = new ArrayList<>(packages.length);
+        for (String sPackage : packages) {
+            scans.add(CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                List<String> classNames = classReader.findSchemaClassNames(sPackage);
+                phaseTimes.scan.add(System.nanoTime() - start);
+                return classNames;
+            }, this.executor));
         }
-     * </pre>
-     * 
-     * </blockquote>
-     * 
-     * @param schemaBuilder
-     * @param graphQLClass
-     * @param sGraphQLSchema
-     * @throws SecurityException
-     * @throws NullPointerException
-     * @see https://graphql.org/learn/queries/#fields
-     */
-    private void addSchemaFields(StringBuilder schemaBuilder, Class<?> graphQLClass, GraphQLSchema sGraphQLSchema)
-            throws SecurityException, NullPointerException {
-        Field[] fields = graphQLClass.getFields();
-
-        for (Field field : fields) {
-            if (!field.isAnnotationPresent(GraphQLField.class)) {
-                this.printLogMessage("IGNORING: field " + graphQLClass.getName() + " should be annotated");
-                continue;
-            }
-            GraphQLField mGraphQLField = field.getAnnotation(GraphQLField.class);
-            if (mGraphQLField == null) {
-                continue;
-            }
-            // key: type
-            String key = mGraphQLField.fieldName();
-            if (key == null || key.equals(""))
-                key = field.getName();
-
-            schemaBuilder.append(key);
-
-            if (sGraphQLSchema.schemaType() != SchemaType.ENUM) {
-                String type = mGraphQLField.fieldType().type;
-                if (mGraphQLField.fieldType() == FieldType.OBJECT) {
-                    Class<?> fieldObjectClass = field.getDeclaringClass();
-                    GraphQLSchema sFieldObjectSchema = fieldObjectClass.getAnnotation(GraphQLSchema.class);
-                    if (sFieldObjectSchema == null) {
-                        this.printLogMessage("IGNORING: field " + fieldObjectClass.getName() + " should be annotated");
-                        continue; // object should be annotated using graphql
+
+        List<CompletableFuture<SchemaFragment>> fragments = new ArrayList<>();
+        for (CompletableFuture<List<String>> scan : scans) {
+            for (String className : scan.join()) {
+                fragments.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return this.renderFragment(classReader, phaseTimes, className);
+                    } catch (ClassNotFoundException e) {
+                        throw new CompletionException(e);
                     }
-                    type = sFieldObjectSchema.operationName();
-                }
-                this.addSchemaFieldParams(mGraphQLField, schemaBuilder);
-                this.addSpecialCharacters(schemaBuilder, "key-indicator");
-                if (mGraphQLField.fieldType() == FieldType.LIST) {
-                    this.addSpecialCharacters(schemaBuilder, "list-start");
-                    schemaBuilder.append(type);
-                    this.addSpecialCharacters(schemaBuilder, "list-end");
-                } else {
-                    schemaBuilder.append(type);
-                }
-                if (!mGraphQLField.isNullable())
-                    this.addSpecialCharacters(schemaBuilder, "not-null");
+                }, this.executor));
             }
+        }
+        return fragments;
+    }
 
-            this.addSpecialCharacters(schemaBuilder, "new-line");
+    private SchemaFragment joinFragment(CompletableFuture<SchemaFragment> fragment) throws ClassNotFoundException {
+        try {
+            return fragment.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ClassNotFoundException) {
+                throw (ClassNotFoundException) e.getCause();
+            }
+            throw e;
         }
     }
 
-    // params (key: type, key: type!, key: [type]!)
-    private void addSchemaFieldParams(GraphQLField mGraphQLField, StringBuilder schemaBuilder) {
-        if (mGraphQLField.parameters().length == 0) {
-            return;
+    /**
+     * reads and renders one class, independent of all other classes
+     *
+     * @return <code>null</code> when the class is not annotated
+     */
+    private SchemaFragment renderFragment(GraphQLSchemaClassReader classReader, PhaseTimes phaseTimes,
+            String className) throws ClassNotFoundException {
+        long start = System.nanoTime();
+        GraphQLTypeDescriptor typeDescriptor = classReader.buildTypeDescriptor(className);
+        long renderStart = System.nanoTime();
+        phaseTimes.read.add(renderStart - start);
+        if (typeDescriptor == null) {
+            return null;
         }
 
-        StringBuilder paramBuilder = new StringBuilder();
+        StringBuilder fragmentBuilder = new StringBuilder();
+        try {
+            this.fragmentWriter.render(typeDescriptor, fragmentBuilder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        phaseTimes.render.add(System.nanoTime() - renderStart);
+        return new SchemaFragment(typeDescriptor, fragmentBuilder.toString());
+    }
 
-        int index = 0;
-        for (GraphQLFieldParameter gFieldParameter : mGraphQLField.parameters()) {
-            if (index > 0)
-                this.addSpecialCharacters(paramBuilder, "param-seperator");
+    /**
+     * resolves the annotations of a loaded class into a
+     * {@link GraphQLTypeDescriptor}, from its class file like every generation
+     *
+     * @param graphQLClass
+     * @return <code>null</code> when the class is not annotated
+     * @throws ClassNotFoundException when the class file of the class or of a
+     *                                referenced class is missing
+     */
+    public GraphQLTypeDescriptor buildTypeDescriptor(Class<?> graphQLClass) throws ClassNotFoundException {
+        return new GraphQLSchemaClassReader(graphQLClass.getClassLoader(), this.metrics)
+                .buildTypeDescriptor(graphQLClass.getName());
+    }
 
-            String key = gFieldParameter.paramName();
-            String type = gFieldParameter.paramType().type;
+    /**
+     * schema text of one class without the "extend" keyword
+     */
+    private static final class SchemaFragment {
 
-            if (gFieldParameter.paramType() == FieldType.OBJECT) {
+        private final GraphQLTypeDescriptor type;
 
-                Class<?> fieldParamObjectClass = gFieldParameter.paramObjectClass();
-                if (fieldParamObjectClass == Class.class) {
-                    this.printLogMessage(
-                            "IGNORING: param " + key + " is of type object but no class reference is provided");
-                    continue;
-                }
-                GraphQLSchema sFieldObjectSchema = fieldParamObjectClass.getAnnotation(GraphQLSchema.class);
-                if (sFieldObjectSchema == null) {
-                    this.printLogMessage("IGNORING: param " + fieldParamObjectClass.getName() + " should be annotated");
-                    continue; // object should be annotated using graphql
-                }
-                type = sFieldObjectSchema.operationName();
-            }
+        private final String body;
 
-            paramBuilder.append(key);
-            this.addSpecialCharacters(paramBuilder, "key-indicator");
-            if (gFieldParameter.paramType() == FieldType.LIST) {
-                this.addSpecialCharacters(paramBuilder, "list-start");
-                paramBuilder.append(type);
-                this.addSpecialCharacters(paramBuilder, "list-end");
-            } else {
-                paramBuilder.append(type);
-            }
+        private SchemaFragment(GraphQLTypeDescriptor type, String body) {
+            this.type = type;
+            this.body = body;
+        }
+    }
 
-            if (!gFieldParameter.isNullable())
-                this.addSpecialCharacters(paramBuilder, "not-null");
+    /**
+     * what is left of the written types of one generation: the counts of the
+     * metrics and the non-null object fields of the input types, which are all
+     * {@link GraphQLSchemaSymbolTable#findInputCycles(List)} follows
+     */
+    private static final class WrittenTypes {
 
-            index++;
-        }
+        private final List<GraphQLTypeDescriptor> inputTypes = new ArrayList<>();
+
+        private int classCount;
+
+        private int fieldCount;
+
+        private int parameterCount;
 
-        // Handle if there is no valid params passed
-        if (index > 0) {
-            this.addSpecialCharacters(schemaBuilder, "param-start");
-            schemaBuilder.append(paramBuilder);
-            this.addSpecialCharacters(schemaBuilder, "param-end");
+        private void add(GraphQLTypeDescriptor type) {
+            this.classCount++;
+            this.fieldCount += type.getFields().size();
+            List<GraphQLFieldDescriptor> references = new ArrayList<>();
+            for (GraphQLFieldDescriptor field : type.getFields()) {
+                this.parameterCount += field.getParameters().size();
+                if (field.getFieldType() == FieldType.OBJECT && !field.isNullable()) {
+                    references.add(field);
+                }
+            }
+            if (type.getSchemaType() == SchemaType.INPUT) {
+                this.inputTypes.add(new GraphQLTypeDescriptor(type.getClassName(), SchemaType.INPUT,
+                        type.getOperationName(), null, references, Collections.emptySet()));
+            }
         }
     }
 
     /**
-     * adds special characters which is used to build and pretify graphql schema
-     * 
-     * <pre>
-     * "{" => delimiter-start
-     * "}" => delimiter-end
-     * "[" => list-start
-     * "!" => not-null
-     * "]" => list-end
-     * ":" => key-indicator
-     * "(" => param-start
-     * ")" => param-end
-     * </pre>
-     * 
-     * @param schemaBuilder {@link StringBuilder}
-     * @param type          {@link String} indicates the type of special charaters
-     *                      that need to be appended
-     */
-    private void addSpecialCharacters(StringBuilder schemaBuilder, String type) {
-        switch (type) {
-        case "white-space":
-            schemaBuilder.append(" ");
-            break;
-        case "delimiter-start":
-            schemaBuilder.append("{\n");
-            break;
-        case "delimiter-end":
-            schemaBuilder.append("}\n");
-            break;
-        case "new-line":
-            schemaBuilder.append("\n");
-            break;
-        case "not-null":
-            schemaBuilder.append("!");
-            break;
-        case "list-start":
-            schemaBuilder.append("[");
-            break;
-        case "list-end":
-            schemaBuilder.append("]");
-            break;
-        case "key-indicator":
-            schemaBuilder.append(": ");
-            break;
-        case "param-start":
-            schemaBuilder.append("( ");
-            break;
-        case "param-end":
-            schemaBuilder.append(") ");
-            break;
-        case "param-seperator":
-            schemaBuilder.append(",");
-            break;
-        }
+     * nanoseconds of the phases of one generation, summed up over all threads
+     */
+    private static final class PhaseTimes {
+
+        private final LongAdder scan = new LongAdder();
+
+        private final LongAdder read = new LongAdder();
+
+        private final LongAdder render = new LongAdder();
     }
 
+    /**
+     * @return schema of the last {@link GraphQlSchemaGenerator#generateSchema(String...)}
+     *         or {@link GraphQlSchemaGenerator#loadSchema(String...)}, empty before
+     */
     public String getSchema() {
-        return this.generatedSchema;
+        GraphQLGeneratedSchema schema = this.generatedSchema;
+        return schema == null ? "" : schema.getSchema();
     }
 
     private void printLogMessage(String message) {
         this.logger.info(message);
     }
+
+    private void printDebugMessage(String message) {
+        this.logger.fine(message);
+    }
 }
@@ -0,0 +1,15 @@
+package com.yogaraj.graphql.service;
+
+import com.yogaraj.graphql.schemagenerator.GraphQLExecutableSchemaBuilder;
+
+/**
+ * Implemented by beans which register data fetchers of the executable schema.
+ * It is called again for every regenerated schema.
+ *
+ * @author Yogaraj
+ */
+@FunctionalInterface
+public interface GraphQLDataFetcherConfigurer {
+
+    void configure(GraphQLExecutableSchemaBuilder schemaBuilder);
+}
@@ -0,0 +1,326 @@
+package com.yogaraj.graphql.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.yogaraj.graphql.GraphqlApplication;
+import com.yogaraj.graphql.schemagenerator.GraphQLBatchLoaders;
+import com.yogaraj.graphql.schemagenerator.GraphQLCacheControlInstrumentation;
+import com.yogaraj.graphql.schemagenerator.GraphQLExecutableSchemaBuilder;
+import com.yogaraj.graphql.schemagenerator.GraphQLField;
+import com.yogaraj.graphql.schemagenerator.GraphQLFieldCache;
+import com.yogaraj.graphql.schemagenerator.GraphQLQueryCostInstrumentation;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchemaReloader;
+import com.yogaraj.graphql.schemagenerator.GraphQLStreamingExecutionStrategy;
+import com.yogaraj.graphql.schemagenerator.GraphQlSchemaGenerator;
+import com.yogaraj.graphql.service.PersistedQueryStore.PersistedQuery;
+
+import org.dataloader.BatchLoader;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.GraphQLException;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Executes queries against the executable schema of the scanned packages.
+ *
+ * <p>
+ * Parsed and validated queries are reused through a
+ * {@link PreparsedDocumentCache}. Every regenerated schema, e.g. by
+ * the {@link GraphQLSchemaReloader}, gets a new version and flushes the cached
+ * documents.
+ * </p>
+ *
+ * <p>
+ * {@link BatchLoader} beans are registered by their bean name and are used by
+ * the fields which name them in {@link GraphQLField#batchLoader()}. Every
+ * request gets its own {@link org.dataloader.DataLoaderRegistry}, so values are
+ * cached only with in one request.
+ * </p>
+ *
+ * <p>
+ * When a {@link DataSource} is configured, the query fields of
+ * {@link GraphQLSchema#table()} types select only the requested columns, and
+ * mutation fields of table input types insert their items in batches of
+ * <code>graphql.jdbc.batch-size</code>.
+ * </p>
+ *
+ * <p>
+ * Queries which are nested deeper than <code>graphql.query.max-depth</code> or
+ * cost more than <code>graphql.query.max-complexity</code> are rejected by the
+ * {@link GraphQLQueryCostInstrumentation} before any data fetcher runs.
+ * </p>
+ *
+ * <p>
+ * With <code>graphql.metrics.fields.enabled</code> the latency of every data
+ * fetcher is recorded by the {@link GraphQLFieldMetricsInstrumentation}.
+ * </p>
+ *
+ * <p>
+ * Fields with a {@link GraphQLField#maxAge()} or {@link GraphQLSchema#maxAge()}
+ * are kept in the {@link GraphQLFieldCache}, which is flushed with the
+ * documents. Every result reports its cache policy through the
+ * {@link GraphQLCacheControlInstrumentation}.
+ * </p>
+ *
+ * <p>
+ * Queries which are executed with a {@link JsonGenerator} are written by a
+ * {@link GraphQLStreamingExecutionStrategy} while their fields complete.
+ * </p>
+ *
+ * @author Yogaraj
+ */
+@Service
+public class GraphQLExecutionService {
+
+    private final List<GraphQLDataFetcherConfigurer> configurers;
+
+    private final AtomicLong schemaVersion = new AtomicLong();
+
+    private final PreparsedDocumentCache documentCache;
+
+    private final GraphQLBatchLoaders batchLoaders = new GraphQLBatchLoaders();
+
+    private final DataSource dataSource;
+
+    private final int fetchSize;
+
+    private final int batchSize;
+
+    private final int maxDepth;
+
+    private final long maxComplexity;
+
+    private final int defaultListSize;
+
+    private final GraphQLFieldMetricsInstrumentation fieldMetrics;
+
+    private final GraphQlSchemaGenerator generator;
+
+    private final GraphQLFieldCache fieldCache;
+
+    private volatile ExecutableSchema executableSchema;
+
+    private Logger logger = Logger.getLogger(GraphQLExecutionService.class.getSimpleName());
+
+    public GraphQLExecutionService(ObjectProvider<GraphQLDataFetcherConfigurer> configurers,
+            ObjectProvider<GraphQLSchemaReloader> schemaReloader, ListableBeanFactory beanFactory,
+            MeterRegistry meterRegistry, @Value("${graphql.documents.cache.maximum-size:1000}") long maximumSize,
+            ObjectProvider<DataSource> dataSource, @Value("${graphql.jdbc.fetch-size:500}") int fetchSize,
+            @Value("${graphql.jdbc.batch-size:500}") int batchSize,
+            @Value("${graphql.query.max-depth:15}") int maxDepth,
+            @Value("${graphql.query.max-complexity:5000}") long maxComplexity,
+            @Value("${graphql.query.default-list-size:10}") int defaultListSize,
+            @Value("${graphql.metrics.fields.enabled:false}") boolean fieldMetricsEnabled,
+            @Qualifier("mGraphQlSchema") GraphQlSchemaGenerator generator, GraphQLFieldCache fieldCache) {
+        this.configurers = configurers.orderedStream().collect(Collectors.toList());
+        this.dataSource = dataSource.getIfAvailable();
+        this.fetchSize = fetchSize;
+        this.batchSize = batchSize;
+        this.maxDepth = maxDepth;
+        this.maxComplexity = maxComplexity;
+        this.defaultListSize = defaultListSize;
+        this.fieldMetrics = fieldMetricsEnabled ? new GraphQLFieldMetricsInstrumentation(meterRegistry) : null;
+        this.generator = generator;
+        this.fieldCache = fieldCache;
+        beanFactory.getBeansOfType(BatchLoader.class).forEach(this.batchLoaders::register);
+        this.documentCache = new PreparsedDocumentCache(maximumSize, meterRegistry);
+        this.regenerate();
+        // the reloader already read the changed classes, its types are used without scanning again
+        schemaReloader.ifAvailable(reloader -> reloader.addListener(schema -> this.rebuild(schemaBuilder -> {
+            reloader.getTypeDescriptors().forEach(schemaBuilder::type);
+            return schemaBuilder.classLoader(reloader.getClassLoader()).build();
+        })));
+    }
+
+    /**
+     * builds the executable schema again with the configured generator, from the
+     * precompiled types when they are available and otherwise from the class
+     * files, and flushes the cached documents and field values
+     */
+    public void regenerate() {
+        this.rebuild(schemaBuilder -> this.generator.loadExecutableSchema(schemaBuilder,
+                GraphqlApplication.SCHEMA_PACKAGE));
+    }
+
+    /**
+     * replaces the executable schema and flushes the caches only when the new
+     * schema could be built, a broken reload keeps the last executable schema
+     *
+     * @param schemaFactory adds the types to the configured
+     *                      {@link GraphQLExecutableSchemaBuilder} and builds it
+     */
+    private synchronized void rebuild(ExecutableSchemaFactory schemaFactory) {
+        GraphQLExecutableSchemaBuilder schemaBuilder = new GraphQLExecutableSchemaBuilder()
+                .fieldCache(this.fieldCache);
+        if (this.dataSource != null) {
+            schemaBuilder.jdbcDataSource(this.dataSource, this.fetchSize).jdbcBatchSize(this.batchSize);
+        }
+        for (GraphQLDataFetcherConfigurer configurer : this.configurers) {
+            configurer.configure(schemaBuilder);
+        }
+
+        long newSchemaVersion = this.schemaVersion.get() + 1;
+        ExecutableSchema newExecutableSchema;
+        try {
+            graphql.schema.GraphQLSchema executableSchema = schemaFactory.build(schemaBuilder);
+            List<Instrumentation> instrumentations = new ArrayList<>();
+            instrumentations.add(new GraphQLQueryCostInstrumentation(schemaBuilder.buildCostTable(), this.maxDepth,
+                    this.maxComplexity, this.defaultListSize));
+            instrumentations.add(new GraphQLCacheControlInstrumentation(schemaBuilder.buildCacheControlTable()));
+            if (!this.batchLoaders.isEmpty()) {
+                // dispatches the batch loaders level by level
+                instrumentations.add(new DataLoaderDispatcherInstrumentation());
+            }
+            if (this.fieldMetrics != null) {
+                instrumentations.add(this.fieldMetrics);
+            }
+            newExecutableSchema = new ExecutableSchema(newSchemaVersion, GraphQL.newGraphQL(executableSchema)
+                    .preparsedDocumentProvider(this.documentCache.forSchemaVersion(newSchemaVersion))
+                    .instrumentation(new ChainedInstrumentation(instrumentations)).build());
+        } catch (ClassNotFoundException | IllegalStateException | GraphQLException e) {
+            // e.g. an AssertException or a SchemaProblem of graphql-java
+            this.printLogMessage("IGNORING: schema since it is not executable, "
+                    + (this.executableSchema == null ? "queries are rejected" : "the last schema is kept") + ": "
+                    + e.getMessage());
+            return;
+        }
+        this.schemaVersion.set(newSchemaVersion);
+        this.executableSchema = newExecutableSchema;
+        // documents of the old version can not be hit anymore
+        this.documentCache.invalidateAll();
+        this.fieldCache.invalidateAll();
+    }
+
+    /**
+     * @return version of the executable schema, it changes with every schema
+     *         which is built
+     */
+    public long getSchemaVersion() {
+        return this.schemaVersion.get();
+    }
+
+    /**
+     * @return <code>false</code> when the schema has no query root
+     */
+    public boolean isExecutable() {
+        return this.executableSchema != null;
+    }
+
+    /**
+     * @throws IllegalStateException when the schema is not executable
+     */
+    public ExecutionResult execute(String query, String operationName, Map<String, Object> variables) {
+        return this.execute(query, operationName, variables, null);
+    }
+
+    /**
+     * @param generator receives the <code>"data"</code> field while the fields
+     *                  complete, the result then has no data, or
+     *                  <code>null</code> for a result with data
+     * @throws IllegalStateException when the schema is not executable
+     */
+    public ExecutionResult execute(String query, String operationName, Map<String, Object> variables,
+            JsonGenerator generator) {
+        return streaming(this.currentSchema().graphQL, generator)
+                .execute(this.buildExecutionInput(query, operationName, variables));
+    }
+
+    /**
+     * executes a stored query with the document it keeps, the document cache is
+     * not used
+     *
+     * @throws IllegalStateException when the schema is not executable
+     */
+    public ExecutionResult execute(PersistedQuery persistedQuery, String operationName,
+            Map<String, Object> variables) {
+        return this.execute(persistedQuery, operationName, variables, null);
+    }
+
+    /**
+     * @param generator see
+     *                  {@link GraphQLExecutionService#execute(String, String, Map, JsonGenerator)}
+     * @throws IllegalStateException when the schema is not executable
+     */
+    public ExecutionResult execute(PersistedQuery persistedQuery, String operationName,
+            Map<String, Object> variables, JsonGenerator generator) {
+        ExecutableSchema current = this.currentSchema();
+        GraphQL persistedGraphQL = current.graphQL.transform(builder -> builder.preparsedDocumentProvider(
+                (query, computeFunction) -> persistedQuery.getDocument(current.version, computeFunction)));
+        return streaming(persistedGraphQL, generator)
+                .execute(this.buildExecutionInput(persistedQuery.getQuery(), operationName, variables));
+    }
+
+    private static GraphQL streaming(GraphQL graphQL, JsonGenerator generator) {
+        if (generator == null) {
+            return graphQL;
+        }
+        GraphQLStreamingExecutionStrategy executionStrategy = new GraphQLStreamingExecutionStrategy(generator);
+        return graphQL.transform(builder -> builder.queryExecutionStrategy(executionStrategy)
+                .mutationExecutionStrategy(executionStrategy));
+    }
+
+    private ExecutableSchema currentSchema() {
+        ExecutableSchema current = this.executableSchema;
+        if (current == null) {
+            throw new IllegalStateException("schema is not executable");
+        }
+        return current;
+    }
+
+    private ExecutionInput buildExecutionInput(String query, String operationName, Map<String, Object> variables) {
+        ExecutionInput.Builder executionInput = ExecutionInput.newExecutionInput().query(query)
+                .operationName(operationName).dataLoaderRegistry(this.batchLoaders.newRegistry());
+        if (variables != null) {
+            executionInput.variables(variables);
+        }
+        return executionInput.build();
+    }
+
+    /**
+     * source of the types of a rebuilt schema, either the scanned packages or the
+     * {@link GraphQLSchemaReloader}
+     */
+    private interface ExecutableSchemaFactory {
+
+        graphql.schema.GraphQLSchema build(GraphQLExecutableSchemaBuilder schemaBuilder)
+                throws ClassNotFoundException;
+    }
+
+    /**
+     * {@link GraphQL} of one schema version
+     */
+    private static final class ExecutableSchema {
+
+        private final long version;
+
+        private final GraphQL graphQL;
+
+        private ExecutableSchema(long version, GraphQL graphQL) {
+            this.version = version;
+            this.graphQL = graphQL;
+        }
+    }
+
+    private void printLogMessage(String message) {
+        this.logger.info(message);
+    }
+}
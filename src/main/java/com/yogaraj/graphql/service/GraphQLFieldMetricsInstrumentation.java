@@ -0,0 +1,56 @@
+package com.yogaraj.graphql.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the latency of every data fetcher call as a histogram.
+ *
+ * <pre>
+ * graphql.field.fetch{type=doc, field=title}
+ * </pre>
+ *
+ * The time is taken until the fetched value is completed, so batch loaded
+ * fields include the wait for their batch. Timers are looked up once per field
+ * of the schema, every fetch only reads the clock twice. It is enabled with
+ * <code>graphql.metrics.fields.enabled</code> since every field of every
+ * object in a result is timed.
+ *
+ * @author Yogaraj
+ */
+public class GraphQLFieldMetricsInstrumentation extends SimpleInstrumentation {
+
+    public static final String FETCH_TIMER = "graphql.field.fetch";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    public GraphQLFieldMetricsInstrumentation(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters) {
+        Timer timer = this.timer(parameters.getEnvironment().getParentType().getName(),
+                parameters.getField().getName());
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext
+                .whenCompleted((value, throwable) -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private Timer timer(String typeName, String fieldName) {
+        return this.timers.computeIfAbsent(typeName, key -> new ConcurrentHashMap<>()).computeIfAbsent(fieldName,
+                key -> Timer.builder(FETCH_TIMER).description("latency of the data fetcher of a field")
+                        .tag("type", typeName).tag("field", fieldName).publishPercentileHistogram()
+                        .register(this.meterRegistry));
+    }
+}
@@ -0,0 +1,178 @@
+package com.yogaraj.graphql.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Query documents of automatic persisted queries, keyed by the SHA-256 hash of
+ * their text. Clients send only the hash and register the full text once when
+ * the server answers <code>PersistedQueryNotFound</code>.
+ *
+ * <pre>
+ * POST /graphql  {"extensions": {"persistedQuery": {"version": 1, "sha256Hash": "..."}}}
+ * </pre>
+ *
+ * The store is bounded by <code>graphql.persisted-queries.maximum-weight</code>
+ * bytes of query text and evicts the least valuable entries (W-TinyLFU). Every
+ * entry keeps the document which was parsed and validated for the current
+ * schema version, so persisted queries are not parsed again as long as they
+ * are stored. A JSON file of hashes and queries, e.g. extracted from the client
+ * build, can be loaded at startup with
+ * <code>graphql.persisted-queries.file</code>.
+ *
+ * <pre>
+ * {"7f56e67dd21ab3f30d1ff8b7bed08893f0a0db86449836189b361dd1e56ddb4b": "{ __typename }"}
+ * </pre>
+ *
+ * @author Yogaraj
+ */
+@Component
+public class PersistedQueryStore {
+
+    static final String CACHE_NAME = "graphql.persisted-queries";
+
+    /**
+     * bytes of a stored entry besides its query text
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Cache<String, PersistedQuery> queries;
+
+    private Logger logger = Logger.getLogger(PersistedQueryStore.class.getSimpleName());
+
+    public PersistedQueryStore(@Value("${graphql.persisted-queries.maximum-weight:16777216}") long maximumWeight,
+            @Value("${graphql.persisted-queries.file:}") String file, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.queries = Caffeine.newBuilder().maximumWeight(maximumWeight)
+                .weigher((String hash, PersistedQuery query) -> ENTRY_OVERHEAD + query.getQuery().length() * 2)
+                .recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.queries, CACHE_NAME);
+        if (!file.isEmpty()) {
+            this.load(file, objectMapper);
+        }
+    }
+
+    private void load(String file, ObjectMapper objectMapper) {
+        Map<String, String> manifest;
+        try {
+            manifest = objectMapper.readValue(Files.readAllBytes(Paths.get(file)),
+                    new TypeReference<Map<String, String>>() {
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read persisted queries " + file, e);
+        }
+        manifest.forEach((hash, query) -> {
+            if (this.register(hash, query) == null) {
+                this.printLogMessage("IGNORING: persisted query " + hash + " since the hash does not match");
+            }
+        });
+        this.printLogMessage("LOADED: " + manifest.size() + " persisted queries from " + file);
+    }
+
+    /**
+     * @param hash SHA-256 hash of the query in lower case hex
+     * @return stored query or <code>null</code> when the hash is not known
+     */
+    public PersistedQuery get(String hash) {
+        return this.queries.getIfPresent(hash);
+    }
+
+    /**
+     * stores a query, an already stored query of the same hash is kept
+     *
+     * @return stored query or <code>null</code> when the hash does not match the
+     *         query
+     */
+    public PersistedQuery register(String hash, String query) {
+        if (!sha256(query).equalsIgnoreCase(hash)) {
+            return null;
+        }
+        return this.queries.get(hash.toLowerCase(), key -> new PersistedQuery(query));
+    }
+
+    public long size() {
+        return this.queries.estimatedSize();
+    }
+
+    public static String sha256(String query) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void printLogMessage(String message) {
+        this.logger.info(message);
+    }
+
+    /**
+     * stored query text and its document of the current schema version
+     */
+    public static final class PersistedQuery {
+
+        private final String query;
+
+        private volatile VersionedDocument document;
+
+        private PersistedQuery(String query) {
+            this.query = query;
+        }
+
+        public String getQuery() {
+            return this.query;
+        }
+
+        /**
+         * @return document of the schema version, parsed and validated with the
+         *         function when the query was not executed with this version yet
+         */
+        PreparsedDocumentEntry getDocument(long schemaVersion,
+                Function<String, PreparsedDocumentEntry> computeFunction) {
+            VersionedDocument current = this.document;
+            if (current == null || current.schemaVersion != schemaVersion) {
+                // concurrent requests may parse twice, the document is the same
+                current = new VersionedDocument(schemaVersion, computeFunction.apply(this.query));
+                this.document = current;
+            }
+            return current.entry;
+        }
+    }
+
+    private static final class VersionedDocument {
+
+        private final long schemaVersion;
+
+        private final PreparsedDocumentEntry entry;
+
+        private VersionedDocument(long schemaVersion, PreparsedDocumentEntry entry) {
+            this.schemaVersion = schemaVersion;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.yogaraj.graphql.service;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Keeps parsed and validated query documents in a size bounded Caffeine cache
+ * (W-TinyLFU eviction), so a query text which was seen before is neither
+ * parsed nor validated again.
+ *
+ * <p>
+ * Entries are keyed by the query text and the schema version, a document which
+ * was validated against an older schema is never used for a newer one. Every
+ * schema version executes with its own {@link PreparsedDocumentProvider} of
+ * {@link #forSchemaVersion(long)}, and the cache is flushed with
+ * {@link #invalidateAll()} when the schema is regenerated.
+ * </p>
+ *
+ * The following metrics are registered:
+ *
+ * <pre>
+ * cache.gets, cache.evictions, cache.size  {@link CaffeineCacheMetrics} of the cache "graphql.documents"
+ * graphql.documents.parse                  time spent to parse and validate uncached queries
+ * graphql.documents.saved                  parse and validate time which cache hits did not spend
+ * </pre>
+ *
+ * @author Yogaraj
+ */
+public class PreparsedDocumentCache {
+
+    static final String CACHE_NAME = "graphql.documents";
+
+    private final Cache<DocumentKey, TimedEntry> documents;
+
+    private final Timer parseTimer;
+
+    private final Counter savedCounter;
+
+    /**
+     * @param maximumSize   maximum number of cached documents
+     * @param meterRegistry {@link MeterRegistry} the metrics are registered with
+     */
+    public PreparsedDocumentCache(long maximumSize, MeterRegistry meterRegistry) {
+        this.documents = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.documents, CACHE_NAME);
+        this.parseTimer = Timer.builder(CACHE_NAME + ".parse")
+                .description("time spent to parse and validate uncached queries").register(meterRegistry);
+        this.savedCounter = Counter.builder(CACHE_NAME + ".saved").baseUnit("seconds")
+                .description("parse and validate time saved by cached documents").register(meterRegistry);
+    }
+
+    /**
+     * @param schemaVersion version of the schema the queries are validated
+     *                      against
+     * @return {@link PreparsedDocumentProvider} of one schema
+     */
+    public PreparsedDocumentProvider forSchemaVersion(long schemaVersion) {
+        return (query, computeFunction) -> this.get(schemaVersion, query, computeFunction);
+    }
+
+    private PreparsedDocumentEntry get(long schemaVersion, String query,
+            Function<String, PreparsedDocumentEntry> computeFunction) {
+        DocumentKey key = new DocumentKey(schemaVersion, query);
+        TimedEntry entry = this.documents.getIfPresent(key);
+        if (entry != null) {
+            this.savedCounter.increment(entry.nanos / (double) TimeUnit.SECONDS.toNanos(1));
+            return entry.entry;
+        }
+        // computed outside of the cache, parsing a query should not block other queries
+        long start = System.nanoTime();
+        PreparsedDocumentEntry document = computeFunction.apply(query);
+        long nanos = System.nanoTime() - start;
+        this.parseTimer.record(nanos, TimeUnit.NANOSECONDS);
+        this.documents.put(key, new TimedEntry(document, nanos));
+        return document;
+    }
+
+    /**
+     * removes all documents, called when the schema is regenerated
+     */
+    public void invalidateAll() {
+        this.documents.invalidateAll();
+    }
+
+    private static final class DocumentKey {
+
+        private final long schemaVersion;
+
+        private final String query;
+
+        private DocumentKey(long schemaVersion, String query) {
+            this.schemaVersion = schemaVersion;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DocumentKey)) {
+                return false;
+            }
+            DocumentKey other = (DocumentKey) obj;
+            return this.schemaVersion == other.schemaVersion && this.query.equals(other.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.schemaVersion, this.query);
+        }
+    }
+
+    /**
+     * document and the time it took to parse and validate it
+     */
+    private static final class TimedEntry {
+
+        private final PreparsedDocumentEntry entry;
+
+        private final long nanos;
+
+        private TimedEntry(PreparsedDocumentEntry entry, long nanos) {
+            this.entry = entry;
+            this.nanos = nanos;
+        }
+    }
+}
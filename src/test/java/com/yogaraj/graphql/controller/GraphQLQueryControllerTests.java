@@ -0,0 +1,99 @@
+package com.yogaraj.graphql.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.yogaraj.graphql.service.PersistedQueryStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class GraphQLQueryControllerTests {
+
+    private static final String QUERY = "{\"query\": \"{ docTitle(url: \\\"/schema\\\") }\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PersistedQueryStore persistedQueryStore;
+
+    @Test
+    void repeatedQueriesAreParsedOnce() throws Exception {
+        double misses = this.documentCacheGets("miss");
+        double hits = this.documentCacheGets("hit");
+        for (int i = 0; i < 3; i++) {
+            this.mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON).content(QUERY))
+                    .andExpect(status().isOk()).andExpect(jsonPath("$.data.docTitle").doesNotExist())
+                    .andExpect(jsonPath("$.errors").doesNotExist());
+        }
+
+        assertEquals(1, this.documentCacheGets("miss") - misses);
+        assertEquals(2, this.documentCacheGets("hit") - hits);
+    }
+
+    private double documentCacheGets(String result) {
+        return this.meterRegistry.get("cache.gets").tag("cache", "graphql.documents").tag("result", result)
+                .functionCounter().count();
+    }
+
+    @Test
+    void persistedQueriesAreRegisteredOnce() throws Exception {
+        String query = "{ docTitle(url: \\\"/persisted\\\") }";
+        String hash = PersistedQueryStore.sha256("{ docTitle(url: \"/persisted\") }");
+        String extensions = "\"extensions\": {\"persistedQuery\": {\"version\": 1, \"sha256Hash\": \"" + hash
+                + "\"}}";
+
+        this.mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON).content("{" + extensions + "}"))
+                .andExpect(status().isOk()).andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$.errors[0].message").value(GraphQLQueryController.PERSISTED_QUERY_NOT_FOUND));
+        this.mockMvc
+                .perform(post("/graphql").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"" + query + "\", " + extensions + "}"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.errors").doesNotExist());
+        this.mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON).content("{" + extensions + "}"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.errors").doesNotExist());
+        this.mockMvc
+                .perform(post("/graphql").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"{ __typename }\", " + extensions + "}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(1, this.persistedQueryStore.size());
+    }
+
+    @Test
+    void streamedResultsHaveDataAndErrors() throws Exception {
+        MvcResult streamed = this.mockMvc
+                .perform(post("/graphql/stream").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"{ docTitle(url: \\\"/stream\\\") __typename }\"}"))
+                .andExpect(request().asyncStarted()).andReturn();
+        this.mockMvc.perform(asyncDispatch(streamed)).andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$.data.__typename").value("Query"))
+                .andExpect(jsonPath("$.errors").doesNotExist());
+
+        MvcResult invalid = this.mockMvc
+                .perform(post("/graphql/stream").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"{ unknownField }\"}"))
+                .andExpect(request().asyncStarted()).andReturn();
+        this.mockMvc.perform(asyncDispatch(invalid)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").doesNotExist()).andExpect(jsonPath("$.errors[0].message").exists());
+    }
+}
@@ -0,0 +1,65 @@
+package com.yogaraj.graphql.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class GraphQLSchemaControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void schemaIsServedWithETagAndGzip() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/graphql/schema")).andExpect(status().isOk())
+                .andExpect(content().string(containsString("type doc")))
+                .andExpect(header().exists(HttpHeaders.ETAG)).andReturn();
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get("/graphql/schema").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        String gzipETag = this.mockMvc
+                .perform(get("/graphql/schema").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk()).andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, gzipETag);
+
+        this.mockMvc.perform(get("/graphql/schema").header(HttpHeaders.IF_NONE_MATCH, gzipETag))
+                .andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, gzipETag));
+        this.mockMvc.perform(get("/graphql/schema").header(HttpHeaders.IF_NONE_MATCH, "W/" + eTag))
+                .andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        this.mockMvc.perform(get("/graphql/schema").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk()).andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    @Test
+    void acceptEncodingQualitiesAreHonored() {
+        assertTrue(PrecompressedBody.acceptsGzip(List.of("deflate, gzip;q=0.5")));
+        assertTrue(PrecompressedBody.acceptsGzip(List.of("*")));
+        assertFalse(PrecompressedBody.acceptsGzip(List.of("gzip;q=0")));
+        assertFalse(PrecompressedBody.acceptsGzip(List.of("GZIP; q=0.0, *;q=1")));
+        assertFalse(PrecompressedBody.acceptsGzip(List.of("identity", "*;q=0")));
+        assertFalse(PrecompressedBody.acceptsGzip(List.of("gzipx")));
+        assertFalse(PrecompressedBody.acceptsGzip(null));
+    }
+}
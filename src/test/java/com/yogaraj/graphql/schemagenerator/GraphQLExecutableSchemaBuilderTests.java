@@ -0,0 +1,477 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yogaraj.graphql.dto.Doc;
+import com.yogaraj.graphql.dto.DocQuery;
+import com.yogaraj.graphql.dto.DocType;
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.CacheScope;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GraphQLExecutableSchemaBuilderTests {
+
+    @Test
+    void builtSchemaExecutesQueries() throws ClassNotFoundException {
+        GraphQLTypeDescriptor queryType = new GraphQLTypeDescriptor("DocQuery", SchemaType.QUERY, "docQuery", null,
+                List.of(new GraphQLFieldDescriptor("doc", FieldType.OBJECT, "doc", false,
+                        List.of(new GraphQLParameterDescriptor("url", FieldType.STRING, "String", false)))),
+                Collections.emptySet());
+
+        graphql.schema.GraphQLSchema schema = new GraphQLExecutableSchemaBuilder()
+                .types(List.of(queryType, new GraphQlSchemaGenerator().buildTypeDescriptor(Doc.class),
+                        new GraphQlSchemaGenerator().buildTypeDescriptor(DocType.class)))
+                .dataFetcher("Query", "doc", environment -> {
+                    Doc doc = new Doc();
+                    doc.title = "schema";
+                    doc.url = environment.getArgument("url");
+                    return doc;
+                }).build();
+
+        ExecutionResult result = GraphQL.newGraphQL(schema).build()
+                .execute("{ doc(url: \"/schema\") { title url } __type(name: \"docType\") { enumValues { name } } }");
+
+        assertEquals(Collections.emptyList(), result.getErrors());
+        Map<String, Object> data = result.getData();
+        assertEquals(Map.of("title", "schema", "url", "/schema"), data.get("doc"));
+        assertEquals(Map.of("enumValues", List.of(Map.of("name", "media"), Map.of("name", "document"))),
+                data.get("__type"));
+    }
+
+    @Test
+    void batchLoadersAreCalledOncePerLevel() {
+        GraphQLTypeDescriptor queryType = new GraphQLTypeDescriptor("DocQuery", SchemaType.QUERY, "docQuery", null,
+                List.of(new GraphQLFieldDescriptor("docs", FieldType.LIST, "doc", false, List.of())),
+                Collections.emptySet());
+        GraphQLTypeDescriptor docType = new GraphQLTypeDescriptor("Doc", SchemaType.OBJECT, "doc", null,
+                List.of(new GraphQLFieldDescriptor("title", FieldType.STRING, "String", true, List.of()),
+                        new GraphQLFieldDescriptor("author", FieldType.OBJECT, "author", true, List.of(),
+                                "authorsById", "authorId")),
+                Collections.emptySet());
+        GraphQLTypeDescriptor authorType = new GraphQLTypeDescriptor("Author", SchemaType.OBJECT, "author", null,
+                List.of(new GraphQLFieldDescriptor("name", FieldType.STRING, "String", true, List.of()),
+                        new GraphQLFieldDescriptor("docs", FieldType.LIST, "doc", true, List.of(), "docsByAuthor",
+                                "name")),
+                Collections.emptySet());
+
+        List<Map<String, Object>> docs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            docs.add(Map.of("title", "doc" + i, "authorId", i % 10));
+        }
+        AtomicInteger authorBatches = new AtomicInteger();
+        AtomicInteger docBatches = new AtomicInteger();
+        GraphQLBatchLoaders batchLoaders = new GraphQLBatchLoaders().register("authorsById", (List<Object> keys) -> {
+            authorBatches.incrementAndGet();
+            return CompletableFuture.completedFuture(
+                    keys.stream().map(key -> Map.of("name", "author" + key)).collect(Collectors.toList()));
+        }).register("docsByAuthor", (List<Object> keys) -> {
+            docBatches.incrementAndGet();
+            return CompletableFuture.completedFuture(
+                    keys.stream().map(key -> docs.subList(0, 2)).collect(Collectors.toList()));
+        });
+
+        graphql.schema.GraphQLSchema schema = new GraphQLExecutableSchemaBuilder()
+                .types(List.of(queryType, docType, authorType))
+                .dataFetcher("Query", "docs", environment -> docs).build();
+        ExecutionResult result = GraphQL.newGraphQL(schema).instrumentation(new DataLoaderDispatcherInstrumentation())
+                .build().execute(ExecutionInput.newExecutionInput()
+                        .query("{ docs { title author { name docs { title } } } }")
+                        .dataLoaderRegistry(batchLoaders.newRegistry()));
+
+        assertEquals(Collections.emptyList(), result.getErrors());
+        assertEquals(1, authorBatches.get());
+        assertEquals(1, docBatches.get());
+    }
+
+    @Test
+    void streamedResultsAreWrittenWhileFieldsComplete() throws IOException {
+        GraphQLTypeDescriptor queryType = new GraphQLTypeDescriptor("DocQuery", SchemaType.QUERY, "docQuery", null,
+                List.of(new GraphQLFieldDescriptor("docs", FieldType.LIST, "doc", false, List.of())),
+                Collections.emptySet());
+        GraphQLTypeDescriptor docType = new GraphQLTypeDescriptor("Doc", SchemaType.OBJECT, "doc", null,
+                List.of(new GraphQLFieldDescriptor("title", FieldType.STRING, "String", true, List.of()),
+                        new GraphQLFieldDescriptor("url", FieldType.STRING, "String", false, List.of()),
+                        new GraphQLFieldDescriptor("author", FieldType.OBJECT, "author", true, List.of(),
+                                "authorsById", "authorId")),
+                Collections.emptySet());
+        GraphQLTypeDescriptor authorType = new GraphQLTypeDescriptor("Author", SchemaType.OBJECT, "author", null,
+                List.of(new GraphQLFieldDescriptor("name", FieldType.STRING, "String", true, List.of())),
+                Collections.emptySet());
+        List<GraphQLTypeDescriptor> types = List.of(queryType, docType, authorType);
+        GraphQLBatchLoaders batchLoaders = new GraphQLBatchLoaders().register("authorsById",
+                (List<Object> keys) -> CompletableFuture.completedFuture(
+                        keys.stream().map(key -> Map.of("name", "author" + key)).collect(Collectors.toList())));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(out);
+        List<Integer> writtenBytes = new ArrayList<>();
+        Iterable<Map<String, Object>> docs = () -> IntStream.range(0, 100).mapToObj(i -> {
+            writtenBytes.add(out.size() + generator.getOutputBuffered());
+            return Map.<String, Object>of("title", "doc" + i, "url", "/docs/" + i, "authorId", i % 10);
+        }).iterator();
+        graphql.schema.GraphQLSchema schema = new GraphQLExecutableSchemaBuilder().types(types)
+                .dataFetcher("Query", "docs", environment -> docs).build();
+        String query = "{ docs { title ...url author { name } } } fragment url on doc { url }";
+
+        ExecutionResult executed = GraphQL.newGraphQL(schema).instrumentation(new DataLoaderDispatcherInstrumentation())
+                .build().execute(ExecutionInput.newExecutionInput().query(query)
+                        .dataLoaderRegistry(batchLoaders.newRegistry()));
+        writtenBytes.clear();
+        generator.writeStartObject();
+        ExecutionResult streamed = GraphQL.newGraphQL(schema)
+                .queryExecutionStrategy(new GraphQLStreamingExecutionStrategy(generator))
+                .instrumentation(new DataLoaderDispatcherInstrumentation()).build().execute(ExecutionInput
+                        .newExecutionInput().query(query).dataLoaderRegistry(batchLoaders.newRegistry()));
+        generator.writeEndObject();
+        generator.flush();
+
+        assertEquals(Collections.emptyList(), executed.getErrors());
+        assertEquals(Collections.emptyList(), streamed.getErrors());
+        assertEquals(new ObjectMapper().writeValueAsString(executed.toSpecification()),
+                out.toString(StandardCharsets.UTF_8));
+        // every row is taken after the rows before it are written
+        assertEquals(100, writtenBytes.size());
+        for (int i = 1; i < writtenBytes.size(); i++) {
+            assertTrue(writtenBytes.get(i) > writtenBytes.get(i - 1));
+        }
+
+        // a null of a non-null field can not null its written parent
+        out.reset();
+        JsonGenerator nullGenerator = new ObjectMapper().getFactory().createGenerator(out);
+        nullGenerator.writeStartObject();
+        ExecutionResult nullUrl = GraphQL
+                .newGraphQL(new GraphQLExecutableSchemaBuilder().types(types)
+                        .dataFetcher("Query", "docs", environment -> List.of(Map.of("title", "untitled"))).build())
+                .queryExecutionStrategy(new GraphQLStreamingExecutionStrategy(nullGenerator)).build()
+                .execute("{ docs { title url } }");
+        nullGenerator.writeEndObject();
+        nullGenerator.flush();
+
+        assertEquals("{\"data\":{\"docs\":[{\"title\":\"untitled\",\"url\":null}]}}",
+                out.toString(StandardCharsets.UTF_8));
+        assertEquals(1, nullUrl.getErrors().size());
+        assertEquals(List.of("docs", 0, "url"), nullUrl.getErrors().get(0).getPath());
+    }
+
+    @Test
+    void tableFieldsSelectOnlyRequestedColumns() throws SQLException {
+        List<GraphQLFieldDescriptor> columns = new ArrayList<>();
+        StringBuilder createTable = new StringBuilder("CREATE TABLE wide_doc (");
+        for (int i = 0; i < 40; i++) {
+            columns.add(new GraphQLFieldDescriptor("c" + i, FieldType.STRING, "String", true, List.of(), "col_" + i,
+                    null, null));
+            createTable.append(i == 0 ? "" : ", ").append("col_" + i).append(" VARCHAR(20)");
+        }
+        GraphQLTypeDescriptor docType = new GraphQLTypeDescriptor("WideDoc", SchemaType.OBJECT, "wideDoc", null,
+                columns, Collections.emptySet(), "wide_doc");
+        GraphQLTypeDescriptor queryType = new GraphQLTypeDescriptor("WideDocQuery", SchemaType.QUERY, "wideDocQuery",
+                null, List.of(new GraphQLFieldDescriptor("docs", FieldType.LIST, "wideDoc", false,
+                        List.of(new GraphQLParameterDescriptor("kind", FieldType.STRING, "String", true, "col_0")))),
+                Collections.emptySet());
+
+        List<String> statements = new ArrayList<>();
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:tableFields;DB_CLOSE_DELAY=-1");
+        JdbcDataSource dataSource = new JdbcDataSource() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = h2.getConnection();
+                return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                            if (method.getName().equals("prepareStatement")) {
+                                statements.add((String) args[0]);
+                            }
+                            return method.invoke(connection, args);
+                        });
+            }
+        };
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(createTable.append(")").toString());
+            statement.execute("INSERT INTO wide_doc (col_0, col_1, col_2, col_3) VALUES ('a', 'one', 'two', 'three')");
+            statement.execute("INSERT INTO wide_doc (col_0, col_1) VALUES ('b', 'other')");
+        }
+
+        graphql.schema.GraphQLSchema schema = new GraphQLExecutableSchemaBuilder().types(List.of(queryType, docType))
+                .jdbcDataSource(dataSource, 100).build();
+        ExecutionResult result = GraphQL.newGraphQL(schema).build()
+                .execute("{ docs(kind: \"a\") { c1 c2 c3 } }");
+
+        assertEquals(Collections.emptyList(), result.getErrors());
+        assertEquals(List.of("SELECT col_1, col_2, col_3 FROM wide_doc WHERE col_0 = ?"), statements);
+        Map<String, Object> data = result.getData();
+        assertEquals(List.of(Map.of("c1", "one", "c2", "two", "c3", "three")), data.get("docs"));
+    }
+
+    @Test
+    void tableInputsAreInsertedInBatches() throws SQLException {
+        GraphQLTypeDescriptor inputType = new GraphQLTypeDescriptor("DocInput", SchemaType.INPUT, "docInput", null,
+                List.of(new GraphQLFieldDescriptor("title", FieldType.STRING, "String", true, List.of()),
+                        new GraphQLFieldDescriptor("url", FieldType.STRING, "String", true, List.of(), "doc_url",
+                                null, null)),
+                Collections.emptySet(), "batch_doc");
+        GraphQLTypeDescriptor queryType = new GraphQLTypeDescriptor("DocQuery", SchemaType.QUERY, "docQuery", null,
+                List.of(new GraphQLFieldDescriptor("title", FieldType.STRING, "String", true, List.of())),
+                Collections.emptySet());
+        GraphQLTypeDescriptor mutationType = new GraphQLTypeDescriptor("DocMutation", SchemaType.MUTATION,
+                "docMutation", null,
+                List.of(new GraphQLFieldDescriptor("addDocs", FieldType.LIST, "Int", false,
+                        List.of(new GraphQLParameterDescriptor("docs", FieldType.LIST, "docInput", false)))),
+                Collections.emptySet());
+
+        AtomicInteger batches = new AtomicInteger();
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:batchInserts;DB_CLOSE_DELAY=-1");
+        JdbcDataSource dataSource = new JdbcDataSource() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = h2.getConnection();
+                return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                            Object value = method.invoke(connection, args);
+                            if (!method.getName().equals("prepareStatement")) {
+                                return value;
+                            }
+                            return Proxy.newProxyInstance(getClass().getClassLoader(),
+                                    new Class<?>[] { PreparedStatement.class }, (statement, call, callArgs) -> {
+                                        if (call.getName().equals("executeBatch")) {
+                                            batches.incrementAndGet();
+                                        }
+                                        return call.invoke(value, callArgs);
+                                    });
+                        });
+            }
+        };
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE batch_doc (title VARCHAR(20), doc_url VARCHAR(20) NOT NULL)");
+        }
+        GraphQL graphQL = GraphQL.newGraphQL(new GraphQLExecutableSchemaBuilder()
+                .types(List.of(queryType, mutationType, inputType)).jdbcDataSource(dataSource, 100).jdbcBatchSize(2)
+                .build()).build();
+
+        ExecutionResult result = graphQL.execute("mutation { addDocs(docs: [{ title: \"a\", url: \"/a\" }, "
+                + "{ url: \"/b\" }, { title: \"c\", url: \"/c\" }]) }");
+        assertEquals(Collections.emptyList(), result.getErrors());
+        assertEquals(Map.of("addDocs", List.of(1, 1, 1)), result.getData());
+        assertEquals(2, batches.get());
+
+        // the failing item of the second batch rolls back the first batch as well
+        ExecutionResult failed = graphQL.execute(ExecutionInput.newExecutionInput()
+                .query("mutation($docs: [docInput]!) { addDocs(docs: $docs) }")
+                .variables(Map.of("docs", List.of(Map.of("title", "d", "url", "/d"), Map.of("title", "e", "url", "/e"),
+                        Map.of("title", "f")))));
+        assertEquals(1, failed.getErrors().size());
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT title, doc_url FROM batch_doc ORDER BY doc_url")) {
+            List<String> rows = new ArrayList<>();
+            while (resultSet.next()) {
+                rows.add(resultSet.getString(1) + " " + resultSet.getString(2));
+            }
+            assertEquals(List.of("a /a", "null /b", "c /c"), rows);
+        }
+    }
+
+    @Test
+    void costlyQueriesAreRejectedBeforeExecution() {
+        GraphQLTypeDescriptor queryType = new GraphQLTypeDescriptor("DocQuery", SchemaType.QUERY, "docQuery", null,
+                List.of(new GraphQLFieldDescriptor("docs", FieldType.LIST, "doc", false,
+                        List.of(new GraphQLParameterDescriptor("first", FieldType.INT, "Int", true)))),
+                Collections.emptySet());
+        GraphQLTypeDescriptor docType = new GraphQLTypeDescriptor("Doc", SchemaType.OBJECT, "doc", null,
+                List.of(new GraphQLFieldDescriptor("title", FieldType.STRING, "String", true, List.of()),
+                        new GraphQLFieldDescriptor("related", FieldType.LIST, "doc", true, List.of(), "related", 5,
+                                null, null)),
+                Collections.emptySet());
+        AtomicInteger fetches = new AtomicInteger();
+        GraphQLExecutableSchemaBuilder schemaBuilder = new GraphQLExecutableSchemaBuilder()
+                .types(List.of(queryType, docType)).dataFetcher("Query", "docs", environment -> {
+                    fetches.incrementAndGet();
+                    return List.of(Map.of("title", "schema", "related", List.of()));
+                });
+        Map<String, PreparsedDocumentEntry> documents = new HashMap<>();
+        GraphQL graphQL = GraphQL.newGraphQL(schemaBuilder.build())
+                .instrumentation(new GraphQLQueryCostInstrumentation(schemaBuilder.buildCostTable(), 3, 100, 10))
+                .preparsedDocumentProvider(
+                        (query, compute) -> documents.computeIfAbsent(query, key -> compute.apply(key)))
+                .build();
+
+        ExecutionResult result = graphQL.execute("{ docs(first: 5) { title ...related } }"
+                + " fragment related on doc { related { title } }");
+        assertEquals(Collections.emptyList(), result.getErrors());
+        // 1 + 5 * (1 + (5 + 10 * 1))
+        assertEquals(Map.of("complexity", 81L, "depth", 3), result.getExtensions().get("cost"));
+
+        for (int i = 0; i < 2; i++) {
+            // the second execution reuses the validated document
+            ExecutionResult rejected = graphQL.execute(ExecutionInput.newExecutionInput()
+                    .query("query($first: Int) { docs(first: $first) { title } }").variables(Map.of("first", 1000)));
+            assertEquals(1, rejected.getErrors().size());
+            assertNull(rejected.getData());
+        }
+        assertEquals(1, graphQL.execute("{ docs { related { related { title } } } }").getErrors().size());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void annotatedFieldsAreReadThroughAccessors() throws Exception {
+        Map<String, DataFetcher<Object>> dataFetchers = GraphQLFieldAccessors.getDataFetchers(DocQuery.class);
+        assertEquals(Set.of("docTitle"), dataFetchers.keySet());
+        assertSame(dataFetchers, GraphQLFieldAccessors.getDataFetchers(DocQuery.class));
+        DocQuery docQuery = new DocQuery();
+        docQuery.title = "schema";
+        DataFetcher<Object> docTitle = dataFetchers.get("docTitle");
+        assertEquals("schema", docTitle.get((DataFetchingEnvironment) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] { DataFetchingEnvironment.class },
+                (proxy, method, args) -> method.getName().equals("getSource") ? docQuery : null)));
+        // one class per field, so the accessor is a constant of the class
+        assertEquals(DocQuery.class.getPackage(), docTitle.getClass().getPackage());
+        assertEquals(DocQuery.class.getClassLoader(), docTitle.getClass().getClassLoader());
+
+        GraphQLTypeDescriptor queryType = new GraphQLTypeDescriptor("DocQuery", SchemaType.QUERY, "docQuery", null,
+                List.of(new GraphQLFieldDescriptor("docs", FieldType.LIST, "doc", false, List.of())),
+                Collections.emptySet());
+        Doc doc = new Doc();
+        doc.title = "schema";
+        doc.url = "/schema";
+        graphql.schema.GraphQLSchema schema = new GraphQLExecutableSchemaBuilder()
+                .types(List.of(queryType, new GraphQlSchemaGenerator().buildTypeDescriptor(Doc.class)))
+                .dataFetcher("Query", "docs", environment -> List.of(doc, Map.of("url", "/row"))).build();
+        ExecutionResult result = GraphQL.newGraphQL(schema).build().execute("{ docs { title url } }");
+
+        assertEquals(Collections.emptyList(), result.getErrors());
+        Map<String, Object> data = result.getData();
+        Map<String, Object> row = new HashMap<>();
+        row.put("title", null);
+        row.put("url", "/row");
+        assertEquals(List.of(Map.of("title", "schema", "url", "/schema"), row), data.get("docs"));
+    }
+
+    @Test
+    void hintedFieldsAreCachedUntilInvalidated() {
+        GraphQLTypeDescriptor queryType = new GraphQLTypeDescriptor("KindQuery", SchemaType.QUERY, "kindQuery", null,
+                List.of(new GraphQLFieldDescriptor("kinds", FieldType.LIST, "kind", false,
+                        List.of(new GraphQLParameterDescriptor("lang", FieldType.STRING, "String", true),
+                                new GraphQLParameterDescriptor("trace", FieldType.STRING, "String", true, "trace",
+                                        false))),
+                        new GraphQLFieldDescriptor("now", FieldType.STRING, "String", true, List.of())),
+                Collections.emptySet());
+        GraphQLTypeDescriptor kindType = new GraphQLTypeDescriptor("Kind", SchemaType.OBJECT, "kind", null,
+                List.of(new GraphQLFieldDescriptor("name", FieldType.STRING, "String", true, List.of())),
+                Collections.emptySet(), null, 300, CacheScope.PUBLIC);
+        AtomicInteger fetches = new AtomicInteger();
+        GraphQLFieldCache fieldCache = new GraphQLFieldCache(100, new SimpleMeterRegistry());
+        GraphQLExecutableSchemaBuilder schemaBuilder = new GraphQLExecutableSchemaBuilder().fieldCache(fieldCache)
+                .types(List.of(queryType, kindType)).dataFetcher("Query", "kinds", environment -> {
+                    fetches.incrementAndGet();
+                    return List.of(Map.of("name", environment.getArgument("lang") + "-pdf"));
+                }).dataFetcher("Query", "now", environment -> "12:00");
+        GraphQL graphQL = GraphQL.newGraphQL(schemaBuilder.build())
+                .instrumentation(new GraphQLCacheControlInstrumentation(schemaBuilder.buildCacheControlTable()))
+                .build();
+
+        ExecutionResult first = graphQL.execute("{ kinds(lang: \"en\", trace: \"a\") { name } }");
+        ExecutionResult second = graphQL.execute("{ kinds(lang: \"en\", trace: \"b\") { name } }");
+        assertEquals(Collections.emptyList(), second.getErrors());
+        assertEquals((Object) first.getData(), second.getData());
+        assertEquals(1, fetches.get());
+        assertEquals(Map.of("maxAge", 300, "scope", "PUBLIC"),
+                second.getExtensions().get(GraphQLCacheControlInstrumentation.EXTENSION_NAME));
+        assertEquals("max-age=300, public", GraphQLCacheControlInstrumentation.cacheControlHeader(second));
+
+        // a root field without hint can not be cached
+        ExecutionResult uncacheable = graphQL.execute("{ kinds(lang: \"de\") { name } now }");
+        assertEquals(2, fetches.get());
+        assertEquals("no-store", GraphQLCacheControlInstrumentation.cacheControlHeader(uncacheable));
+        assertEquals(2, fieldCache.size());
+
+        fieldCache.invalidate("Query", "kinds", Map.of("lang", "de"));
+        assertEquals(1, fieldCache.size());
+        fieldCache.invalidate("Query", "kinds");
+        graphQL.execute("{ kinds(lang: \"en\") { name } }");
+        assertEquals(3, fetches.get());
+    }
+
+    @Test
+    void cachedTableFieldsAreKeyedBySelection() throws SQLException {
+        GraphQLTypeDescriptor docType = new GraphQLTypeDescriptor("CachedDoc", SchemaType.OBJECT, "cachedDoc", null,
+                List.of(new GraphQLFieldDescriptor("title", FieldType.STRING, "String", true, List.of()),
+                        new GraphQLFieldDescriptor("url", FieldType.STRING, "String", true, List.of())),
+                Collections.emptySet(), "cached_doc", 300, CacheScope.PUBLIC);
+        GraphQLTypeDescriptor queryType = new GraphQLTypeDescriptor("CachedDocQuery", SchemaType.QUERY,
+                "cachedDocQuery", null, List.of(new GraphQLFieldDescriptor("docs", FieldType.LIST, "cachedDoc", false,
+                        List.of())),
+                Collections.emptySet());
+
+        AtomicInteger selects = new AtomicInteger();
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:cachedTableFields;DB_CLOSE_DELAY=-1");
+        JdbcDataSource dataSource = new JdbcDataSource() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                selects.incrementAndGet();
+                return h2.getConnection();
+            }
+        };
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE cached_doc (title VARCHAR(20), url VARCHAR(20))");
+            statement.execute("INSERT INTO cached_doc (title, url) VALUES ('schema', '/schema')");
+        }
+        GraphQLFieldCache fieldCache = new GraphQLFieldCache(100, new SimpleMeterRegistry());
+        GraphQL graphQL = GraphQL.newGraphQL(new GraphQLExecutableSchemaBuilder().fieldCache(fieldCache)
+                .types(List.of(queryType, docType)).jdbcDataSource(dataSource, 100).build()).build();
+
+        ExecutionResult titles = graphQL.execute("{ docs { title } }");
+        ExecutionResult titlesAndUrls = graphQL.execute("{ docs { title url } }");
+        assertEquals(Map.of("docs", List.of(Map.of("title", "schema"))), titles.getData());
+        // the rows of the first selection only hold the title
+        assertEquals(Map.of("docs", List.of(Map.of("title", "schema", "url", "/schema"))),
+                titlesAndUrls.getData());
+        assertEquals(2, selects.get());
+
+        assertEquals((Object) titles.getData(), graphQL.execute("{ docs { title } }").getData());
+        assertEquals(2, selects.get());
+        assertEquals(2, fieldCache.size());
+    }
+}
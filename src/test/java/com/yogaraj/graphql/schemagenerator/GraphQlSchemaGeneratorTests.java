@@ -0,0 +1,475 @@
+package com.yogaraj.graphql.schemagenerator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import com.yogaraj.graphql.dto.Doc;
+import com.yogaraj.graphql.dto.DocType;
+import com.yogaraj.graphql.schemagenerator.GraphQLField.FieldType;
+import com.yogaraj.graphql.schemagenerator.GraphQLSchema.SchemaType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.FieldVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import graphql.schema.idl.SchemaPrinter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GraphQlSchemaGeneratorTests {
+
+    private static final String DTO_PACKAGE = "com.yogaraj.graphql.dto";
+
+    @Test
+    void precompiledSchemaMatchesGeneratedSchema() throws Exception {
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator();
+        generator.generateSchema(DTO_PACKAGE);
+
+        Class<?> precompiledClass = Class.forName(GraphQlSchemaGenerator.PRECOMPILED_SCHEMA_CLASS);
+        assertEquals(new GraphQLSchemaClassReader(getClass().getClassLoader()).findSchemaClassNames(DTO_PACKAGE),
+                List.of((String[]) precompiledClass.getField("CLASS_NAMES").get(null)));
+
+        GraphQlSchemaGenerator loader = new GraphQlSchemaGenerator();
+        GraphQlSchemaGenerator verifyingLoader = new GraphQlSchemaGenerator();
+        verifyingLoader.setVerifyPrecompiledSchema(true);
+        SchemaPrinter schemaPrinter = new SchemaPrinter();
+        try (LogMessages messages = LogMessages.of(GraphQlSchemaGenerator.class)) {
+            loader.loadSchema(DTO_PACKAGE);
+            assertTrue(messages.contains("LOADED: precompiled GraphQL schema"));
+            verifyingLoader.loadSchema(DTO_PACKAGE);
+            assertFalse(messages.stream().anyMatch(message -> message.startsWith("IGNORING")));
+
+            assertEquals(
+                    schemaPrinter.print(
+                            generator.generateExecutableSchema(new GraphQLExecutableSchemaBuilder(), DTO_PACKAGE)),
+                    schemaPrinter.print(
+                            loader.loadExecutableSchema(new GraphQLExecutableSchemaBuilder(), DTO_PACKAGE)));
+            assertTrue(messages.contains("LOADED: precompiled GraphQL types"));
+        }
+
+        assertEquals(generator.getSchema(), loader.getSchema());
+        assertEquals(generator.getSchema(), verifyingLoader.getSchema());
+    }
+
+    @Test
+    void precompiledSchemaIsIgnoredForOtherClasses(@TempDir Path classDirectory) throws Exception {
+        writeSchemaClass(classDirectory, DTO_PACKAGE + ".Shelf", "shelf", "label");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classDirectory.toUri().toURL() },
+                getClass().getClassLoader());
+                LogMessages messages = LogMessages.of(GraphQlSchemaGenerator.class)) {
+            GraphQlSchemaGenerator loader = new GraphQlSchemaGenerator(classLoader);
+            loader.loadSchema(DTO_PACKAGE);
+
+            assertFalse(messages.contains("LOADED: precompiled GraphQL schema"));
+            assertTrue(messages.contains("IGNORING: precompiled schema since "
+                    + classDirectory.resolve(DTO_PACKAGE.replace('.', '/')).toUri().toURL()
+                    + " holds classes of the packages as well"));
+            assertTrue(loader.getSchema().contains("type shelf "));
+        }
+    }
+
+    @Test
+    void parallelSchemaMatchesSequentialSchema() throws ClassNotFoundException {
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator();
+        generator.generateSchema(DTO_PACKAGE, DTO_PACKAGE);
+
+        GraphQlSchemaGenerator parallelGenerator = new GraphQlSchemaGenerator();
+        parallelGenerator.setExecutor(ForkJoinPool.commonPool());
+        parallelGenerator.generateSchema(DTO_PACKAGE, DTO_PACKAGE);
+
+        assertEquals(generator.getSchema(), parallelGenerator.getSchema());
+    }
+
+    @Test
+    void streamedSchemaMatchesGeneratedSchema() throws Exception {
+        for (boolean isParallel : new boolean[] { false, true }) {
+            for (boolean isPruned : new boolean[] { false, true }) {
+                GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator();
+                generator.setExecutor(isParallel ? ForkJoinPool.commonPool() : null);
+                generator.setPruneUnreachableTypes(isPruned);
+                generator.generateSchema(DTO_PACKAGE);
+
+                StringBuilder appended = new StringBuilder();
+                generator.generateSchema(appended, DTO_PACKAGE);
+                ByteArrayOutputStream written = new ByteArrayOutputStream();
+                generator.generateSchema(Channels.newChannel(written), DTO_PACKAGE);
+
+                String mode = "parallel=" + isParallel + ", pruned=" + isPruned;
+                assertEquals(generator.getSchema(), appended.toString(), mode);
+                assertArrayEquals(generator.getSchema().getBytes(StandardCharsets.UTF_8), written.toByteArray(), mode);
+            }
+        }
+    }
+
+    @Test
+    void concurrentGenerationsAreIndependent() throws Exception {
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator();
+        generator.generateSchema(DTO_PACKAGE);
+        String schema = generator.getSchema();
+        generator.generateSchema(DTO_PACKAGE);
+        assertEquals(schema, generator.getSchema());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<GraphQLGeneratedSchema>> generations = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                generations.add(executor.submit(() -> generator.generate(DTO_PACKAGE)));
+            }
+            for (Future<GraphQLGeneratedSchema> generation : generations) {
+                assertEquals(schema, generation.get().getSchema());
+            }
+
+            AtomicInteger generated = new AtomicInteger();
+            GraphQlSchemaGenerator countingGenerator = new GraphQlSchemaGenerator() {
+                @Override
+                public GraphQLGeneratedSchema generate(String... packages) throws ClassNotFoundException {
+                    generated.incrementAndGet();
+                    return super.generate(packages);
+                }
+            };
+            GraphQLSchemaTenantCache tenantCache = new GraphQLSchemaTenantCache(countingGenerator, 1,
+                    Duration.ofHours(1));
+            List<Future<GraphQLGeneratedSchema>> tenants = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                tenants.add(executor.submit(() -> tenantCache.get(DTO_PACKAGE)));
+            }
+            for (Future<GraphQLGeneratedSchema> tenant : tenants) {
+                assertSame(tenants.get(0).get(), tenant.get());
+            }
+            assertEquals(1, generated.get());
+            assertEquals(schema, tenantCache.get(DTO_PACKAGE).getSchema());
+
+            tenantCache.get(DTO_PACKAGE, DTO_PACKAGE);
+            assertEquals(1, tenantCache.size());
+            tenantCache.invalidate(DTO_PACKAGE);
+            tenantCache.invalidate(DTO_PACKAGE, DTO_PACKAGE);
+            assertEquals(0, tenantCache.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void generationPhasesAreMeasured() throws ClassNotFoundException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator();
+        generator.setMetrics(new GraphQLSchemaMetrics(meterRegistry));
+        generator.generateSchema(DTO_PACKAGE);
+
+        for (String phase : new String[] { "scan", "read", "render", "total" }) {
+            assertEquals(1, meterRegistry.get(GraphQLSchemaMetrics.GENERATION_TIMER).tag("phase", phase).timer()
+                    .count());
+        }
+        int classCount = new GraphQLSchemaClassReader(getClass().getClassLoader()).findSchemaClassNames(DTO_PACKAGE)
+                .size();
+        assertEquals(classCount, meterRegistry.get("graphql.schema.classes").gauge().value());
+    }
+
+    @Test
+    void cachedSchemaMatchesGeneratedSchema(@TempDir Path cacheDirectory) throws ClassNotFoundException, IOException {
+        GraphQLSchemaCache cache = new GraphQLSchemaCache(cacheDirectory.resolve("schema.cache"));
+
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator();
+        generator.setSchemaCache(cache);
+        generator.generateSchema(DTO_PACKAGE);
+
+        GraphQlSchemaGenerator cachedGenerator = new GraphQlSchemaGenerator();
+        cachedGenerator.setSchemaCache(cache);
+        cachedGenerator.generateSchema(DTO_PACKAGE);
+
+        assertEquals(generator.getSchema(), cachedGenerator.getSchema());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+
+        // a damaged file is a miss, never a wrong schema
+        byte[] content = Files.readAllBytes(cache.getCacheFile());
+        content[content.length / 2] ^= 1;
+        Files.write(cache.getCacheFile(), content);
+
+        GraphQlSchemaGenerator damagedGenerator = new GraphQlSchemaGenerator();
+        damagedGenerator.setSchemaCache(cache);
+        damagedGenerator.generateSchema(DTO_PACKAGE);
+
+        assertEquals(generator.getSchema(), damagedGenerator.getSchema());
+        assertEquals(2, cache.getMissCount());
+
+        // a hit of a pruned schema tells which classes were pruned
+        GraphQlSchemaGenerator prunedGenerator = new GraphQlSchemaGenerator();
+        prunedGenerator.setSchemaCache(cache);
+        prunedGenerator.setPruneUnreachableTypes(true);
+        prunedGenerator.generateSchema(DTO_PACKAGE);
+
+        GraphQlSchemaGenerator cachedPrunedGenerator = new GraphQlSchemaGenerator();
+        cachedPrunedGenerator.setSchemaCache(cache);
+        cachedPrunedGenerator.setPruneUnreachableTypes(true);
+        cachedPrunedGenerator.generateSchema(DTO_PACKAGE);
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(prunedGenerator.getSchema(), cachedPrunedGenerator.getSchema());
+        assertEquals(List.of(Doc.class.getName(), DocType.class.getName()),
+                cachedPrunedGenerator.getPrunedClassNames());
+    }
+
+    @Test
+    void cacheMissesTellWhatChanged(@TempDir Path cacheDirectory, @TempDir Path classDirectory) throws Exception {
+        GraphQLSchemaCache cache = new GraphQLSchemaCache(cacheDirectory.resolve("schema.cache"));
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator();
+        generator.setSchemaCache(cache);
+        generator.generateSchema(DTO_PACKAGE);
+
+        writeSchemaClass(classDirectory, DTO_PACKAGE + ".Shelf", "shelf", "label");
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classDirectory.toUri().toURL() },
+                getClass().getClassLoader());
+                LogMessages messages = LogMessages.of(GraphQLSchemaCache.class)) {
+            GraphQlSchemaGenerator extendedGenerator = new GraphQlSchemaGenerator(classLoader);
+            extendedGenerator.setSchemaCache(cache);
+            extendedGenerator.generateSchema(DTO_PACKAGE);
+            assertTrue(messages.contains("CACHE MISS: 0 class files changed, 1 added, 0 removed, e.g. "
+                    + classDirectory.resolve(DTO_PACKAGE.replace('.', '/') + "/Shelf.class").toUri().toURL()));
+
+            GraphQlSchemaGenerator prunedGenerator = new GraphQlSchemaGenerator(classLoader);
+            prunedGenerator.setSchemaCache(cache);
+            prunedGenerator.setPruneUnreachableTypes(true);
+            prunedGenerator.generateSchema(DTO_PACKAGE);
+            assertTrue(messages.contains("CACHE MISS: class files are unchanged, the schema was generated by "
+                    + "another generator or with other options"));
+        }
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    void unreachableTypesArePruned() throws ClassNotFoundException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator();
+        generator.setMetrics(new GraphQLSchemaMetrics(meterRegistry));
+        generator.setPruneUnreachableTypes(true);
+        generator.generateSchema(DTO_PACKAGE);
+
+        // docQuery only returns scalars
+        assertEquals(List.of(Doc.class.getName(), DocType.class.getName()), generator.getPrunedClassNames());
+        assertTrue(generator.getSchema().contains("docTitle"));
+        assertFalse(generator.getSchema().contains("type doc "));
+        assertEquals(2, meterRegistry.get("graphql.schema.annotations").tag("outcome", "unreachable").counter()
+                .count());
+
+        GraphQlSchemaGenerator parallelGenerator = new GraphQlSchemaGenerator();
+        parallelGenerator.setExecutor(ForkJoinPool.commonPool());
+        parallelGenerator.setPruneUnreachableTypes(true);
+        parallelGenerator.generateSchema(DTO_PACKAGE);
+
+        assertEquals(generator.getSchema(), parallelGenerator.getSchema());
+    }
+
+    @Test
+    void binarySchemaMatchesGeneratedSchema(@TempDir Path directory) throws ClassNotFoundException, IOException {
+        GraphQlSchemaGenerator generator = new GraphQlSchemaGenerator();
+        generator.generateSchema(DTO_PACKAGE);
+
+        Path binaryFile = directory.resolve("schema.bin");
+        try (OutputStream out = Files.newOutputStream(binaryFile)) {
+            new GraphQlSchemaGenerator().generateBinarySchema(out, DTO_PACKAGE);
+        }
+        GraphQLSchemaBinary schemaBinary = GraphQLSchemaBinary.open(binaryFile);
+
+        assertEquals(generator.getSchema(), schemaBinary.renderSchema());
+        assertEquals(new SchemaPrinter().print(new GraphQlSchemaGenerator().generateExecutableSchema(DTO_PACKAGE)),
+                new SchemaPrinter().print(schemaBinary.buildExecutableSchema(new GraphQLExecutableSchemaBuilder())));
+
+        byte[] content = Files.readAllBytes(binaryFile);
+        content[content.length / 2] ^= 1;
+        assertThrows(IOException.class, () -> GraphQLSchemaBinary.read(ByteBuffer.wrap(content)));
+    }
+
+    @Test
+    void duplicateNamesAndInputCyclesAreDetected() {
+        GraphQLTypeDescriptor left = inputType("a.Left", "left", "right");
+        GraphQLTypeDescriptor right = inputType("a.Right", "right", "left");
+        GraphQLTypeDescriptor duplicate = inputType("b.Left", "left", "right");
+        GraphQLSchemaSymbolTable symbolTable = new GraphQLSchemaSymbolTable();
+
+        assertNull(symbolTable.claim(left));
+        assertNull(symbolTable.claim(right));
+        assertNull(symbolTable.claim(left));
+        assertEquals("a.Left", symbolTable.claim(duplicate));
+        assertEquals(List.of(List.of("left", "right")), GraphQLSchemaSymbolTable.findInputCycles(List.of(left, right)));
+
+        // cycles are reported in type order, whatever the hash order of the names
+        List<GraphQLTypeDescriptor> types = List.of(inputType("c.Zulu", "zulu", "yankee"),
+                inputType("c.Yankee", "yankee", "zulu"), inputType("c.Bravo", "bravo", "alpha"),
+                inputType("c.Alpha", "alpha", "bravo"), inputType("c.Mike", "mike", "kilo"),
+                inputType("c.Kilo", "kilo", "mike"));
+        assertEquals(List.of(List.of("zulu", "yankee"), List.of("bravo", "alpha"), List.of("mike", "kilo")),
+                GraphQLSchemaSymbolTable.findInputCycles(types));
+    }
+
+    private static GraphQLTypeDescriptor inputType(String className, String operationName, String fieldTypeName) {
+        return new GraphQLTypeDescriptor(className, SchemaType.INPUT, operationName, null,
+                List.of(new GraphQLFieldDescriptor(fieldTypeName, FieldType.OBJECT, fieldTypeName, false, List.of())),
+                Set.of());
+    }
+
+    @Test
+    void classFilesAreParsedOncePerContent() throws ClassNotFoundException, IOException {
+        GraphQLSchemaClassReader.clearClassFileCache();
+        long misses = GraphQLSchemaClassReader.classFileCacheStats().missCount();
+        long hits = GraphQLSchemaClassReader.classFileCacheStats().hitCount();
+        GraphQLTypeDescriptor typeDescriptor = new GraphQlSchemaGenerator().buildTypeDescriptor(Doc.class);
+        assertEquals(misses + 1, GraphQLSchemaClassReader.classFileCacheStats().missCount());
+
+        // a new reader and generation only checksums the class file
+        GraphQLTypeDescriptor cachedDescriptor = new GraphQLSchemaClassReader(getClass().getClassLoader())
+                .buildTypeDescriptor(Doc.class.getName());
+        assertEquals(misses + 1, GraphQLSchemaClassReader.classFileCacheStats().missCount());
+        assertEquals(hits + 1, GraphQLSchemaClassReader.classFileCacheStats().hitCount());
+        assertEquals("doc", typeDescriptor.getOperationName());
+        assertEquals(2, typeDescriptor.getFields().size());
+        StringBuilder fragment = new StringBuilder();
+        StringBuilder cachedFragment = new StringBuilder();
+        new GraphQLSchemaWriter().render(typeDescriptor, fragment);
+        new GraphQLSchemaWriter().render(cachedDescriptor, cachedFragment);
+        assertEquals(fragment.toString(), cachedFragment.toString());
+    }
+
+    @Test
+    void reloaderRendersOnlyChangedClasses(@TempDir Path classDirectory) throws Exception {
+        String bookClass = "com.yogaraj.graphql.reloaded.Book";
+        String authorClass = "com.yogaraj.graphql.reloaded.Author";
+        writeSchemaClass(classDirectory, bookClass, "book", "title");
+        writeSchemaClass(classDirectory, authorClass, "author", "name");
+
+        try (LogMessages messages = LogMessages.of(GraphQLSchemaReloader.class);
+                URLClassLoader classLoader = new URLClassLoader(new URL[] { classDirectory.toUri().toURL() },
+                getClass().getClassLoader());
+                GraphQLSchemaReloader reloader = new GraphQLSchemaReloader(classLoader,
+                        "com.yogaraj.graphql.reloaded")) {
+            List<String> published = new ArrayList<>();
+            reloader.addListener(published::add);
+            reloader.load();
+            assertTrue(messages.contains("RELOADED: 2 of 2 classes"));
+            assertFalse(reloader.getSchema().contains("isbn"));
+
+            writeSchemaClass(classDirectory, bookClass, "book", "title", "isbn");
+            reloader.reload(List.of(bookClass, authorClass));
+
+            assertTrue(messages.contains("RELOADED: 1 of 2 classes"));
+            assertEquals(2, published.size());
+            assertEquals(reloader.getSchema(), published.get(1));
+            assertTrue(reloader.getSchema().contains("isbn"));
+            assertTrue(reloader.getSchema().contains("type author "));
+            assertEquals(2, reloader.getTypeDescriptors().size());
+
+            // a failed reload leaves the cached fragments and the schema as they were
+            String schema = reloader.getSchema();
+            writeSchemaClass(classDirectory, bookClass, "book", "title", "isbn", "pages");
+            Files.write(classDirectory.resolve(authorClass.replace('.', '/') + ".class"), new byte[] { 1, 2, 3 });
+            assertThrows(Exception.class, () -> reloader.reload(List.of(bookClass, authorClass)));
+            assertEquals(schema, reloader.getSchema());
+            assertEquals(2, published.size());
+
+            writeSchemaClass(classDirectory, authorClass, "author", "name");
+            reloader.reload(List.of(bookClass, authorClass));
+            assertEquals(3, published.size());
+            assertTrue(reloader.getSchema().contains("pages"));
+        }
+    }
+
+    /**
+     * writes the class file of a class which is annotated like a schema DTO, so
+     * the annotation processor of the test sources does not see it
+     */
+    private static void writeSchemaClass(Path classDirectory, String className, String operationName,
+            String... fieldNames) throws IOException {
+        ClassWriter classWriter = new ClassWriter(0);
+        classWriter.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, className.replace('.', '/'), null,
+                "java/lang/Object", null);
+        AnnotationVisitor schema = classWriter.visitAnnotation(Type.getDescriptor(GraphQLSchema.class), true);
+        schema.visit("operationName", operationName);
+        schema.visitEnd();
+        for (String fieldName : fieldNames) {
+            FieldVisitor field = classWriter.visitField(Opcodes.ACC_PUBLIC, fieldName, "Ljava/lang/String;", null,
+                    null);
+            field.visitAnnotation(Type.getDescriptor(GraphQLField.class), true).visitEnd();
+            field.visitEnd();
+        }
+        classWriter.visitEnd();
+        Path classFile = classDirectory.resolve(className.replace('.', '/') + ".class");
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, classWriter.toByteArray());
+    }
+
+    /**
+     * messages of the logger of a class, while it is open
+     */
+    private static final class LogMessages extends Handler implements AutoCloseable {
+
+        private final Logger logger;
+
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        private LogMessages(Logger logger) {
+            this.logger = logger;
+        }
+
+        static LogMessages of(Class<?> loggingClass) {
+            LogMessages messages = new LogMessages(Logger.getLogger(loggingClass.getSimpleName()));
+            messages.logger.addHandler(messages);
+            return messages;
+        }
+
+        boolean contains(String message) {
+            return this.messages.contains(message);
+        }
+
+        Stream<String> stream() {
+            return this.messages.stream();
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            this.messages.add(record.getMessage());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            this.logger.removeHandler(this);
+        }
+    }
+}